@@ -1,22 +1,33 @@
 package Bean;
 
+import Utils.IdempotencyStore;
+import Utils.LendingService;
+import Utils.RateLimiter;
 import Utils.MathUtils;
+import Utils.MovieLockRegistry;
 import Utils.PageController;
 import Modules.Borrowing;
+import Modules.BorrowOutcome;
+import Modules.Reservation;
 import Modules.User;
 import Modules.Movie;
 import DAO.BorrowingDAO;
 import DAO.MovieDAO;
+import DAO.ReservationDAO;
 import jakarta.enterprise.context.SessionScoped;
 import jakarta.faces.application.FacesMessage;
 import jakarta.faces.context.FacesContext;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.ArrayList;
+import java.util.function.Supplier;
 import config.AppConfig;
 
 /**
@@ -28,6 +39,8 @@ import config.AppConfig;
 @SessionScoped
 public class BorrowBean implements Serializable {
 
+    private static final String ACTIVE_RESERVATIONS = "activeReservations"; // Per-request key of the user's active reservations
+    private static final String OVERDUE_BORROWINGS = "overdueBorrowings"; // Per-request key of the admin dashboard's overdue list
     private List<Borrowing> currentBorrowedByUser;// Currently borrowed movies by the user (not yet returned)
     private List<Borrowing> borrowingHistoryByUser;// Full borrowing history of the user
     private Movie selectedMovie;// Movie that was most recently borrowed
@@ -39,6 +52,7 @@ public class BorrowBean implements Serializable {
     private String cvc;// Credit card CVC code
     private String expiryMonth;// Credit card expiry month
     private String expiryYear;// Credit card expiry year
+    private Map<String, Boolean> selectedBorrowings = new HashMap<>();// Borrowing ID -> checked in a multi-select table
     @Inject
     private MovieBean movieBean;// Injected reference to movie-related logic
     @Inject
@@ -152,11 +166,24 @@ public class BorrowBean implements Serializable {
         return BorrowingDAO.getPendingLosses();
     }
 
+    /**
+     * Retrieves the open borrowings marked overdue by the background scan, for
+     * the admin dashboard. Loaded once per request; a return or confirmed
+     * loss in the same request reloads it.
+     *
+     * @return a list of overdue borrowings, oldest due date first
+     */
+    public List<Borrowing> getOverdueBorrowings() {
+        return perRequest(OVERDUE_BORROWINGS, () -> BorrowingDAO.getOverdueBorrowings(AppConfig.getOverdueDashboardLimit()));
+    }
+
     /**
      * Attempts to borrow a movie for the logged-in user based on the provided
      * movie ID. Performs validation for login, movie availability, borrow
      * limits, and duplicate borrow prevention. Updates inventory and redirects
-     * to the confirmation page upon success.
+     * to the confirmation page upon success. The request key rendered with the
+     * borrow link makes a double-click or retried request report the first
+     * outcome instead of borrowing again.
      *
      * @param movieId the ID of the movie to borrow
      */
@@ -166,21 +193,19 @@ public class BorrowBean implements Serializable {
             context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error:", "You must be logged in."));
             return;
         }
-        User user = userBean.getLoggedInUser();
-        List<Movie> allMovies = MovieDAO.getAllMovies();
-        Movie movie = allMovies.stream()
-                .filter(m -> m.getMovieId().equals(movieId))
-                .findFirst()
-                .orElse(null);
-
-        if (movie == null || movie.getCopiesAvailable() <= 0) {
-            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error:", "Movie is not available."));
+        long retryMillis = RateLimiter.tryAcquire(RateLimiter.Action.BORROW, userBean.getRateLimitSubject());
+        if (retryMillis > 0) {
+            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_WARN, "Too Many Requests:",
+                    "You are borrowing too quickly. Please try again in " + RateLimiter.toSeconds(retryMillis) + " seconds."));
             return;
         }
-
-        List<Borrowing> active = BorrowingDAO.getCurrentBorrowedByUser(user.getUserId());
-        if (active.size() >= user.getLimitBorrowMax()) {
-            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error:", "Borrow limit reached."));
+        User user = userBean.getLoggedInUser();
+        Movie movie = movieBean.getMovieByIdFromList(movieId);
+        if (movie == null) {
+            movie = MovieDAO.getMovieById(movieId);
+        }
+        if (movie == null) {
+            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error:", "Movie is not available."));
             return;
         }
 
@@ -191,18 +216,13 @@ public class BorrowBean implements Serializable {
                 new Date(),
                 null
         );
-        //  Check if the user already borrowed this movie
-        boolean alreadyBorrowed = active.stream()
-                .anyMatch(b -> b.getMovieId().equals(movieId));
-        if (alreadyBorrowed) {
-            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_WARN, "Already Borrowed", "You already borrowed this movie."));
-            return;
-        }
-        boolean success = BorrowingDAO.addBorrowing(borrowing);
-        if (success) {
-            // Update inventory
-            movie.setCopiesAvailable(movie.getCopiesAvailable() - 1);
-            MovieDAO.updateMovieInventory(movie);
+        // Checks and the transactional borrow run once per request key; a replay gets the first outcome
+        String key = IdempotencyStore.scopedKey("borrow", user.getUserId(), getRequestKeyParam());
+        BorrowOutcome outcome = IdempotencyStore.execute(key, () -> LendingService.borrow(user, borrowing), LendingService::isFinal);
+        if (outcome == BorrowOutcome.BORROWED) {
+            // Reflect the inventory change
+            Movie updated = MovieDAO.getMovieById(movie.getMovieId());
+            movie.setCopiesAvailable(updated != null ? updated.getCopiesAvailable() : movie.getCopiesAvailable() - 1);
             // Set selected movie and borrow date
             this.selectedMovie = movie;
             this.borrowDate = borrowing.getBorrowDate();
@@ -215,10 +235,20 @@ public class BorrowBean implements Serializable {
             movieBean.loadMovies();
             // Calculate values for Borrow Confirmation page
             this.availableCopiesAfterBorrow = movie.getCopiesAvailable();
-            int remaining = user.getLimitBorrowMax() - (active.size() + 1);
-            this.remainingBorrowsAfterBorrow = MathUtils.ensureNonNegative(remaining);
+            this.remainingBorrowsAfterBorrow = getRemainingBorrowLimit();
             refreshBorrowingLists();
+            forgetPerRequest(ACTIVE_RESERVATIONS); // A held copy may have been claimed
             pageController.setPage("borrowConfirmation");
+        } else if (outcome == BorrowOutcome.ALREADY_BORROWED) {
+            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_WARN, "Already Borrowed", "You already borrowed this movie."));
+        } else if (outcome == BorrowOutcome.LIMIT_REACHED) {
+            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error:", "Borrow limit reached."));
+        } else if (outcome == BorrowOutcome.NOT_AVAILABLE) {
+            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_WARN, "Not Available",
+                    "No copies are available right now. You can join the waitlist from the movie's details."));
+            movieBean.loadMovies();
+        } else if (outcome == null) {
+            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_WARN, "Please wait", "Your borrow request is still being processed."));
         } else {
             context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error:", "Failed to borrow."));
         }
@@ -251,8 +281,10 @@ public class BorrowBean implements Serializable {
 
     /**
      * Handles the return process of a borrowed movie. Marks the borrowing as
-     * returned in the database, updates the movie inventory, refreshes the
-     * borrowing lists, and displays appropriate UI messages.
+     * returned in the database, which in the same transaction hands the copy
+     * to the next user in the waitlist or back to the inventory, refreshes the
+     * borrowing lists, and displays appropriate UI messages. Like borrowing,
+     * the return is idempotent per rendered request key.
      *
      * @param movieId the ID of the movie to return
      */
@@ -263,35 +295,32 @@ public class BorrowBean implements Serializable {
                     new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error", "User not logged in."));
             return;
         }
-        for (Borrowing active : currentBorrowedByUser) {
-            if (active.getMovieId().equals(movieId)) {
-                java.sql.Date sqlDate = new java.sql.Date(new Date().getTime());
-                boolean updated = BorrowingDAO.markAsReturned(active.getBorrowingId(), sqlDate);
-                if (updated) {
-                    System.out.println("✅ Borrowing marked as returned for borrowingId: " + active.getBorrowingId());
-                    // Call the function that returns the copy back to inventory
-                    movieBean.returnCopyToInventory(movieId);
-                    // Print the movie after update (check updated available copies)
-                    Movie movie = movieBean.getMovieByIdFromList(movieId); //Gets the movie from the list in movieBean
-                    if (movie != null) {
-                        System.out.println("🎥 Movie: " + movie.getTitle() + " | Available copies after return: " + movie.getCopiesAvailable());
-                    } else {
-                        System.out.println("⚠️ Could not find movie in list after return.");
-                    }
-                    FacesContext.getCurrentInstance().addMessage(null,
-                            new FacesMessage(FacesMessage.SEVERITY_INFO, "Success", "Movie returned successfully."));
-                    refreshBorrowingLists();
-                    loadBorrowingHistory();
-                } else {
-                    FacesContext.getCurrentInstance().addMessage(null,
-                            new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error", "Failed to return the movie."));
-                }
-                return;
+        String key = IdempotencyStore.scopedKey("return", user.getUserId(), getRequestKeyParam());
+        BorrowOutcome outcome = IdempotencyStore.execute(key, () -> LendingService.returnMovie(user.getUserId(), movieId), LendingService::isFinal);
+        if (outcome == BorrowOutcome.RETURNED) {
+            movieBean.loadMovies();
+            // Print the movie after update (check updated available copies)
+            Movie movie = movieBean.getMovieByIdFromList(movieId); //Gets the movie from the list in movieBean
+            if (movie != null) {
+                System.out.println("🎥 Movie: " + movie.getTitle() + " | Available copies after return: " + movie.getCopiesAvailable());
+            } else {
+                System.out.println("⚠️ Could not find movie in list after return.");
             }
+            FacesContext.getCurrentInstance().addMessage(null,
+                    new FacesMessage(FacesMessage.SEVERITY_INFO, "Success", "Movie returned successfully."));
+            refreshBorrowingLists();
+            forgetPerRequest(OVERDUE_BORROWINGS);
+            loadBorrowingHistory();
+        } else if (outcome == BorrowOutcome.NOT_BORROWED) {
+            FacesContext.getCurrentInstance().addMessage(null,
+                    new FacesMessage(FacesMessage.SEVERITY_WARN, "Warning", "Active borrowing not found."));
+        } else if (outcome == null) {
+            FacesContext.getCurrentInstance().addMessage(null,
+                    new FacesMessage(FacesMessage.SEVERITY_WARN, "Please wait", "Your return is still being processed."));
+        } else {
+            FacesContext.getCurrentInstance().addMessage(null,
+                    new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error", "Failed to return the movie."));
         }
-
-        FacesContext.getCurrentInstance().addMessage(null,
-                new FacesMessage(FacesMessage.SEVERITY_WARN, "Warning", "Active borrowing not found."));
     }
 
     /**
@@ -397,38 +426,106 @@ public class BorrowBean implements Serializable {
     }
 
     /**
-     * Confirms a pending loss report by its borrowing ID. Updates the borrowing
-     * status in the database, attempts to reduce the total number of copies of
-     * the associated movie, and refreshes movie and borrowing data. Displays
-     * appropriate messages depending on the outcome.
+     * Confirms a pending loss report by its borrowing ID. The status change and
+     * the reduction of the movie's total copies run in one transaction.
      *
      * @param borrowingId the ID of the borrowing to confirm as lost
      */
     public void confirmLoss(String borrowingId) {
-        FacesContext context = FacesContext.getCurrentInstance();
+        confirmLosses(Collections.singletonList(borrowingId));
+    }
 
-        boolean success = BorrowingDAO.confirmLossAndUpdate(borrowingId);
+    /**
+     * Confirms every pending loss report checked in the admin loss queue, in
+     * one transaction.
+     */
+    public void confirmSelectedLosses() {
+        List<String> ids = takeSelectedBorrowingIds();
+        if (ids.isEmpty()) {
+            FacesContext.getCurrentInstance().addMessage(null, new FacesMessage(FacesMessage.SEVERITY_WARN,
+                    "Nothing selected", "Select at least one loss report to confirm."));
+            return;
+        }
+        confirmLosses(ids);
+    }
 
-        if (success) {
-            Borrowing borrowing = BorrowingDAO.getBorrowingById(borrowingId);
-            if (borrowing != null) {
-                // Update the total number of copies for the movie
-                boolean quantityReduced = MovieDAO.decreaseTotalCopies(borrowing.getMovieId());
-                if (!quantityReduced) {
-                    context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_WARN,
-                            "Warning", "Loss confirmed, but total copies not reduced."));
-                }
-            } else {
-                context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_WARN,
-                        "Loss confirmed", "Could not fetch borrowing details to update inventory and limit."));
-            }
-            // Refresh movie and borrowing lists
-            movieBean.loadMovies();
-            refreshBorrowingLists();
+    /**
+     * Returns every borrowing the logged-in user checked on the profile page,
+     * in one transaction.
+     */
+    public void returnSelected() {
+        FacesContext context = FacesContext.getCurrentInstance();
+        User user = userBean.getLoggedInUser();
+        List<String> ids = takeSelectedBorrowingIds();
+        if (user == null) {
+            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error", "User not logged in."));
+            return;
+        }
+        if (ids.isEmpty()) {
+            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_WARN, "Nothing selected", "Select at least one movie to return."));
+            return;
+        }
+        Map<String, BorrowOutcome> outcomes = LendingService.returnBorrowings(user.getUserId(), ids);
+        long returned = outcomes.values().stream().filter(o -> o == BorrowOutcome.RETURNED).count();
+        if (outcomes.containsValue(BorrowOutcome.ERROR)) {
+            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error", "Failed to return the selected movies."));
+        } else if (returned < ids.size()) {
+            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_WARN, "Partially returned",
+                    returned + " of " + ids.size() + " movies returned; the others were already returned."));
         } else {
+            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_INFO, "Success", returned + " movie(s) returned successfully."));
+        }
+        movieBean.loadMovies();
+        refreshBorrowingLists();
+        forgetPerRequest(OVERDUE_BORROWINGS);
+        loadBorrowingHistory();
+    }
+
+    /**
+     * Confirms a list of loss reports and displays a summary of the per-item
+     * outcomes.
+     *
+     * @param borrowingIds the IDs of the borrowings to confirm as lost
+     */
+    private void confirmLosses(List<String> borrowingIds) {
+        FacesContext context = FacesContext.getCurrentInstance();
+        Map<String, BorrowOutcome> outcomes = LendingService.confirmLosses(borrowingIds);
+        long confirmed = outcomes.values().stream().filter(o -> o == BorrowOutcome.LOSS_CONFIRMED).count();
+        if (outcomes.containsValue(BorrowOutcome.ERROR)) {
             context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR,
                     "Error", "Failed to confirm the loss."));
+        } else if (confirmed < outcomes.size()) {
+            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_WARN, "Partially confirmed",
+                    confirmed + " of " + outcomes.size() + " losses confirmed; the others are no longer pending."));
+        } else {
+            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_INFO, "Loss confirmed",
+                    confirmed + " loss report(s) confirmed."));
+        }
+        // Refresh movie and borrowing lists
+        movieBean.loadMovies();
+        refreshBorrowingLists();
+        forgetPerRequest(OVERDUE_BORROWINGS);
+    }
+
+    /**
+     * Collects the borrowing IDs checked in a multi-select table and clears
+     * the selection.
+     *
+     * @return list of checked borrowing IDs
+     */
+    private List<String> takeSelectedBorrowingIds() {
+        List<String> ids = new ArrayList<>();
+        for (Map.Entry<String, Boolean> entry : selectedBorrowings.entrySet()) {
+            if (Boolean.TRUE.equals(entry.getValue())) {
+                ids.add(entry.getKey());
+            }
         }
+        selectedBorrowings.clear();
+        return ids;
+    }
+
+    public Map<String, Boolean> getSelectedBorrowings() {
+        return selectedBorrowings;
     }
 
     /**
@@ -445,4 +542,119 @@ public class BorrowBean implements Serializable {
         }
     }
 
+    /**
+     * Adds the logged-in user to the waitlist of a movie. When a copy is
+     * returned it is held for the oldest waiting user, who can then borrow it
+     * before the hold expires.
+     *
+     * @param movieId the ID of the movie to reserve
+     */
+    public void reserveMovie(String movieId) {
+        FacesContext context = FacesContext.getCurrentInstance();
+        User user = userBean.getLoggedInUser();
+        if (user == null) {
+            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error:", "You must be logged in."));
+            return;
+        }
+        if (ReservationDAO.addReservation(user.getUserId(), movieId)) {
+            forgetPerRequest(ACTIVE_RESERVATIONS);
+            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_INFO, "Waitlist",
+                    "You joined the waitlist. A copy will be held for you when it is your turn."));
+        } else {
+            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_WARN, "Waitlist", "You are already on the waitlist for this movie."));
+        }
+    }
+
+    /**
+     * Cancels one of the logged-in user's reservations. A copy held for it is
+     * passed on to the next user in the waitlist, under the lock of the
+     * reserved movie, which is looked up from the reservation rather than
+     * taken from the request.
+     *
+     * @param reservationId the ID of the reservation to cancel
+     */
+    public void cancelReservation(String reservationId) {
+        FacesContext context = FacesContext.getCurrentInstance();
+        User user = userBean.getLoggedInUser();
+        String movieId = user != null ? ReservationDAO.getMovieId(reservationId, user.getUserId()) : null;
+        if (movieId != null && MovieLockRegistry.withLock(movieId,
+                () -> ReservationDAO.cancelReservation(reservationId, user.getUserId()))) {
+            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_INFO, "Waitlist", "Reservation cancelled."));
+            forgetPerRequest(ACTIVE_RESERVATIONS);
+            movieBean.loadMovies();
+        } else {
+            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error:", "Failed to cancel the reservation."));
+        }
+    }
+
+    /**
+     * Retrieves the waiting and held reservations of the logged-in user.
+     * Loaded once per request, however often the page evaluates it; a
+     * reserve, cancel or borrow in the same request reloads it.
+     *
+     * @return list of active reservations; empty if no user is logged in
+     */
+    public List<Reservation> getActiveReservations() {
+        if (userBean.getLoggedInUser() == null) {
+            return new ArrayList<>();
+        }
+        String userId = userBean.getLoggedInUser().getUserId();
+        return perRequest(ACTIVE_RESERVATIONS, () -> ReservationDAO.getActiveReservationsByUser(userId));
+    }
+
+    /**
+     * Checks whether the logged-in user is waiting for, or holding a copy of,
+     * the given movie.
+     *
+     * @param movieId the ID of the movie
+     * @return true if the user has an active reservation for the movie
+     */
+    public boolean hasActiveReservation(String movieId) {
+        return getActiveReservations().stream().anyMatch(r -> r.getMovieId().equals(movieId));
+    }
+
+    /**
+     * Returns a new request key for a borrow, return or reservation link. Each
+     * rendered link carries its own key, so repeated submissions of the same
+     * link share it while a freshly rendered page gets a new one.
+     *
+     * @return a new random request key
+     */
+    public String getNewRequestKey() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Returns a value loaded at most once per JSF request, kept in the
+     * attributes of the FacesContext, which are discarded with the request.
+     *
+     * @param key the name of the value
+     * @param loader loads the value
+     * @return the value loaded earlier in this request, or newly loaded
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T perRequest(String key, Supplier<T> loader) {
+        Map<Object, Object> attributes = FacesContext.getCurrentInstance().getAttributes();
+        return (T) attributes.computeIfAbsent(BorrowBean.class.getName() + "." + key, k -> loader.get());
+    }
+
+    /**
+     * Drops a per-request value after an action changed it, so the page
+     * rendered by the same request loads it again.
+     *
+     * @param key the name of the value
+     */
+    private void forgetPerRequest(String key) {
+        FacesContext.getCurrentInstance().getAttributes().remove(BorrowBean.class.getName() + "." + key);
+    }
+
+    /**
+     * Reads the request key sent with the current JSF request.
+     *
+     * @return the request key, or null if the request did not carry one
+     */
+    private String getRequestKeyParam() {
+        return FacesContext.getCurrentInstance().getExternalContext().getRequestParameterMap().get("requestKey");
+    }
+
 }
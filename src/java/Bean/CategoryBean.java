@@ -1,17 +1,19 @@
 package Bean;
 
+import Utils.CategoryRegistry;
 import Utils.PageController;
+import Utils.PosterStore;
 import Modules.Category;
 import DAO.CategoryDAO;
 import jakarta.inject.Named;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import jakarta.servlet.http.Part;
 import java.io.InputStream;
 import java.util.Map;
 import jakarta.inject.Inject;
-import java.util.Base64;
 import jakarta.faces.application.FacesMessage;
 import jakarta.faces.context.FacesContext;
 import java.io.IOException;
@@ -75,7 +77,8 @@ public class CategoryBean implements Serializable {
      * exposed to JSF views.
      */
     private void loadCategories() {
-        categories = CategoryDAO.getAllCategories();
+        List<Category> loaded = CategoryDAO.getAllCategories();
+        categories = loaded != null ? loaded : new ArrayList<>();
         System.out.println("Categories Loaded: " + categories.size());
     }
 
@@ -110,9 +113,9 @@ public class CategoryBean implements Serializable {
                 return;
             }
             try (InputStream input = uploadedFile.getInputStream()) {
-                newCategory.setPosterImage(input.readAllBytes());
+                newCategory.setPosterHash(PosterStore.store(input, AppConfig.getMaxImageUploadSize()));
             } catch (IOException e) {
-                context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error:", "Failed to read image!"));
+                context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error:", "Failed to save image!"));
                 return;
             }
         }
@@ -142,7 +145,7 @@ public class CategoryBean implements Serializable {
         boolean success = CategoryDAO.deleteCategory(categoryId);
         if (success) {
             System.out.println("Category deleted: " + categoryId);
-            categories = CategoryDAO.getAllCategories();
+            loadCategories();
             context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_INFO, "Success!", "Category deleted successfully!"));
         } else {
             System.out.println("Failed to delete category: " + categoryId);
@@ -180,9 +183,9 @@ public class CategoryBean implements Serializable {
      * Updates the details of the selected category.
      *
      * This method: - Verifies that a category is selected. - Handles optional
-     * image upload and stores it as a byte array. - Updates the category in the
-     * database. - Refreshes the category list on success and displays a
-     * message.
+     * image upload, streamed into the poster store within the upload size
+     * limit. - Updates the category in the database. - Refreshes the
+     * category list on success and displays a message.
      */
     public void updateCategory() {
         FacesContext context = FacesContext.getCurrentInstance();
@@ -192,9 +195,9 @@ public class CategoryBean implements Serializable {
         }
         if (uploadedFile != null && uploadedFile.getSize() > 0) {
             try (InputStream input = uploadedFile.getInputStream()) {
-                selectedCategory.setPosterImage(input.readAllBytes());
+                selectedCategory.setPosterHash(PosterStore.store(input, AppConfig.getMaxImageUploadSize()));
             } catch (IOException e) {
-                context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error:", "Failed to read image!"));
+                context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error:", "Failed to save image!"));
                 return;
             }
         }
@@ -209,46 +212,29 @@ public class CategoryBean implements Serializable {
     }
 
     /**
-     * Returns the base64-encoded poster image for a given category. * This
-     * method retrieves the image bytes from the database via DAO and encodes
-     * them in Base64 to be displayed directly in the browser. If no image is
-     * found, a default placeholder image path is returned.
-     *
+     * Returns the poster URL of a given category, at card size, which stays
+     * sharp on high-density screens since category images are shown small.
+     * The URL comes from the application-wide CategoryRegistry, so no
+     * database work is done per render. If the category has no poster, a
+     * default placeholder image path is returned.
      *
      * @param categoryId the ID of the category whose image is requested
-     * @return a base64-encoded image string (for embedding in HTML) or the path
-     * to a default image
+     * @return the poster URL or the path to a default image
      */
-    public String getCategoryImageBase64(String categoryId) {
-        byte[] imageBytes = CategoryDAO.getCategoryImage(categoryId);
-        if (imageBytes != null && imageBytes.length > 0) {
-            return AppConfig.getBase64ImagePrefix() + Base64.getEncoder().encodeToString(imageBytes);
-
-        }
-        return "/resources/images/default.png";
+    public String getCategoryPosterUrl(String categoryId) {
+        return CategoryRegistry.getPosterUrl(categoryId);
     }
 
     /**
-     * Returns the base64-encoded image string for a category by its name. *
-     * Searches the loaded category list by name (case-insensitive) and returns
-     * the base64-encoded poster image if found. If not found or if the list is
-     * null, a default placeholder image path is returned.
-     *
+     * Returns the poster URL of a category by its name (case-insensitive),
+     * looked up in the CategoryRegistry. If not found, a default placeholder
+     * image path is returned.
      *
      * @param name the name of the category
-     * @return base64 image string or path to default image
+     * @return the poster URL or path to default image
      */
     public String getCategoryImageByName(String name) {
-        if (categories == null) {
-            return AppConfig.getDefaultImagePath();
-
-        }
-        for (Category c : categories) {
-            if (c.getName().equalsIgnoreCase(name)) {
-                return getCategoryImageBase64(c.getCategoryId());
-            }
-        }
-        return AppConfig.getDefaultImagePath();
+        return CategoryRegistry.getPosterUrlByName(name);
     }
 
 }
@@ -3,12 +3,20 @@ package Bean;
 import Utils.PageController;
 import Modules.Movie;
 import Modules.Category;
+import Modules.InventoryEventType;
+import Modules.InventoryUpdateResult;
 import DAO.ReviewDAO;
-import DAO.BorrowingDAO;
 import DAO.CategoryDAO;
 import DAO.MovieDAO;
+import DAO.ReservationDAO;
 import Utils.DateUtils;
-import Utils.MathUtils;
+import Utils.BackgroundTasks;
+import Utils.HomeFeedService;
+import Utils.InventoryRecountJob;
+import Utils.MovieLockRegistry;
+import Utils.PosterStore;
+import Utils.RecommendationEngine;
+import Utils.TrendingTracker;
 import jakarta.inject.Named;
 import jakarta.faces.application.FacesMessage;
 import jakarta.faces.context.FacesContext;
@@ -17,7 +25,6 @@ import java.io.InputStream;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Base64;
 import java.util.List;
 import java.util.UUID;
 import java.util.Map;
@@ -39,6 +46,7 @@ import jakarta.annotation.PostConstruct;
 public class MovieBean implements Serializable {
 
     private List<Movie> allMovies; // List of all movies loaded from the database
+    private final Map<String, Movie> moviesById = new HashMap<>(); // Index of allMovies by movie ID
     private List<Category> allCategories; // List of all available categories
     private Movie newMovie; // New movie instance used in the add movie form
     private List<String> selectedCategories; // IDs of categories selected for the new or edited movie
@@ -53,12 +61,19 @@ public class MovieBean implements Serializable {
     private Map<String, Integer> categoryIndexes; // Current page index per category for carousel navigation
     private List<Movie> popularMovies; // List of most popular movies (e.g., by rating or views)
     private int popularIndex = 0; // Current page index in the popular movies carousel
+    private List<Movie> trendingMovies; // Movies ranked by time-decayed borrow activity
+    private int trendingIndex = 0; // Current page index in the trending movies carousel
+    private int feedIndex = 0; // Current page index in the personalized feed carousel
+    private String feedUserId; // User whose feed feedIndex pages through
+    private transient List<String> feedMovieIds; // Feed that feedIndex pages through, compared by identity
+    @Inject
+    private UserBean userBean; // Injected reference to the logged-in user (for the personalized feed)
     private int searchPageIndex = 0; // Current page index in the search results
     private final int moviesPerPage = AppConfig.getMoviesPerPage(); // Number of movies displayed per page
     private String searchQuery = ""; // Current search query string
     private final List<Movie> searchResults = new ArrayList<>(); // List of search results matching the query
     private int lostCopiesCount; // Number of lost copies to be removed from inventory
-    private final Map<String, String> imageCache = new HashMap<>(); // Cache of base64-encoded poster images by movieId
+    private final Map<String, String> posterHashes = new HashMap<>(); // Poster hash by movieId, for movies that have a poster
 
     /**
      * Constructs a new MovieBean instance and initializes the movie list,
@@ -72,8 +87,7 @@ public class MovieBean implements Serializable {
      * automatically called by the container after dependency injection. It
      * prepares the bean state by: - Creating a new movie object and empty
      * lists/maps - Loading all movies and categories from the database -
-     * Setting search date limits - Preloading base64-encoded images for
-     * performance
+     * Setting search date limits - Caching the poster URLs
      */
     @PostConstruct
     public void init() {
@@ -83,6 +97,9 @@ public class MovieBean implements Serializable {
         categoryIndexes = new HashMap<>();
         popularMovies = new ArrayList<>();
         popularIndex = 0;
+        trendingMovies = new ArrayList<>();
+        trendingIndex = 0;
+        feedIndex = 0;
         loadMovies();
         loadCategories();
         setDateLimits();
@@ -167,24 +184,20 @@ public class MovieBean implements Serializable {
     }
 
     /**
-     * Loads and caches poster images for all movies. For each movie: - If a
-     * poster image exists, it is encoded as a Base64 string and stored in the
-     * image cache. - If no image exists, a default image path is stored
-     * instead. This improves performance by avoiding repeated encoding and
-     * enables quick access to images in the UI.
+     * Caches the poster hash of every movie that has a poster, from which
+     * the URLs of its renditions are built. Movies without a poster show the
+     * default image.
      */
     private void loadImages() {
+        posterHashes.clear();
         for (Movie movie : allMovies) {
-            byte[] imageBytes = movie.getPosterImage();
+            String posterHash = movie.getPosterHash();
             String movieId = movie.getMovieId();
 
-            if (imageBytes != null && imageBytes.length > 0) {
-
-                String base64Image = "data:image/png;base64," + Base64.getEncoder().encodeToString(imageBytes);
-                imageCache.put(movieId, base64Image);
+            if (posterHash != null) {
+                posterHashes.put(movieId, posterHash);
             } else {
                 System.out.println("No image found for movie: " + movieId + ", using default.");
-                imageCache.put(movieId, "/resources/images/default.PNG");
             }
         }
     }
@@ -195,7 +208,8 @@ public class MovieBean implements Serializable {
      * associations in the UI.
      */
     private void loadCategories() {
-        allCategories = CategoryDAO.getAllCategories();
+        List<Category> categories = CategoryDAO.getAllCategories();
+        allCategories = categories != null ? categories : new ArrayList<>();
     }
 
     /**
@@ -204,7 +218,8 @@ public class MovieBean implements Serializable {
      * movies by average rating in descending order. - Identifies popular movies
      * (rating ≥ 4.0). - Groups movies by category for home page presentation. -
      * Initializes pagination indexes per category. - Resets the popular movie
-     * index. - Loads and caches Base64-encoded poster images.
+     * index. - Builds the trending list from the current trending ranking. -
+     * Caches the poster URLs.
      */
     public void loadMovies() {
         List<Movie> movies = MovieDAO.getAllMovies();
@@ -217,7 +232,9 @@ public class MovieBean implements Serializable {
         popularMovies.clear();
         moviesByCategory.clear();
         categoryIndexes.clear();
+        moviesById.clear();
         for (Movie movie : movies) {
+            moviesById.put(movie.getMovieId(), movie);
             if (ReviewDAO.getAverageRating(movie.getMovieId()) >= AppConfig.getPopularRatingThreshold()) {
                 popularMovies.add(movie);
             }
@@ -233,6 +250,14 @@ public class MovieBean implements Serializable {
         if (!popularMovies.isEmpty()) {
             popularIndex = 0;
         }
+        trendingMovies.clear();
+        for (String movieId : TrendingTracker.getTopMovieIds(AppConfig.getTrendingMaxRanked())) {
+            Movie movie = moviesById.get(movieId);
+            if (movie != null) {
+                trendingMovies.add(movie);
+            }
+        }
+        trendingIndex = 0;
         loadImages();
     }
 
@@ -279,9 +304,9 @@ public class MovieBean implements Serializable {
                 return;
             }
             try (InputStream input = uploadedFile.getInputStream()) {
-                newMovie.setPosterImage(input.readAllBytes());
+                newMovie.setPosterHash(PosterStore.store(input, AppConfig.getMaxImageUploadSize()));
             } catch (IOException e) {
-                context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error:", "Failed to read image!"));
+                context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error:", "Failed to save image!"));
                 return;
             }
         }
@@ -318,34 +343,31 @@ public class MovieBean implements Serializable {
 
     /**
      * Decreases the total quantity of the selected movie by 1 due to a customer
-     * loss. If the resulting quantity is negative, an error message is
-     * displayed and the operation is aborted. On success, the movie inventory
-     * is updated and the movie list is reloaded.
+     * loss. The change is applied as a delta by the database, which rejects it
+     * if the total would become negative or drop below the available copies.
+     * On success, the movie list and the selected movie are reloaded.
      */
     public void movieLostByCustomer() {
         FacesContext context = FacesContext.getCurrentInstance();
         if (selectedMovie != null) {
-            int newQuantity = selectedMovie.getQuantity() - 1;
-            if (newQuantity < 0) {
-                context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error:", "Total copies cannot be negative!"));
-                return;
-            }
-            selectedMovie.setQuantity(newQuantity);
-            boolean success = MovieDAO.updateMovieInventory(selectedMovie);
-            if (success) {
+            String movieId = selectedMovie.getMovieId();
+            InventoryUpdateResult result = MovieLockRegistry.withLock(movieId, () -> MovieDAO.adjustInventory(movieId, -1, 0, InventoryEventType.LOST_BY_CUSTOMER));
+            if (result == InventoryUpdateResult.UPDATED) {
                 context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_INFO, "Success!", "One copy lost by customer."));
-                loadMovies();
+            } else if (result == InventoryUpdateResult.REJECTED) {
+                context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error:", "Total copies cannot be negative!"));
             } else {
                 context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error:", "Failed to update movie inventory."));
             }
+            reloadSelectedMovie();
         }
     }
 
     /**
      * Decreases both the total quantity and available copies of the selected
      * movie by a specified number due to a company-side loss. If the requested
-     * loss exceeds the total or available copies, the operation is aborted and
-     * an error message is shown.
+     * loss exceeds the available copies in the database, the update is
+     * rejected and an error message is shown.
      *
      * @param lostCount the number of copies marked as lost
      */
@@ -353,25 +375,16 @@ public class MovieBean implements Serializable {
         FacesContext context = FacesContext.getCurrentInstance();
 
         if (selectedMovie != null && lostCount > 0) {
-            int currentQuantity = selectedMovie.getQuantity();
-            int currentAvailable = selectedMovie.getCopiesAvailable();
-            if (lostCount > currentQuantity) {
-                context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error:", "Cannot lose more than total copies!"));
-                return;
-            }
-            if (lostCount > currentAvailable) {
-                context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error:", "Cannot lose copies currently borrowed by customers!"));
-                return;
-            }
-            selectedMovie.setQuantity(currentQuantity - lostCount);
-            selectedMovie.setCopiesAvailable(currentAvailable - lostCount);
-            boolean success = MovieDAO.updateMovieInventory(selectedMovie);
-            if (success) {
+            String movieId = selectedMovie.getMovieId();
+            InventoryUpdateResult result = MovieLockRegistry.withLock(movieId, () -> MovieDAO.adjustInventory(movieId, -lostCount, -lostCount, InventoryEventType.LOST_BY_COMPANY));
+            if (result == InventoryUpdateResult.UPDATED) {
                 context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_INFO, "Success!", lostCount + " copies marked as lost by company."));
-                loadMovies();
+            } else if (result == InventoryUpdateResult.REJECTED) {
+                context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error:", "Cannot lose copies currently borrowed by customers!"));
             } else {
                 context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error:", "Failed to update movie inventory."));
             }
+            reloadSelectedMovie();
         } else {
             context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error:", "Invalid number of lost copies."));
         }
@@ -411,22 +424,28 @@ public class MovieBean implements Serializable {
 
     /**
      * Adds the specified number of copies to the selected movie's inventory.
-     * The total quantity and available copies are updated accordingly.
-     * Available copies will not exceed the total quantity. Displays a success
-     * or error message based on the outcome.
+     * The total quantity and available copies are both increased by the same
+     * delta in the database, so copies added concurrently by another admin or
+     * borrowed in the meantime are not overwritten. Displays a success or
+     * error message based on the outcome.
      */
     public void addCopiesToInventory() {
         FacesContext context = FacesContext.getCurrentInstance();
         if (selectedMovie != null && addCopiesCount > 0) {
-            selectedMovie.setQuantity(selectedMovie.getQuantity() + addCopiesCount);
-            int updatedAvailable = MathUtils.minSum(
-                    selectedMovie.getCopiesAvailable(), addCopiesCount, selectedMovie.getQuantity());
-            selectedMovie.setCopiesAvailable(updatedAvailable);
-            boolean success = MovieDAO.updateMovieInventory(selectedMovie);
-            if (success) {
+            String movieId = selectedMovie.getMovieId();
+            int count = addCopiesCount;
+            // New copies go to the waitlist first, under the same lock so a concurrent borrow cannot take them
+            InventoryUpdateResult result = MovieLockRegistry.withLock(movieId, () -> {
+                InventoryUpdateResult added = MovieDAO.adjustInventory(movieId, count, count, InventoryEventType.ADDED);
+                if (added == InventoryUpdateResult.UPDATED) {
+                    ReservationDAO.allocateAvailableCopies(movieId);
+                }
+                return added;
+            });
+            if (result == InventoryUpdateResult.UPDATED) {
                 context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_INFO, "Success!", addCopiesCount + " copies added to inventory."));
                 context.getExternalContext().getFlash().setKeepMessages(true);
-                loadMovies();
+                reloadSelectedMovie();
             } else {
                 context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error!", "Failed to add copies to inventory."));
                 context.getExternalContext().getFlash().setKeepMessages(true);
@@ -438,15 +457,35 @@ public class MovieBean implements Serializable {
     }
 
     /**
-     * Retrieves and returns the base64-encoded poster image of a movie. If the
-     * image is not found in the cache, a default placeholder image path is
-     * returned.
+     * Returns the URL of a movie's poster at card size, used as the src of
+     * poster images. If the movie has no poster, a default placeholder image
+     * path is returned.
      *
      * @param movieId the ID of the movie
-     * @return base64 image string if available, otherwise a default image path
+     * @return the poster URL if available, otherwise a default image path
      */
-    public String getMovieImageBase64(String movieId) {
-        return imageCache.getOrDefault(movieId, AppConfig.getDefaultImagePath());
+    public String getMoviePosterUrl(String movieId) {
+        String posterHash = posterHashes.get(movieId);
+        if (posterHash == null) {
+            return AppConfig.getDefaultImagePath();
+        }
+        return PosterStore.getUrl(posterHash, AppConfig.getPosterCardWidth());
+    }
+
+    /**
+     * Returns the srcset of a movie's poster, listing all its renditions so
+     * the browser picks the smallest one for the displayed size.
+     *
+     * @param movieId the ID of the movie
+     * @return the srcset value, or an empty string if the movie has no
+     * poster
+     */
+    public String getMoviePosterSrcset(String movieId) {
+        String posterHash = posterHashes.get(movieId);
+        if (posterHash == null) {
+            return "";
+        }
+        return PosterStore.getSrcset(FacesContext.getCurrentInstance().getExternalContext().getRequestContextPath(), posterHash);
     }
 
     /**
@@ -607,7 +646,8 @@ public class MovieBean implements Serializable {
      * Filters the list of all movies based on the current search query.
      * Matching is performed by checking if the movie title contains the query
      * (case-insensitive). The search results list is cleared and page index is
-     * reset to 0 before filtering.
+     * reset to 0 before filtering. Only the in-memory list is searched, so
+     * the keyup search is not rate limited.
      */
     public void searchMovies() {
         searchResults.clear();
@@ -689,55 +729,54 @@ public class MovieBean implements Serializable {
     }
 
     /**
-     * Recalculates the total quantity of each movie based on its available and
-     * borrowed copies. Updates the inventory in the database for all movies.
-     * After updating, reloads the movie list and shows a success message in the
-     * UI.
+     * Starts verifying the inventory of every movie against the inventory
+     * ledger. The recount runs in the background in chunks, replaying each
+     * movie from its latest ledger snapshot; progress and the discrepancy
+     * report are shown on the admin dashboard. The request returns
+     * immediately.
      */
     public void recountInventory() {
         FacesContext context = FacesContext.getCurrentInstance();
-        for (Movie movie : allMovies) {
-            int activeBorrows = BorrowingDAO.countActiveBorrowingsByMovieId(movie.getMovieId());
-            int total = MathUtils.sum(movie.getCopiesAvailable(), activeBorrows);
-            movie.setQuantity(total);
-            MovieDAO.updateMovieInventory(movie);
+        if (InventoryRecountJob.start()) {
+            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_INFO, "Inventory Recount", "Recount started. Progress is shown on the admin dashboard."));
+        } else {
+            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_WARN, "Inventory Recount", "A recount is already running or the background queue is full."));
         }
-        loadMovies();
-        context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_INFO, "Inventory Recount", "Inventory recounted successfully."));
     }
 
     /**
-     * Returns a single copy of the specified movie to the inventory. Increases
-     * the available copies count if it is less than the total quantity. Updates
-     * the database and reloads the movie list if successful. Displays
-     * appropriate messages for each scenario.
+     * Returns the progress of the current or last inventory recount.
      *
-     *
-     * @param movieId the ID of the movie to return to inventory
+     * @return the recount progress snapshot
      */
-    public void returnCopyToInventory(String movieId) {
-        FacesContext context = FacesContext.getCurrentInstance();
-        Movie movie = allMovies.stream()
-                .filter(m -> m.getMovieId().equals(movieId))
-                .findFirst()
-                .orElse(null);
-        if (movie == null) {
-            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error!", "Movie not found."));
-            return;
+    public InventoryRecountJob.Progress getRecountProgress() {
+        return InventoryRecountJob.getProgress();
+    }
+
+    /**
+     * Refreshes the recount progress shown on the admin dashboard. Once the
+     * recount has finished, the movie list is reloaded so corrected
+     * quantities are visible.
+     */
+    public void refreshRecountProgress() {
+        InventoryRecountJob.Progress progress = InventoryRecountJob.getProgress();
+        if (progress.isStarted() && !progress.isRunning()) {
+            loadMovies();
         }
-        int available = movie.getCopiesAvailable();
-        int quantity = movie.getQuantity();
-        if (available < quantity) {
-            movie.setCopiesAvailable(available + 1);
-            boolean success = MovieDAO.updateMovieInventory(movie);
-            if (success) {
-                context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_INFO, "Success!", "Movie returned to inventory."));
-                loadMovies();
-            } else {
-                context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error!", "Failed to update inventory."));
+    }
+
+    /**
+     * Reloads the movie list and replaces the selected movie with its fresh
+     * copy, so the editing page shows the counts actually stored in the
+     * database after an inventory change.
+     */
+    private void reloadSelectedMovie() {
+        loadMovies();
+        if (selectedMovie != null) {
+            Movie fresh = moviesById.get(selectedMovie.getMovieId());
+            if (fresh != null) {
+                selectedMovie = fresh;
             }
-        } else {
-            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_WARN, "Notice", "All copies already returned."));
         }
     }
 
@@ -748,10 +787,44 @@ public class MovieBean implements Serializable {
      * @return the matching Movie object, or null if not found
      */
     public Movie getMovieByIdFromList(String movieId) {
-        return allMovies.stream()
-                .filter(m -> m.getMovieId().equals(movieId))
-                .findFirst()
-                .orElse(null);
+        return moviesById.get(movieId);
+    }
+
+    /**
+     * Returns the movies most often borrowed by the same users as the given
+     * movie ("people who borrowed this also borrowed"), most similar first.
+     *
+     * @param movieId the ID of the movie
+     * @return list of similar movies (empty if there is not enough data)
+     */
+    public List<Movie> getAlsoBorrowedMovies(String movieId) {
+        List<Movie> similar = new ArrayList<>();
+        if (movieId == null) {
+            return similar;
+        }
+        for (String similarId : RecommendationEngine.getSimilarMovieIds(movieId, AppConfig.getRecommendationNeighbours())) {
+            Movie movie = moviesById.get(similarId);
+            if (movie != null) {
+                similar.add(movie);
+                if (similar.size() == AppConfig.getRecommendationDisplayed()) {
+                    break;
+                }
+            }
+        }
+        return similar;
+    }
+
+    /**
+     * Starts a full rebuild of the recommendation data in the background.
+     * Intended for the admin dashboard; the request returns immediately.
+     */
+    public void rebuildRecommendations() {
+        FacesContext context = FacesContext.getCurrentInstance();
+        if (BackgroundTasks.submit("recommendation-rebuild", RecommendationEngine::rebuild)) {
+            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_INFO, "Recommendations", "Rebuild started in the background."));
+        } else {
+            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_WARN, "Recommendations", "Background queue is full, try again later."));
+        }
     }
 
     /**
@@ -811,4 +884,136 @@ public class MovieBean implements Serializable {
         List<Movie> visiblePopular = getVisiblePopularMovies();
         return new ArrayList<>(visiblePopular);
     }
+
+    /**
+     * Returns a copy of the trending movies visible on the current page of the
+     * trending carousel.
+     *
+     * @return list of trending movies for the current page
+     */
+    public List<Movie> getVisibleTrendingMovies() {
+        int toIndex = Math.min(trendingIndex + moviesPerPage, trendingMovies.size());
+        return new ArrayList<>(trendingMovies.subList(trendingIndex, toIndex));
+    }
+
+    /**
+     * Checks if there are any trending movies to display.
+     *
+     * @return true if the trending list is not empty
+     */
+    public boolean hasTrendingMovies() {
+        return !trendingMovies.isEmpty();
+    }
+
+    /**
+     * Checks if there is a next page of trending movies.
+     *
+     * @return true if more trending movies exist beyond the current page
+     */
+    public boolean hasNextTrendingPage() {
+        return trendingIndex + moviesPerPage < trendingMovies.size();
+    }
+
+    /**
+     * Checks if there is a previous page of trending movies.
+     *
+     * @return true if the current page is not the first
+     */
+    public boolean hasPreviousTrendingPage() {
+        return trendingIndex > 0;
+    }
+
+    /**
+     * Advances to the next page of trending movies, if available.
+     */
+    public void nextTrendingPage() {
+        if (hasNextTrendingPage()) {
+            trendingIndex += moviesPerPage;
+        }
+    }
+
+    /**
+     * Moves to the previous page of trending movies, if available.
+     */
+    public void previousTrendingPage() {
+        if (hasPreviousTrendingPage()) {
+            trendingIndex -= moviesPerPage;
+        }
+    }
+
+    /**
+     * Returns the logged-in user's precomputed personalized feed, resolved to
+     * movies. The feed is read from the background-computed cache, so this
+     * never triggers database work; it is empty until the first computation
+     * finishes or when no user is logged in. The carousel goes back to its
+     * first page when another user logs in or the feed is recomputed.
+     *
+     * @return list of recommended movies, best first
+     */
+    public List<Movie> getPersonalFeed() {
+        List<Movie> feed = new ArrayList<>();
+        String userId = userBean != null && userBean.getLoggedInUser() != null ? userBean.getLoggedInUser().getUserId() : null;
+        List<String> movieIds = HomeFeedService.getFeed(userId);
+        if (userId == null || !userId.equals(feedUserId) || movieIds != feedMovieIds) {
+            feedIndex = 0;
+            feedUserId = userId;
+            feedMovieIds = movieIds;
+        }
+        for (String movieId : movieIds) {
+            Movie movie = moviesById.get(movieId);
+            if (movie != null) {
+                feed.add(movie);
+            }
+        }
+        return feed;
+    }
+
+    /**
+     * Returns the personalized feed movies visible on the current page of the
+     * feed carousel.
+     *
+     * @return list of feed movies for the current page
+     */
+    public List<Movie> getVisiblePersonalFeed() {
+        List<Movie> feed = getPersonalFeed();
+        int fromIndex = Math.min(feedIndex, feed.size());
+        int toIndex = Math.min(fromIndex + moviesPerPage, feed.size());
+        return feed.subList(fromIndex, toIndex);
+    }
+
+    /**
+     * Checks if there is a next page of personalized feed movies.
+     *
+     * @return true if more feed movies exist beyond the current page
+     */
+    public boolean hasNextFeedPage() {
+        return feedIndex + moviesPerPage < getPersonalFeed().size();
+    }
+
+    /**
+     * Checks if there is a previous page of personalized feed movies.
+     *
+     * @return true if the current page is not the first
+     */
+    public boolean hasPreviousFeedPage() {
+        return feedIndex > 0;
+    }
+
+    /**
+     * Advances to the next page of the personalized feed, if available.
+     */
+    public void nextFeedPage() {
+        if (hasNextFeedPage()) {
+            feedIndex += moviesPerPage;
+        }
+    }
+
+    /**
+     * Moves to the previous page of the personalized feed, if available.
+     */
+    public void previousFeedPage() {
+        if (hasPreviousFeedPage()) {
+            feedIndex -= moviesPerPage;
+        }
+    }
 }
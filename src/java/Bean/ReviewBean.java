@@ -14,6 +14,9 @@ import jakarta.faces.application.FacesMessage;
 import jakarta.faces.context.FacesContext;
 import jakarta.inject.Inject;
 import java.util.Map;
+import Modules.ReviewOutcome;
+import Utils.IdempotencyStore;
+import Utils.RateLimiter;
 import Utils.PageController;
 import Utils.MathUtils;
 import config.AppConfig;
@@ -40,7 +43,8 @@ public class ReviewBean implements Serializable {
 
     /**
      * Handles the submission of a new movie review. Validates input fields,
-     * prevents duplicate reviews, and updates the movie list if successful.
+     * relies on the database constraint to reject duplicate reviews, and
+     * updates the movie list if successful.
      *
      * @return null to remain on the same page after processing
      */
@@ -53,6 +57,14 @@ public class ReviewBean implements Serializable {
                             "You must be logged in to submit a review."));
             return null;
         }
+        long retryMillis = RateLimiter.tryAcquire(RateLimiter.Action.REVIEW, userBean.getRateLimitSubject());
+        if (retryMillis > 0) {
+            context.addMessage(null,
+                    new FacesMessage(FacesMessage.SEVERITY_WARN,
+                            "Too Many Requests",
+                            "You are submitting reviews too quickly. Please try again in " + RateLimiter.toSeconds(retryMillis) + " seconds."));
+            return null;
+        }
         userId = userBean.getLoggedInUser().getUserId();
         movieId = movieBean.getSelectedMovie().getMovieId();
         System.out.println("📥 Submitting review: userId=" + userId + ", movieId=" + movieId + ", rating=" + rating + ", comment=" + comment);
@@ -63,18 +75,14 @@ public class ReviewBean implements Serializable {
                             "Please provide both a rating and a comment before submitting."));
             return null;
         }
-        if (ReviewDAO.hasUserReviewed(userId, movieId)) {
-            context.addMessage(null,
-                    new FacesMessage(FacesMessage.SEVERITY_ERROR,
-                            "Review Already Exists",
-                            "You have already submitted a review for this movie. Only one review is allowed."));
-            return null;
-        }
         String reviewId = UUID.randomUUID().toString();
         Timestamp now = new Timestamp(System.currentTimeMillis());
         Review review = new Review(reviewId, userId, movieId, comment, rating, now);
-        boolean success = ReviewDAO.addReview(review);
-        if (success) {
+        // The UNIQUE (user, movie) constraint rejects duplicates; the request key makes a resubmission report the first outcome
+        String requestKey = context.getExternalContext().getRequestParameterMap().get("requestKey");
+        ReviewOutcome outcome = IdempotencyStore.execute(IdempotencyStore.scopedKey("review", userId, requestKey),
+                () -> ReviewDAO.addReview(review), result -> result != ReviewOutcome.ERROR);
+        if (outcome == ReviewOutcome.ADDED) {
             context.addMessage(null,
                     new FacesMessage(FacesMessage.SEVERITY_INFO,
                             "Review Submitted",
@@ -82,6 +90,16 @@ public class ReviewBean implements Serializable {
             comment = "";
             rating = 0;
             movieBean.loadMovies();
+        } else if (outcome == ReviewOutcome.DUPLICATE) {
+            context.addMessage(null,
+                    new FacesMessage(FacesMessage.SEVERITY_ERROR,
+                            "Review Already Exists",
+                            "You have already submitted a review for this movie. Only one review is allowed."));
+        } else if (outcome == null) {
+            context.addMessage(null,
+                    new FacesMessage(FacesMessage.SEVERITY_WARN,
+                            "Please wait",
+                            "Your review is still being submitted."));
         } else {
             context.addMessage(null,
                     new FacesMessage(FacesMessage.SEVERITY_ERROR,
@@ -91,6 +109,16 @@ public class ReviewBean implements Serializable {
         return null;
     }
 
+    /**
+     * Returns a new request key for the review form. Resubmitting the same
+     * rendered form sends the same key.
+     *
+     * @return a new random request key
+     */
+    public String getNewRequestKey() {
+        return UUID.randomUUID().toString();
+    }
+
     /**
      * Retrieves the list of reviews for the selected movie.
      *
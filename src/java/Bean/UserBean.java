@@ -2,9 +2,12 @@ package Bean;
 
 import Utils.PageController;
 import Modules.Borrowing;
+import Modules.Reservation;
 import Modules.User;
 import DAO.UserDAO;
 import DAO.BorrowingDAO;
+import DAO.ReservationDAO;
+import Utils.HomeFeedService;
 import Utils.MathUtils;
 import jakarta.enterprise.context.SessionScoped;
 import jakarta.faces.application.FacesMessage;
@@ -13,6 +16,7 @@ import jakarta.inject.Inject;
 import java.io.Serializable;
 import java.util.List;
 import jakarta.faces.context.ExternalContext;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.inject.Named;
 import config.AppConfig;
 import java.util.ArrayList;
@@ -194,6 +198,30 @@ public class UserBean implements Serializable {
         return loggedInUser;
     }
 
+    /**
+     * Identifies who is acting, for rate limiting: the logged-in user, the
+     * existing HTTP session of an anonymous visitor, or else the remote
+     * address. Never creates a session.
+     *
+     * @return "user:ID", "session:ID" or "address:IP", or null outside a
+     *         Faces request
+     */
+    public String getRateLimitSubject() {
+        if (loggedInUser != null) {
+            return "user:" + loggedInUser.getUserId();
+        }
+        FacesContext context = FacesContext.getCurrentInstance();
+        if (context == null) {
+            return null;
+        }
+        ExternalContext externalContext = context.getExternalContext();
+        String sessionId = externalContext.getSessionId(false);
+        if (sessionId != null && !sessionId.isEmpty()) {
+            return "session:" + sessionId;
+        }
+        return "address:" + ((HttpServletRequest) externalContext.getRequest()).getRemoteAddr();
+    }
+
     /**
      * @return The password confirmation entered during registration.
      */
@@ -243,8 +271,15 @@ public class UserBean implements Serializable {
             if (user.getPassword().equals(enteredPasswordHash)) {
                 externalContext.getSessionMap().put("loggedUser", user);
                 loggedInUser = user;
+                HomeFeedService.requestRefresh(user.getUserId());
                 context.getExternalContext().getFlash().setKeepMessages(true);
                 context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_INFO, "Welcome! Login successful.", ""));
+                for (Reservation reservation : ReservationDAO.getActiveReservationsByUser(user.getUserId())) {
+                    if (reservation.isHeld()) {
+                        context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_INFO, "Waitlist",
+                                "A copy of \"" + reservation.getMovieTitle() + "\" is held for you. Borrow it from your profile."));
+                    }
+                }
                 pageController.setPage(AppConfig.getDefaultPage());
             } else {
                 context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Error:", "Invalid email or password."));
@@ -259,6 +294,9 @@ public class UserBean implements Serializable {
      */
     public void logoutUser() {
         FacesContext context = FacesContext.getCurrentInstance();
+        if (loggedInUser != null) {
+            HomeFeedService.evict(loggedInUser.getUserId());
+        }
         loggedInUser = null;
         loginEmail = null;
         loginPassword = null;
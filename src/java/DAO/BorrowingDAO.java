@@ -1,10 +1,25 @@
 package DAO;
 
+import Modules.BorrowOutcome;
 import Modules.Borrowing;
+import Modules.CatalogChangeType;
+import Modules.InventoryEventType;
+import Modules.InventoryUpdateResult;
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
 import config.AppConfig;
+import Utils.CatalogVersion;
+import Utils.RecommendationEngine;
+import Utils.TrendingTracker;
 
 /**
  * Data Access Object (DAO) for managing Borrowing records in the database.
@@ -52,20 +67,144 @@ public class BorrowingDAO {
      * @return true if the insertion was successful, false otherwise
      */
     public static boolean addBorrowing(Borrowing borrowing) {
-        String sql = "INSERT INTO BORROWINGS (ID_BORROWING, ID_USER, ID_MOVIE, DATE_BORROW, DATE_RETURN) VALUES (?, ?, ?, ?, ?)";
-        try (Connection conn = AppConfig.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = AppConfig.getConnection()) {
+            boolean added = insertBorrowing(conn, borrowing);
+            if (added) {
+                recordBorrowActivity(borrowing);
+            }
+            return added;
+        } catch (SQLException e) {
+            System.out.println("❌ Failed to add borrowing: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Borrows a movie in a single transaction: the user's hold on the movie is
+     * claimed if there is one, otherwise one available copy is taken, and the
+     * borrowing record is inserted. Either everything is committed or nothing
+     * is.
+     *
+     * @param borrowing the Borrowing object to be inserted
+     * @return the outcome of the borrow attempt
+     */
+    public static BorrowOutcome borrow(Borrowing borrowing) {
+        try (Connection conn = AppConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                if (ReservationDAO.claimHold(conn, borrowing.getUserId(), borrowing.getMovieId())) {
+                    // The held copy was already taken out of the available copies
+                    InventoryLedgerDAO.recordEvent(conn, borrowing.getMovieId(), InventoryEventType.BORROWED, 0, 0);
+                } else {
+                    InventoryUpdateResult taken = MovieDAO.adjustInventory(conn, borrowing.getMovieId(), 0, -1, InventoryEventType.BORROWED);
+                    if (taken != InventoryUpdateResult.UPDATED) {
+                        conn.rollback();
+                        return taken == InventoryUpdateResult.NOT_FOUND ? BorrowOutcome.NOT_FOUND : BorrowOutcome.NOT_AVAILABLE;
+                    }
+                }
+                if (!insertBorrowing(conn, borrowing)) {
+                    conn.rollback();
+                    return BorrowOutcome.ERROR;
+                }
+                conn.commit();
+                CatalogVersion.bump(CatalogChangeType.AVAILABILITY, borrowing.getMovieId());
+            } catch (SQLException e) {
+                conn.rollback();
+                System.out.println("❌ Failed to borrow: " + e.getMessage());
+                return BorrowOutcome.ERROR;
+            }
+        } catch (SQLException e) {
+            System.out.println("❌ Failed to borrow: " + e.getMessage());
+            return BorrowOutcome.ERROR;
+        }
+        recordBorrowActivity(borrowing);
+        return BorrowOutcome.BORROWED;
+    }
+
+    /**
+     * Inserts a borrowing record with no return date. A borrowing without a
+     * due date is due after the configured loan period.
+     *
+     * @param conn the connection to use
+     * @param borrowing the Borrowing object to be inserted
+     * @return true if the row was inserted
+     * @throws SQLException if a database error occurs
+     */
+    private static boolean insertBorrowing(Connection conn, Borrowing borrowing) throws SQLException {
+        String sql = "INSERT INTO BORROWINGS (ID_BORROWING, ID_USER, ID_MOVIE, DATE_BORROW, DATE_RETURN, DUE_DATE) VALUES (?, ?, ?, ?, ?, ?)";
+        if (borrowing.getDueDate() == null) {
+            LocalDate borrowDay = new java.sql.Date(borrowing.getBorrowDate().getTime()).toLocalDate();
+            borrowing.setDueDate(java.sql.Date.valueOf(borrowDay.plusDays(AppConfig.getLoanPeriodDays())));
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, borrowing.getBorrowingId());
             pstmt.setString(2, borrowing.getUserId());
             pstmt.setString(3, borrowing.getMovieId());
             pstmt.setDate(4, new java.sql.Date(borrowing.getBorrowDate().getTime()));
             pstmt.setDate(5, null);
+            pstmt.setDate(6, new java.sql.Date(borrowing.getDueDate().getTime()));
             return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Feeds a recorded borrowing to the in-memory trending and recommendation
+     * structures.
+     *
+     * @param borrowing the recorded borrowing
+     */
+    private static void recordBorrowActivity(Borrowing borrowing) {
+        TrendingTracker.recordBorrow(borrowing.getMovieId(), borrowing.getBorrowDate());
+        RecommendationEngine.recordBorrow(borrowing.getUserId(), borrowing.getMovieId());
+    }
+
+    /**
+     * Streams every distinct (user, movie) borrowing pair to the consumer,
+     * ordered by user. Rows are fetched in chunks so the full table is never
+     * held in memory by the driver.
+     *
+     * @param consumer receives the user ID and movie ID of each pair
+     * @return true if every pair was streamed, false if an error stopped the
+     * read part way
+     */
+    public static boolean forEachUserMoviePair(BiConsumer<String, String> consumer) {
+        String sql = "SELECT DISTINCT ID_USER, ID_MOVIE FROM BORROWINGS ORDER BY ID_USER";
+        try (Connection conn = AppConfig.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setFetchSize(AppConfig.getRecommendationFetchSize());
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                consumer.accept(rs.getString(1), rs.getString(2));
+            }
+            return true;
         } catch (SQLException e) {
-            System.out.println("❌ Failed to add borrowing: " + e.getMessage());
+            System.err.println("❌ SQL Error (forEachUserMoviePair): " + e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Counts borrowings per movie and per borrow day since the given date. The
+     * aggregation is done by the database, so only one row per movie and day
+     * is transferred.
+     *
+     * @param since the earliest borrow date to include
+     * @return map of movie ID to a map of borrow date to number of borrowings
+     */
+    public static Map<String, Map<java.util.Date, Integer>> getDailyBorrowCountsSince(java.sql.Date since) {
+        Map<String, Map<java.util.Date, Integer>> counts = new HashMap<>();
+        String sql = "SELECT ID_MOVIE, DATE_BORROW, COUNT(*) FROM BORROWINGS WHERE DATE_BORROW >= ? GROUP BY ID_MOVIE, DATE_BORROW";
+        try (Connection conn = AppConfig.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setDate(1, since);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                counts.computeIfAbsent(rs.getString(1), k -> new HashMap<>()).put(rs.getDate(2), rs.getInt(3));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ SQL Error (getDailyBorrowCountsSince): " + e.getMessage());
+        }
+        return counts;
+    }
+
     /**
      * Retrieves the list of currently borrowed movies for a specific user. Only
      * borrowings with no return date and a status of either null or
@@ -90,24 +229,114 @@ public class BorrowingDAO {
     }
 
     /**
-     * Marks a borrowing as returned by setting its return date.
+     * Marks a borrowing as returned by setting its return date, and frees the
+     * copy in the same transaction: it is assigned to the head of the movie's
+     * waitlist, or added back to the available copies if nobody is waiting.
+     * Only a borrowing that is still open and has no pending loss report can
+     * be returned, so a repeated or concurrent return of the same borrowing
+     * frees nothing.
      *
      * @param borrowingId the ID of the borrowing to update
      * @param returnDate the date the movie was returned
      * @return true if the update was successful, false otherwise
      */
     public static boolean markAsReturned(String borrowingId, java.sql.Date returnDate) {
-        String sql = "UPDATE BORROWINGS SET DATE_RETURN = ? WHERE ID_BORROWING = ?";
-        try (Connection conn = AppConfig.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setDate(1, returnDate);
-            stmt.setString(2, borrowingId);
-            return stmt.executeUpdate() > 0;
+        String sqlMovie = "SELECT ID_MOVIE FROM BORROWINGS WHERE ID_BORROWING = ?";
+        String sqlReturn = "UPDATE BORROWINGS SET DATE_RETURN = ? WHERE ID_BORROWING = ? AND DATE_RETURN IS NULL AND STATUS IS NULL";
+        try (Connection conn = AppConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmtMovie = conn.prepareStatement(sqlMovie); PreparedStatement pstmtReturn = conn.prepareStatement(sqlReturn)) {
+                pstmtReturn.setDate(1, returnDate);
+                pstmtReturn.setString(2, borrowingId);
+                if (pstmtReturn.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
+                pstmtMovie.setString(1, borrowingId);
+                ResultSet rs = pstmtMovie.executeQuery();
+                String movieId = rs.next() ? rs.getString(1) : null;
+                String heldFor = ReservationDAO.releaseCopy(conn, movieId, InventoryEventType.RETURNED);
+                conn.commit();
+                CatalogVersion.bump(CatalogChangeType.AVAILABILITY, movieId);
+                if (heldFor != null) {
+                    System.out.println("⏳ Returned copy of movie " + movieId + " held for reservation " + heldFor);
+                }
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                System.err.println("❌ SQL Error (markAsReturned): " + e.getMessage());
+            }
         } catch (SQLException e) {
             System.err.println("❌ SQL Error (markAsReturned): " + e.getMessage());
         }
         return false;
     }
 
+    /**
+     * Returns several borrowings of a user in one transaction. The return
+     * dates are set with one JDBC batch, guarded so that only borrowings that
+     * belong to the user, are still open and have no pending loss report are
+     * returned, and each freed copy
+     * is then passed to the movie's waitlist or back to the available copies.
+     * If a database error occurs nothing is changed and every item reports
+     * ERROR.
+     *
+     * @param userId the ID of the user returning the movies
+     * @param borrowingIds the IDs of the borrowings to return
+     * @param returnDate the date the movies were returned
+     * @return outcome per borrowing ID, in the given order: RETURNED,
+     * NOT_BORROWED (also for a borrowing with a pending loss report),
+     * NOT_FOUND or ERROR
+     */
+    public static Map<String, BorrowOutcome> returnBorrowings(String userId, List<String> borrowingIds, java.sql.Date returnDate) {
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(borrowingIds));
+        Map<String, BorrowOutcome> outcomes = new LinkedHashMap<>();
+        if (ids.isEmpty()) {
+            return outcomes;
+        }
+        String sql = "UPDATE BORROWINGS SET DATE_RETURN = ? WHERE ID_BORROWING = ? AND ID_USER = ? AND DATE_RETURN IS NULL AND STATUS IS NULL";
+        try (Connection conn = AppConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                Map<String, String> movieIds = loadMovieIds(conn, ids);
+                for (String id : ids) {
+                    stmt.setDate(1, returnDate);
+                    stmt.setString(2, id);
+                    stmt.setString(3, userId);
+                    stmt.addBatch();
+                }
+                int[] counts = stmt.executeBatch();
+                int held = 0;
+                Set<String> returnedMovieIds = new LinkedHashSet<>();
+                for (int i = 0; i < ids.size(); i++) {
+                    String id = ids.get(i);
+                    if (isApplied(counts[i])) {
+                        if (ReservationDAO.releaseCopy(conn, movieIds.get(id), InventoryEventType.RETURNED) != null) {
+                            held++;
+                        }
+                        outcomes.put(id, BorrowOutcome.RETURNED);
+                        returnedMovieIds.add(movieIds.get(id));
+                    } else {
+                        outcomes.put(id, movieIds.containsKey(id) ? BorrowOutcome.NOT_BORROWED : BorrowOutcome.NOT_FOUND);
+                    }
+                }
+                conn.commit();
+                CatalogVersion.bumpAll(CatalogChangeType.AVAILABILITY, returnedMovieIds);
+                if (held > 0) {
+                    System.out.println("⏳ " + held + " returned copies held for waiting users.");
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                System.err.println("❌ SQL Error (returnBorrowings): " + e.getMessage());
+                return allErrors(ids);
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ SQL Error (returnBorrowings): " + e.getMessage());
+            return allErrors(ids);
+        }
+        return outcomes;
+    }
+
     /**
      * Retrieves the list of active borrowings for a specific user. Active
      * borrowings are defined as those with no return date and no status set.
@@ -229,21 +458,254 @@ public class BorrowingDAO {
     }
 
     /**
-     * Confirms a pending movie loss by updating the borrowing status to
-     * "CONFIRMED_LOSS" and setting the return date to the current date.
+     * Confirms several pending loss reports in one transaction. The status
+     * updates are sent as one JDBC batch, guarded so that only reports that
+     * are still pending are confirmed, and the total copies of each affected
+     * movie are then reduced by the number of its confirmed losses. If a
+     * database error occurs nothing is changed and every item reports ERROR.
      *
-     * @param borrowingId the ID of the borrowing to update
-     * @return true if the update was successful, false otherwise
+     * @param borrowingIds the IDs of the borrowings to confirm as lost
+     * @return outcome per borrowing ID, in the given order: LOSS_CONFIRMED,
+     * NOT_PENDING_LOSS, NOT_FOUND or ERROR
      */
-    public static boolean confirmLossAndUpdate(String borrowingId) {
-        String sql = "UPDATE BORROWINGS SET STATUS = '" + AppConfig.getStatusConfirmedLoss() + "', DATE_RETURN = CURRENT_DATE WHERE ID_BORROWING = ?";
+    public static Map<String, BorrowOutcome> confirmLosses(List<String> borrowingIds) {
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(borrowingIds));
+        Map<String, BorrowOutcome> outcomes = new LinkedHashMap<>();
+        if (ids.isEmpty()) {
+            return outcomes;
+        }
+        String sql = "UPDATE BORROWINGS SET STATUS = '" + AppConfig.getStatusConfirmedLoss() + "', DATE_RETURN = CURRENT_DATE "
+                + "WHERE ID_BORROWING = ? AND STATUS = '" + AppConfig.getStatusPendingLoss() + "'";
+        try (Connection conn = AppConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                Map<String, String> movieIds = loadMovieIds(conn, ids);
+                for (String id : ids) {
+                    stmt.setString(1, id);
+                    stmt.addBatch();
+                }
+                int[] counts = stmt.executeBatch();
+                Map<String, Integer> lostPerMovie = new HashMap<>();
+                for (int i = 0; i < ids.size(); i++) {
+                    String id = ids.get(i);
+                    if (isApplied(counts[i])) {
+                        outcomes.put(id, BorrowOutcome.LOSS_CONFIRMED);
+                        lostPerMovie.merge(movieIds.get(id), 1, Integer::sum);
+                    } else {
+                        outcomes.put(id, movieIds.containsKey(id) ? BorrowOutcome.NOT_PENDING_LOSS : BorrowOutcome.NOT_FOUND);
+                    }
+                }
+                for (Map.Entry<String, Integer> lost : lostPerMovie.entrySet()) {
+                    InventoryUpdateResult result = MovieDAO.adjustInventory(conn, lost.getKey(), -lost.getValue(), 0, InventoryEventType.LOST_BY_CUSTOMER);
+                    if (result != InventoryUpdateResult.UPDATED) {
+                        System.out.println("⚠️ Loss confirmed, but total copies of movie " + lost.getKey() + " not reduced: " + result);
+                    }
+                }
+                conn.commit();
+                CatalogVersion.bumpAll(CatalogChangeType.AVAILABILITY, lostPerMovie.keySet());
+                System.out.println("✅ Confirmed " + lostPerMovie.values().stream().mapToInt(Integer::intValue).sum()
+                        + " of " + ids.size() + " loss reports.");
+            } catch (SQLException e) {
+                conn.rollback();
+                System.out.println("❌ Failed to confirm losses: " + e.getMessage());
+                return allErrors(ids);
+            }
+        } catch (SQLException e) {
+            System.out.println("❌ Failed to confirm losses: " + e.getMessage());
+            return allErrors(ids);
+        }
+        return outcomes;
+    }
+
+    /**
+     * Loads the movie IDs of the given borrowings with a single query.
+     *
+     * @param borrowingIds the IDs of the borrowings
+     * @return map from borrowing ID to movie ID; unknown IDs are absent
+     */
+    public static Map<String, String> getMovieIdsByBorrowingIds(List<String> borrowingIds) {
+        if (borrowingIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        try (Connection conn = AppConfig.getConnection()) {
+            return loadMovieIds(conn, new ArrayList<>(new LinkedHashSet<>(borrowingIds)));
+        } catch (SQLException e) {
+            System.out.println("❌ Failed to load movie IDs of borrowings: " + e.getMessage());
+            return new HashMap<>();
+        }
+    }
+
+    /**
+     * Loads the movie IDs of the given borrowings using the supplied
+     * connection, with one IN query per chunk of IDs.
+     *
+     * @param conn the connection to use
+     * @param borrowingIds the distinct IDs of the borrowings
+     * @return map from borrowing ID to movie ID; unknown IDs are absent
+     * @throws SQLException if a database error occurs
+     */
+    private static Map<String, String> loadMovieIds(Connection conn, List<String> borrowingIds) throws SQLException {
+        Map<String, String> movieIds = new HashMap<>();
+        int chunkSize = AppConfig.getBulkChunkSize();
+        for (int start = 0; start < borrowingIds.size(); start += chunkSize) {
+            List<String> chunk = borrowingIds.subList(start, Math.min(start + chunkSize, borrowingIds.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            String sql = "SELECT ID_BORROWING, ID_MOVIE FROM BORROWINGS WHERE ID_BORROWING IN (" + placeholders + ")";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setString(i + 1, chunk.get(i));
+                }
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    movieIds.put(rs.getString("ID_BORROWING"), rs.getString("ID_MOVIE"));
+                }
+            }
+        }
+        return movieIds;
+    }
+
+    /**
+     * Tells whether a statement of an executed batch changed a row. Drivers
+     * may report SUCCESS_NO_INFO instead of an update count.
+     *
+     * @param count the update count reported for the statement
+     * @return true if the statement was applied to a row
+     */
+    private static boolean isApplied(int count) {
+        return count > 0 || count == Statement.SUCCESS_NO_INFO;
+    }
+
+    /**
+     * Builds a result that reports ERROR for every item of a failed bulk
+     * operation.
+     *
+     * @param borrowingIds the IDs of the borrowings
+     * @return outcome per borrowing ID, all ERROR
+     */
+    private static Map<String, BorrowOutcome> allErrors(List<String> borrowingIds) {
+        Map<String, BorrowOutcome> outcomes = new LinkedHashMap<>();
+        for (String id : borrowingIds) {
+            outcomes.put(id, BorrowOutcome.ERROR);
+        }
+        return outcomes;
+    }
+
+    /**
+     * Gives open borrowings that have no due date (made before due dates were
+     * introduced) a due date of their borrow date plus the loan period. Only
+     * the active part of the index on (DATE_RETURN, DUE_DATE) is read.
+     *
+     * @param loanPeriodDays the loan period in days
+     * @return the number of borrowings updated, or -1 on error
+     */
+    public static int backfillDueDates(int loanPeriodDays) {
+        String sql = "UPDATE BORROWINGS SET DUE_DATE = DATE({fn TIMESTAMPADD(SQL_TSI_DAY, " + loanPeriodDays
+                + ", TIMESTAMP(DATE_BORROW, '00:00:00'))}) WHERE DATE_RETURN IS NULL AND DUE_DATE IS NULL";
+        try (Connection conn = AppConfig.getConnection(); Statement stmt = conn.createStatement()) {
+            return stmt.executeUpdate(sql);
+        } catch (SQLException e) {
+            System.err.println("❌ SQL Error (backfillDueDates): " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Finds open borrowings that are past due and not yet marked overdue,
+     * ordered by due date. The range condition on (DATE_RETURN, DUE_DATE)
+     * lets the database read only the part of the index between the scan
+     * watermark and today.
+     *
+     * @param dueFrom the lowest due date to read (the scan watermark), or null
+     * to read from the start of the index
+     * @param today the current date; borrowings due before it are overdue
+     * @param limit the maximum number of borrowings to return
+     * @return list of overdue borrowings with ID, user, movie and due date,
+     * or null if an error occurs
+     */
+    public static List<Borrowing> findUnmarkedOverdue(java.sql.Date dueFrom, java.sql.Date today, int limit) {
+        List<Borrowing> overdue = new ArrayList<>();
+        String sql = "SELECT ID_BORROWING, ID_USER, ID_MOVIE, DUE_DATE FROM BORROWINGS "
+                + "WHERE DATE_RETURN IS NULL AND DUE_DATE < ?" + (dueFrom != null ? " AND DUE_DATE >= ?" : "")
+                + " AND DATE_OVERDUE IS NULL ORDER BY DUE_DATE";
         try (Connection conn = AppConfig.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, borrowingId);
-            return stmt.executeUpdate() > 0;
+            stmt.setDate(1, today);
+            if (dueFrom != null) {
+                stmt.setDate(2, dueFrom);
+            }
+            stmt.setMaxRows(limit);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                Borrowing b = new Borrowing();
+                b.setBorrowingId(rs.getString("ID_BORROWING"));
+                b.setUserId(rs.getString("ID_USER"));
+                b.setMovieId(rs.getString("ID_MOVIE"));
+                b.setDueDate(rs.getDate("DUE_DATE"));
+                overdue.add(b);
+            }
         } catch (SQLException e) {
-            System.out.println("❌ Failed to confirm loss: " + e.getMessage());
-            return false;
+            System.err.println("❌ SQL Error (findUnmarkedOverdue): " + e.getMessage());
+            return null;
+        }
+        return overdue;
+    }
+
+    /**
+     * Marks borrowings as overdue with one JDBC batch. Borrowings returned in
+     * the meantime, or already marked, are left alone.
+     *
+     * @param borrowingIds the IDs of the borrowings to mark
+     * @return the number of borrowings marked, or -1 on error
+     */
+    public static int markOverdue(List<String> borrowingIds) {
+        String sql = "UPDATE BORROWINGS SET DATE_OVERDUE = ? WHERE ID_BORROWING = ? AND DATE_RETURN IS NULL AND DATE_OVERDUE IS NULL";
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        try (Connection conn = AppConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (String id : borrowingIds) {
+                    stmt.setTimestamp(1, now);
+                    stmt.setString(2, id);
+                    stmt.addBatch();
+                }
+                int marked = 0;
+                for (int count : stmt.executeBatch()) {
+                    if (isApplied(count)) {
+                        marked++;
+                    }
+                }
+                conn.commit();
+                return marked;
+            } catch (SQLException e) {
+                conn.rollback();
+                System.err.println("❌ SQL Error (markOverdue): " + e.getMessage());
+                return -1;
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ SQL Error (markOverdue): " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Retrieves open borrowings that were marked overdue, oldest due date
+     * first.
+     *
+     * @param limit the maximum number of borrowings to return
+     * @return a list of overdue Borrowing records
+     */
+    public static List<Borrowing> getOverdueBorrowings(int limit) {
+        List<Borrowing> overdue = new ArrayList<>();
+        String sql = "SELECT * FROM BORROWINGS WHERE DATE_RETURN IS NULL AND DATE_OVERDUE IS NOT NULL ORDER BY DUE_DATE";
+        try (Connection conn = AppConfig.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setMaxRows(limit);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                overdue.add(mapRowToBorrowing(rs));
+            }
+        } catch (SQLException e) {
+            System.out.println("❌ Failed to get overdue borrowings: " + e.getMessage());
         }
+        return overdue;
     }
 
     /**
@@ -261,6 +723,8 @@ public class BorrowingDAO {
         b.setBorrowDate(rs.getDate("DATE_BORROW"));
         b.setReturnDate(rs.getDate("DATE_RETURN"));
         b.setStatus(rs.getString("STATUS"));
+        b.setDueDate(rs.getDate("DUE_DATE"));
+        b.setOverdueSince(rs.getTimestamp("DATE_OVERDUE"));
         return b;
     }
 
@@ -1,6 +1,8 @@
 package DAO;
 
+import Modules.CatalogChangeType;
 import Modules.Category;
+import Utils.CatalogVersion;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -9,8 +11,8 @@ import config.AppConfig;
 /**
  * Data Access Object (DAO) responsible for performing all database operations
  * related to categories in the system. This includes retrieving all categories,
- * adding new ones, checking for duplicates, deleting by ID, updating details,
- * and fetching associated poster images. 
+ * adding new ones, checking for duplicates, deleting by ID and updating
+ * details. 
  * All database interactions are performed using JDBC with proper resource management.
  */
 
@@ -19,11 +21,32 @@ public class CategoryDAO {
     /**
      * Retrieves all categories from the database.
      *
-     * @return a list of Category objects
+     * @return a list of Category objects, or null if an error occurs
      */
     public static List<Category> getAllCategories() {
+        return loadAllCategories(true);
+    }
+
+    /**
+     * Retrieves all categories without their poster hashes, for listings
+     * that link to the posters by category instead.
+     *
+     * @return a list of Category objects with posterHash left null, or null
+     * if an error occurs
+     */
+    public static List<Category> getAllCategoriesWithoutPosters() {
+        return loadAllCategories(false);
+    }
+
+    /**
+     * Loads all categories, optionally including their poster hashes.
+     *
+     * @param includePosters whether to read the POSTER_HASH column
+     * @return a list of Category objects, or null if an error occurs
+     */
+    private static List<Category> loadAllCategories(boolean includePosters) {
         List<Category> categories = new ArrayList<>();
-        String sql = "SELECT CATEGORY_ID, NAME_CATEGORY, DESCRIPTION, POSTER_IMAGE FROM CATEGORIES";
+        String sql = "SELECT CATEGORY_ID, NAME_CATEGORY, DESCRIPTION" + (includePosters ? ", POSTER_HASH" : "") + " FROM CATEGORIES";
         try (Connection conn = DriverManager.getConnection(
                 AppConfig.getDatabaseUrl(),
                 AppConfig.getDatabaseUser(),
@@ -34,11 +57,14 @@ public class CategoryDAO {
                         rs.getString("NAME_CATEGORY"),
                         rs.getString("DESCRIPTION")
                 );
-                category.setPosterImage(rs.getBytes("POSTER_IMAGE"));
+                if (includePosters) {
+                    category.setPosterHash(rs.getString("POSTER_HASH"));
+                }
                 categories.add(category);
             }
         } catch (Exception e) {
             System.out.println("Error retrieving categories: " + e.getMessage());
+            return null;
         }
         return categories;
     }
@@ -54,13 +80,17 @@ public class CategoryDAO {
             System.out.println("Error: Category '" + category.getName() + "' already exists!");
             return false;
         }
-        String sql = "INSERT INTO CATEGORIES (CATEGORY_ID, NAME_CATEGORY, DESCRIPTION, POSTER_IMAGE) VALUES (?, ?, ?, ?)";
+        String sql = "INSERT INTO CATEGORIES (CATEGORY_ID, NAME_CATEGORY, DESCRIPTION, POSTER_HASH) VALUES (?, ?, ?, ?)";
         try (Connection conn = AppConfig.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, category.getCategoryId());
             pstmt.setString(2, category.getName().trim());
             pstmt.setString(3, category.getDescription().trim());
-            pstmt.setBytes(4, category.getPosterImage() != null ? category.getPosterImage() : new byte[0]);
-            return pstmt.executeUpdate() > 0;
+            pstmt.setString(4, category.getPosterHash());
+            boolean added = pstmt.executeUpdate() > 0;
+            if (added) {
+                CatalogVersion.bump(CatalogChangeType.CATEGORY, null);
+            }
+            return added;
         } catch (SQLException e) {
             System.out.println("Error adding category: " + e.getMessage());
             return false;
@@ -101,6 +131,7 @@ public class CategoryDAO {
             pstmt.setString(1, categoryId);
             int affectedRows = pstmt.executeUpdate();
             if (affectedRows > 0) {
+                CatalogVersion.bump(CatalogChangeType.CATEGORY, null);
                 System.out.println("Deleted category: " + categoryId);
                 return true;
             } else {
@@ -113,26 +144,6 @@ public class CategoryDAO {
         }
     }
 
-    /**
-     * Retrieves the poster image for a category by ID.
-     *
-     * @param categoryId the ID of the category
-     * @return byte array of the image, or null if not found
-     */
-    public static byte[] getCategoryImage(String categoryId) {
-        String sql = "SELECT POSTER_IMAGE FROM CATEGORIES WHERE CATEGORY_ID = ?";
-        try (Connection conn = AppConfig.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, categoryId);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return rs.getBytes("POSTER_IMAGE");            }
-        } catch (SQLException e) {
-            System.out.println("Error retrieving category image: " + e.getMessage());
-        }
-
-        return null;
-    }
-
     /**
      * Updates the details of an existing category.
      *
@@ -140,13 +151,17 @@ public class CategoryDAO {
      * @return true if the update was successful, false otherwise
      */
     public static boolean updateCategory(Category category) {
-        String sql = "UPDATE CATEGORIES SET NAME_CATEGORY=?, DESCRIPTION=?, POSTER_IMAGE=? WHERE CATEGORY_ID=?";
+        String sql = "UPDATE CATEGORIES SET NAME_CATEGORY=?, DESCRIPTION=?, POSTER_HASH=? WHERE CATEGORY_ID=?";
         try (Connection conn = AppConfig.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, category.getName());
             pstmt.setString(2, category.getDescription());
-            pstmt.setBytes(3, category.getPosterImage());
+            pstmt.setString(3, category.getPosterHash());
             pstmt.setString(4, category.getCategoryId());
-            return pstmt.executeUpdate() > 0;
+            boolean updated = pstmt.executeUpdate() > 0;
+            if (updated) {
+                CatalogVersion.bump(CatalogChangeType.CATEGORY, null);
+            }
+            return updated;
         } catch (SQLException e) {
             System.out.println("Error updating category: " + e.getMessage());
             return false;
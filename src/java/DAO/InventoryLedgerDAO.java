@@ -0,0 +1,251 @@
+package DAO;
+
+import Modules.CatalogChangeType;
+import Modules.InventoryDiscrepancy;
+import Modules.InventoryEventType;
+import Utils.CatalogVersion;
+import config.AppConfig;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Data Access Object (DAO) for the append-only inventory ledger.
+ *
+ * Every change to a movie's QUANTITY or COPIES_AVAILABLE appends a row to
+ * INVENTORY_EVENTS in the same transaction as the change itself. Every
+ * configured number of events a movie gets a row in INVENTORY_SNAPSHOTS with
+ * its counts as of that event, so the current counts are reconstructed from
+ * the latest snapshot plus the few events after it instead of the whole
+ * history. Events and snapshots are never updated or deleted.
+ */
+public class InventoryLedgerDAO {
+
+    /**
+     * Appends an event to the ledger and takes a snapshot of the movie if
+     * enough events have accumulated since its last one. Must be called in
+     * the transaction that applied the change.
+     *
+     * @param conn the connection of the current transaction
+     * @param movieId the ID of the movie
+     * @param type the kind of change
+     * @param quantityDelta the change to the total number of copies
+     * @param availableDelta the change to the number of available copies
+     * @throws SQLException if a database error occurs
+     */
+    public static void recordEvent(Connection conn, String movieId, InventoryEventType type, int quantityDelta, int availableDelta) throws SQLException {
+        String sql = "INSERT INTO INVENTORY_EVENTS (ID_MOVIE, EVENT_TYPE, QUANTITY_DELTA, AVAILABLE_DELTA, DATE_EVENT) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, movieId);
+            pstmt.setString(2, type.name());
+            pstmt.setInt(3, quantityDelta);
+            pstmt.setInt(4, availableDelta);
+            pstmt.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
+            pstmt.executeUpdate();
+        }
+        LedgerState state = replay(conn, movieId);
+        if (state.getEventsSinceSnapshot() >= AppConfig.getInventorySnapshotInterval()) {
+            insertSnapshot(conn, movieId, state);
+        }
+    }
+
+    /**
+     * Reconstructs the counts of a movie from the ledger.
+     *
+     * @param movieId the ID of the movie
+     * @return the reconstructed state, or null if an error occurs
+     */
+    public static LedgerState getLedgerState(String movieId) {
+        try (Connection conn = AppConfig.getConnection()) {
+            return replay(conn, movieId);
+        } catch (SQLException e) {
+            System.err.println("❌ SQL Error (getLedgerState): " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Gives every movie that has neither a snapshot nor events (movies that
+     * existed before the ledger) an opening snapshot with its current counts,
+     * in one set-based INSERT. Called once at startup.
+     *
+     * @return the number of opening snapshots created, or -1 on error
+     */
+    public static int createOpeningSnapshots() {
+        String sql = "INSERT INTO INVENTORY_SNAPSHOTS (ID_MOVIE, EVENT_ID, QUANTITY, COPIES_AVAILABLE, DATE_SNAPSHOT) "
+                + "SELECT m.MOVIE_ID, 0, m.QUANTITY, m.COPIES_AVAILABLE, CURRENT_TIMESTAMP FROM MOVIES m "
+                + "WHERE NOT EXISTS (SELECT 1 FROM INVENTORY_SNAPSHOTS s WHERE s.ID_MOVIE = m.MOVIE_ID) "
+                + "AND NOT EXISTS (SELECT 1 FROM INVENTORY_EVENTS e WHERE e.ID_MOVIE = m.MOVIE_ID)";
+        try (Connection conn = AppConfig.getConnection(); Statement stmt = conn.createStatement()) {
+            return stmt.executeUpdate(sql);
+        } catch (SQLException e) {
+            System.err.println("❌ SQL Error (createOpeningSnapshots): " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Verifies the next chunk of movies (by MOVIE_ID order) against the
+     * ledger. Each movie's counts are replayed from its latest snapshot and
+     * compared with MOVIES; a movie that drifted is reset to the ledger's
+     * counts with a compare-and-set on VERSION, so a change committed while
+     * the chunk is being checked is never overwritten (the movie is simply
+     * checked again by the next recount).
+     *
+     * @param afterMovieId the last movie ID of the previous chunk, or null to
+     * start from the beginning
+     * @param chunkSize the maximum number of movies in the chunk
+     * @param discrepancies receives the movies that were corrected
+     * @param processed incremented once for every movie read in the chunk
+     * @return the last movie ID of the chunk, or null if no movies are left
+     * @throws SQLException if a database error occurs
+     */
+    public static String verifyChunk(String afterMovieId, int chunkSize, List<InventoryDiscrepancy> discrepancies, AtomicInteger processed) throws SQLException {
+        String sqlSelect = "SELECT MOVIE_ID, TITLE, QUANTITY, COPIES_AVAILABLE, VERSION FROM MOVIES WHERE MOVIE_ID > ? ORDER BY MOVIE_ID";
+        String sqlFix = "UPDATE MOVIES SET QUANTITY = ?, COPIES_AVAILABLE = ?, VERSION = VERSION + 1 WHERE MOVIE_ID = ? AND VERSION = ?";
+        try (Connection conn = AppConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmtSelect = conn.prepareStatement(sqlSelect); PreparedStatement pstmtFix = conn.prepareStatement(sqlFix)) {
+                pstmtSelect.setString(1, afterMovieId != null ? afterMovieId : "");
+                pstmtSelect.setMaxRows(chunkSize);
+                String lastMovieId = null;
+                int fixedBefore = discrepancies.size();
+                try (ResultSet rs = pstmtSelect.executeQuery()) {
+                    while (rs.next()) {
+                        lastMovieId = rs.getString("MOVIE_ID");
+                        processed.incrementAndGet();
+                        int quantity = rs.getInt("QUANTITY");
+                        int available = rs.getInt("COPIES_AVAILABLE");
+                        // MOVIES is read before the ledger, so a concurrent change makes the CAS below fail instead of being undone
+                        LedgerState ledger = replay(conn, lastMovieId);
+                        if (ledger.getEventId() < 0) {
+                            continue; // No snapshot and no events: nothing to verify against
+                        }
+                        if (ledger.getQuantity() == quantity && ledger.getCopiesAvailable() == available) {
+                            continue;
+                        }
+                        pstmtFix.setInt(1, ledger.getQuantity());
+                        pstmtFix.setInt(2, ledger.getCopiesAvailable());
+                        pstmtFix.setString(3, lastMovieId);
+                        pstmtFix.setInt(4, rs.getInt("VERSION"));
+                        if (pstmtFix.executeUpdate() > 0) {
+                            discrepancies.add(new InventoryDiscrepancy(lastMovieId, rs.getString("TITLE"),
+                                    quantity, ledger.getQuantity(), available, ledger.getCopiesAvailable()));
+                        }
+                    }
+                }
+                conn.commit();
+                List<String> fixedMovieIds = new ArrayList<>();
+                for (InventoryDiscrepancy discrepancy : discrepancies.subList(fixedBefore, discrepancies.size())) {
+                    fixedMovieIds.add(discrepancy.getMovieId());
+                }
+                CatalogVersion.bumpAll(CatalogChangeType.AVAILABILITY, fixedMovieIds);
+                return lastMovieId;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Replays the ledger of a movie: its latest snapshot (or zero counts if it
+     * has none) plus the sum of the events recorded after it. Both reads use
+     * the (ID_MOVIE, EVENT_ID) indexes, and at most one snapshot interval of
+     * events is summed.
+     *
+     * @param conn the connection to use
+     * @param movieId the ID of the movie
+     * @return the reconstructed state
+     * @throws SQLException if a database error occurs
+     */
+    private static LedgerState replay(Connection conn, String movieId) throws SQLException {
+        String sqlSnapshot = "SELECT EVENT_ID, QUANTITY, COPIES_AVAILABLE FROM INVENTORY_SNAPSHOTS WHERE ID_MOVIE = ? "
+                + "AND EVENT_ID = (SELECT MAX(EVENT_ID) FROM INVENTORY_SNAPSHOTS WHERE ID_MOVIE = ?)";
+        String sqlEvents = "SELECT COUNT(*), COALESCE(SUM(QUANTITY_DELTA), 0), COALESCE(SUM(AVAILABLE_DELTA), 0), "
+                + "COALESCE(MAX(EVENT_ID), ?) FROM INVENTORY_EVENTS WHERE ID_MOVIE = ? AND EVENT_ID > ?";
+        long snapshotEventId = -1;
+        int quantity = 0;
+        int available = 0;
+        try (PreparedStatement pstmt = conn.prepareStatement(sqlSnapshot)) {
+            pstmt.setString(1, movieId);
+            pstmt.setString(2, movieId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    snapshotEventId = rs.getLong(1);
+                    quantity = rs.getInt(2);
+                    available = rs.getInt(3);
+                }
+            }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(sqlEvents)) {
+            pstmt.setLong(1, snapshotEventId);
+            pstmt.setString(2, movieId);
+            pstmt.setLong(3, snapshotEventId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return new LedgerState(rs.getLong(4), quantity + rs.getInt(2), available + rs.getInt(3), rs.getInt(1));
+            }
+        }
+    }
+
+    /**
+     * Stores a snapshot of a movie's ledger state.
+     *
+     * @param conn the connection of the current transaction
+     * @param movieId the ID of the movie
+     * @param state the replayed state to store
+     * @throws SQLException if a database error occurs
+     */
+    private static void insertSnapshot(Connection conn, String movieId, LedgerState state) throws SQLException {
+        String sql = "INSERT INTO INVENTORY_SNAPSHOTS (ID_MOVIE, EVENT_ID, QUANTITY, COPIES_AVAILABLE, DATE_SNAPSHOT) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, movieId);
+            pstmt.setLong(2, state.getEventId());
+            pstmt.setInt(3, state.getQuantity());
+            pstmt.setInt(4, state.getCopiesAvailable());
+            pstmt.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Counts of a movie as reconstructed from the ledger.
+     */
+    public static class LedgerState {
+
+        private final long eventId; // Last event included, or -1 if none
+        private final int quantity; // Reconstructed total copies
+        private final int copiesAvailable; // Reconstructed available copies
+        private final int eventsSinceSnapshot; // Events replayed on top of the snapshot
+
+        LedgerState(long eventId, int quantity, int copiesAvailable, int eventsSinceSnapshot) {
+            this.eventId = eventId;
+            this.quantity = quantity;
+            this.copiesAvailable = copiesAvailable;
+            this.eventsSinceSnapshot = eventsSinceSnapshot;
+        }
+
+        public long getEventId() {
+            return eventId;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public int getCopiesAvailable() {
+            return copiesAvailable;
+        }
+
+        public int getEventsSinceSnapshot() {
+            return eventsSinceSnapshot;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package DAO;
+
+import config.AppConfig;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Data Access Object (DAO) for the JOB_STATE table, which stores the
+ * watermark of each incremental background job so that a job resumes where
+ * its previous run stopped, also after a restart.
+ */
+public class JobStateDAO {
+
+    /**
+     * Retrieves the watermark of a job.
+     *
+     * @param jobName the name of the job
+     * @return the stored watermark, or null if the job has none yet
+     */
+    public static String getWatermark(String jobName) {
+        String sql = "SELECT WATERMARK FROM JOB_STATE WHERE JOB_NAME = ?";
+        try (Connection conn = AppConfig.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, jobName);
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return rs.getString("WATERMARK");
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ SQL Error (getWatermark): " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Stores the watermark of a job, creating its row on first use.
+     *
+     * @param jobName the name of the job
+     * @param watermark the new watermark, or null to make the job start over
+     * @return true if the watermark was stored
+     */
+    public static boolean saveWatermark(String jobName, String watermark) {
+        String sqlUpdate = "UPDATE JOB_STATE SET WATERMARK = ?, UPDATED_AT = ? WHERE JOB_NAME = ?";
+        String sqlInsert = "INSERT INTO JOB_STATE (JOB_NAME, WATERMARK, UPDATED_AT) VALUES (?, ?, ?)";
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        try (Connection conn = AppConfig.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(sqlUpdate)) {
+                pstmt.setString(1, watermark);
+                pstmt.setTimestamp(2, now);
+                pstmt.setString(3, jobName);
+                if (pstmt.executeUpdate() > 0) {
+                    return true;
+                }
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(sqlInsert)) {
+                pstmt.setString(1, jobName);
+                pstmt.setString(2, watermark);
+                pstmt.setTimestamp(3, now);
+                return pstmt.executeUpdate() > 0;
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ SQL Error (saveWatermark): " + e.getMessage());
+            return false;
+        }
+    }
+}
@@ -1,12 +1,20 @@
 package DAO;
 
+import Modules.CatalogChangeType;
+import Modules.InventoryEventType;
+import Modules.InventoryUpdateResult;
 import Modules.Movie;
+import Modules.MoviePage;
+import Modules.MovieQuery;
+import Utils.CatalogVersion;
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,9 +36,31 @@ public class MovieDAO {
      * @return List of all movies.
      */
     public static List<Movie> getAllMovies() {
+        return loadAllMovies(true);
+    }
+
+    /**
+     * Retrieves all movies with their categories but without poster images.
+     * Used by background jobs that only need the catalog metadata.
+     *
+     * @return List of all movies, with posterHash left null.
+     */
+    public static List<Movie> getAllMoviesWithoutPosters() {
+        return loadAllMovies(false);
+    }
+
+    /**
+     * Loads all movies along with their categories, optionally including the
+     * hashes of their posters.
+     *
+     * @param includePosters whether to read the POSTER_HASH column
+     * @return List of all movies.
+     */
+    private static List<Movie> loadAllMovies(boolean includePosters) {
         List<Movie> movies = new ArrayList<>();
         Map<String, String> movieCategoriesMap = new HashMap<>();
-        String sqlMovies = "SELECT MOVIE_ID, TITLE, DESCRIPTION, COPIES_AVAILABLE, QUANTITY, DATE_RELEASE, POSTER_IMAGE FROM MOVIES";
+        String sqlMovies = "SELECT MOVIE_ID, TITLE, DESCRIPTION, COPIES_AVAILABLE, QUANTITY, DATE_RELEASE, VERSION"
+                + (includePosters ? ", POSTER_HASH" : "") + " FROM MOVIES";
         String sqlCategories = "SELECT mc.MOVIE_ID, c.NAME_CATEGORY FROM MOVIE_CATEGORIES mc "
                 + "JOIN CATEGORIES c ON mc.CATEGORY_ID = c.CATEGORY_ID";
         try (Connection conn = AppConfig.getConnection(); Statement stmtMovies = conn.createStatement(); Statement stmtCategories = conn.createStatement(); ResultSet rsMovies = stmtMovies.executeQuery(sqlMovies); ResultSet rsCategories = stmtCategories.executeQuery(sqlCategories)) {
@@ -40,7 +70,7 @@ public class MovieDAO {
                 String categoryName = rsCategories.getString("NAME_CATEGORY");
                 movieCategoriesMap.merge(movieId, categoryName, (oldValue, newValue) -> oldValue + ", " + newValue);
             }
-            // Load movies along with poster images
+            // Load movies along with their poster hashes
             while (rsMovies.next()) {
                 String movieId = rsMovies.getString("MOVIE_ID");
                 String categoryNames = movieCategoriesMap.getOrDefault(movieId, "No Category");
@@ -53,8 +83,11 @@ public class MovieDAO {
                         rsMovies.getDate("DATE_RELEASE"),
                         categoryNames
                 );
-                // Set poster image
-                movie.setPosterImage(rsMovies.getBytes("POSTER_IMAGE"));
+                movie.setVersion(rsMovies.getInt("VERSION"));
+                // Set poster reference
+                if (includePosters) {
+                    movie.setPosterHash(rsMovies.getString("POSTER_HASH"));
+                }
                 movies.add(movie);
             }
         } catch (SQLException e) {
@@ -63,6 +96,261 @@ public class MovieDAO {
         return movies;
     }
 
+    /**
+     * Retrieves one page of the catalog by keyset pagination: the filters of
+     * the query are applied and the page starts right after the query's
+     * (sort value, movie ID) position, so no rows are skipped with OFFSET.
+     * One extra row is read to tell whether another page follows. Category
+     * names are loaded for the page's movies only, and posters are never
+     * read.
+     *
+     * Derby sorts NULL above every value, so a NULL sort value comes last in
+     * ascending order and first in descending order; the keyset condition
+     * follows the same rule.
+     *
+     * @param query the filters, sort order, position and page size
+     * @return the page, or null if an error occurs
+     */
+    public static MoviePage findMovies(MovieQuery query) {
+        String column = "m." + query.getSort().getColumn();
+        String cmp = query.isDescending() ? "<" : ">";
+        String dir = query.isDescending() ? " DESC" : "";
+        StringBuilder sql = new StringBuilder("SELECT m.MOVIE_ID, m.TITLE, ")
+                .append(query.isIncludeDescription() ? "m.DESCRIPTION" : "CAST(NULL AS VARCHAR(1000)) AS DESCRIPTION")
+                .append(", m.COPIES_AVAILABLE, m.QUANTITY, m.DATE_RELEASE, m.VERSION, ")
+                .append(column).append(" AS SORT_VALUE FROM MOVIES m WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (query.getCategoryId() != null) {
+            sql.append(" AND EXISTS (SELECT 1 FROM MOVIE_CATEGORIES mc WHERE mc.MOVIE_ID = m.MOVIE_ID AND mc.CATEGORY_ID = ?)");
+            params.add(query.getCategoryId());
+        }
+        if (query.getReleasedFrom() != null) {
+            sql.append(" AND m.DATE_RELEASE >= ?");
+            params.add(query.getReleasedFrom());
+        }
+        if (query.getReleasedTo() != null) {
+            sql.append(" AND m.DATE_RELEASE <= ?");
+            params.add(query.getReleasedTo());
+        }
+        if (query.isAvailableOnly()) {
+            sql.append(" AND m.COPIES_AVAILABLE > 0");
+        }
+        if (query.isAfterSet()) {
+            if (query.getAfterValue() == null) {
+                // The previous page ended among the NULLs: last in ascending order, first in descending
+                sql.append(query.isDescending()
+                        ? " AND (" + column + " IS NOT NULL OR m.MOVIE_ID < ?)"
+                        : " AND " + column + " IS NULL AND m.MOVIE_ID > ?");
+                params.add(query.getAfterMovieId());
+            } else {
+                sql.append(" AND (").append(column).append(" ").append(cmp).append(" ? OR (")
+                        .append(column).append(" = ? AND m.MOVIE_ID ").append(cmp).append(" ?)")
+                        .append(query.isDescending() ? "" : " OR " + column + " IS NULL").append(")");
+                params.add(query.getAfterValue());
+                params.add(query.getAfterValue());
+                params.add(query.getAfterMovieId());
+            }
+        }
+        sql.append(" ORDER BY ").append(column).append(dir).append(", m.MOVIE_ID").append(dir);
+        try (Connection conn = AppConfig.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            pstmt.setMaxRows(query.getLimit() + 1);
+            List<Movie> movies = new ArrayList<>();
+            boolean hasMore = false;
+            Object lastSortValue = null;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    if (movies.size() == query.getLimit()) {
+                        hasMore = true;
+                        break;
+                    }
+                    Movie movie = new Movie(
+                            rs.getString("MOVIE_ID"),
+                            rs.getString("TITLE"),
+                            rs.getString("DESCRIPTION"),
+                            rs.getInt("COPIES_AVAILABLE"),
+                            rs.getInt("QUANTITY"),
+                            rs.getDate("DATE_RELEASE"),
+                            "No Category"
+                    );
+                    movie.setVersion(rs.getInt("VERSION"));
+                    lastSortValue = rs.getObject("SORT_VALUE");
+                    movies.add(movie);
+                }
+            }
+            loadCategoryNames(conn, movies);
+            return new MoviePage(movies, hasMore, lastSortValue,
+                    movies.isEmpty() ? null : movies.get(movies.size() - 1).getMovieId());
+        } catch (SQLException e) {
+            System.err.println("❌ SQL Error (findMovies): " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Streams the whole catalog, one movie at a time, without loading it into
+     * memory. Movies are joined with their categories and read in MOVIE_ID
+     * order, so the category rows of a movie are consecutive and each movie
+     * is handed to the handler as soon as its last category row has been
+     * read. Posters are not read.
+     *
+     * @param fetchSize the number of rows the driver fetches at a time
+     * @param includeDescription whether to read the DESCRIPTION column
+     * @param handler receives each movie in MOVIE_ID order
+     * @return the number of movies streamed
+     * @throws SQLException if a database error occurs
+     * @throws IOException if the handler fails to write a movie
+     */
+    public static int streamMovies(int fetchSize, boolean includeDescription, MovieHandler handler) throws SQLException, IOException {
+        String sql = "SELECT m.MOVIE_ID, m.TITLE, "
+                + (includeDescription ? "m.DESCRIPTION" : "CAST(NULL AS VARCHAR(1000)) AS DESCRIPTION")
+                + ", m.COPIES_AVAILABLE, m.QUANTITY, m.DATE_RELEASE, m.VERSION, c.NAME_CATEGORY FROM MOVIES m "
+                + "LEFT JOIN MOVIE_CATEGORIES mc ON mc.MOVIE_ID = m.MOVIE_ID "
+                + "LEFT JOIN CATEGORIES c ON c.CATEGORY_ID = mc.CATEGORY_ID ORDER BY m.MOVIE_ID";
+        int count = 0;
+        try (Connection conn = AppConfig.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setFetchSize(fetchSize);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                Movie current = null;
+                while (rs.next()) {
+                    String movieId = rs.getString("MOVIE_ID");
+                    if (current == null || !current.getMovieId().equals(movieId)) {
+                        if (current != null) {
+                            handler.handle(current);
+                            count++;
+                        }
+                        current = new Movie(
+                                movieId,
+                                rs.getString("TITLE"),
+                                rs.getString("DESCRIPTION"),
+                                rs.getInt("COPIES_AVAILABLE"),
+                                rs.getInt("QUANTITY"),
+                                rs.getDate("DATE_RELEASE"),
+                                null
+                        );
+                        current.setVersion(rs.getInt("VERSION"));
+                    }
+                    String categoryName = rs.getString("NAME_CATEGORY");
+                    if (categoryName != null) {
+                        current.setCategoryNames(current.getCategoryNames() == null ? categoryName : current.getCategoryNames() + ", " + categoryName);
+                    }
+                }
+                if (current != null) {
+                    handler.handle(current);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Retrieves the hash of a movie's poster in the PosterStore.
+     *
+     * @param movieId the ID of the movie
+     * @return the poster hash, or null if the movie has no poster or an error
+     * occurs
+     */
+    public static String getPosterHash(String movieId) {
+        String sql = "SELECT POSTER_HASH FROM MOVIES WHERE MOVIE_ID = ?";
+        try (Connection conn = AppConfig.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, movieId);
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return rs.getString("POSTER_HASH");
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ SQL Error (getPosterHash): " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves several movies with their categories but without poster
+     * images, with one IN query per chunk of IDs. Used by delta sync, which
+     * only needs the movies that changed.
+     *
+     * @param movieIds the IDs of the movies
+     * @return the movies found, in no particular order; IDs that no longer
+     * exist are left out, and null is returned if an error occurs
+     */
+    public static List<Movie> getMoviesByIds(List<String> movieIds) {
+        List<Movie> movies = new ArrayList<>();
+        int chunkSize = AppConfig.getBulkChunkSize();
+        try (Connection conn = AppConfig.getConnection()) {
+            for (int start = 0; start < movieIds.size(); start += chunkSize) {
+                List<String> chunk = movieIds.subList(start, Math.min(start + chunkSize, movieIds.size()));
+                String sql = "SELECT MOVIE_ID, TITLE, DESCRIPTION, COPIES_AVAILABLE, QUANTITY, DATE_RELEASE, VERSION FROM MOVIES "
+                        + "WHERE MOVIE_ID IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+                List<Movie> found = new ArrayList<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pstmt.setString(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            Movie movie = new Movie(
+                                    rs.getString("MOVIE_ID"),
+                                    rs.getString("TITLE"),
+                                    rs.getString("DESCRIPTION"),
+                                    rs.getInt("COPIES_AVAILABLE"),
+                                    rs.getInt("QUANTITY"),
+                                    rs.getDate("DATE_RELEASE"),
+                                    "No Category"
+                            );
+                            movie.setVersion(rs.getInt("VERSION"));
+                            found.add(movie);
+                        }
+                    }
+                }
+                loadCategoryNames(conn, found);
+                movies.addAll(found);
+            }
+            return movies;
+        } catch (SQLException e) {
+            System.err.println("❌ SQL Error (getMoviesByIds): " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Sets the category names of a page of movies with one IN query.
+     *
+     * @param conn the connection to use
+     * @param movies the movies of the page
+     * @throws SQLException if a database error occurs
+     */
+    private static void loadCategoryNames(Connection conn, List<Movie> movies) throws SQLException {
+        if (movies.isEmpty()) {
+            return;
+        }
+        Map<String, Movie> byId = new HashMap<>();
+        StringBuilder sql = new StringBuilder("SELECT mc.MOVIE_ID, c.NAME_CATEGORY FROM MOVIE_CATEGORIES mc "
+                + "JOIN CATEGORIES c ON mc.CATEGORY_ID = c.CATEGORY_ID WHERE mc.MOVIE_ID IN (");
+        for (Movie movie : movies) {
+            sql.append(byId.isEmpty() ? "?" : ", ?");
+            byId.put(movie.getMovieId(), movie);
+        }
+        sql.append(")");
+        Map<String, String> names = new HashMap<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (Movie movie : movies) {
+                pstmt.setString(index++, movie.getMovieId());
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    names.merge(rs.getString("MOVIE_ID"), rs.getString("NAME_CATEGORY"), (oldValue, newValue) -> oldValue + ", " + newValue);
+                }
+            }
+        }
+        for (Map.Entry<String, String> entry : names.entrySet()) {
+            byId.get(entry.getKey()).setCategoryNames(entry.getValue());
+        }
+    }
+
     /**
      * Adds a new movie and its categories to the database.
      *
@@ -71,7 +359,7 @@ public class MovieDAO {
      * @return true if added successfully, false otherwise.
      */
     public static boolean addMovie(Movie movie, List<String> selectedCategories) {
-        String sqlMovie = "INSERT INTO MOVIES (MOVIE_ID, TITLE, DESCRIPTION, COPIES_AVAILABLE, QUANTITY, DATE_RELEASE, POSTER_IMAGE) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        String sqlMovie = "INSERT INTO MOVIES (MOVIE_ID, TITLE, DESCRIPTION, COPIES_AVAILABLE, QUANTITY, DATE_RELEASE, POSTER_HASH) VALUES (?, ?, ?, ?, ?, ?, ?)";
         String sqlCategory = "INSERT INTO MOVIE_CATEGORIES (MOVIE_ID, CATEGORY_ID) VALUES (?, ?)";
         try (Connection conn = AppConfig.getConnection()) {
             conn.setAutoCommit(false);
@@ -82,7 +370,7 @@ public class MovieDAO {
                 pstmtMovie.setInt(4, movie.getCopiesAvailable());
                 pstmtMovie.setInt(5, movie.getQuantity());
                 pstmtMovie.setDate(6, new java.sql.Date(movie.getDateRelease().getTime()));
-                pstmtMovie.setBytes(7, movie.getPosterImage() != null ? movie.getPosterImage() : new byte[0]);
+                pstmtMovie.setString(7, movie.getPosterHash());
                 if (pstmtMovie.executeUpdate() == 0) {
                     conn.rollback();
                     return false;
@@ -92,7 +380,9 @@ public class MovieDAO {
                     pstmtCategory.setString(2, categoryId);
                     pstmtCategory.executeUpdate();
                 }
+                InventoryLedgerDAO.recordEvent(conn, movie.getMovieId(), InventoryEventType.CREATED, movie.getQuantity(), movie.getCopiesAvailable());
                 conn.commit();
+                CatalogVersion.bump(CatalogChangeType.MOVIE_INSERTED, movie.getMovieId());
                 return true;
             } catch (SQLException e) {
                 conn.rollback();
@@ -106,14 +396,16 @@ public class MovieDAO {
     }
 
     /**
-     * Updates an existing movie and its categories.
+     * Updates an existing movie's details and its categories. Inventory counts
+     * are not written here; they only change through adjustInventory so a
+     * stale Movie object cannot overwrite them.
      *
      * @param movie The movie to update.
      * @param selectedCategories New list of associated category IDs.
      * @return true if updated successfully, false otherwise.
      */
     public static boolean updateMovie(Movie movie, List<String> selectedCategories) {
-        String sqlUpdateMovie = "UPDATE MOVIES SET TITLE=?, DESCRIPTION=?, COPIES_AVAILABLE=?, QUANTITY=?, DATE_RELEASE=? WHERE MOVIE_ID=?";
+        String sqlUpdateMovie = "UPDATE MOVIES SET TITLE=?, DESCRIPTION=?, DATE_RELEASE=? WHERE MOVIE_ID=?";
         String sqlDeleteCategories = "DELETE FROM MOVIE_CATEGORIES WHERE MOVIE_ID=?";
         String sqlInsertCategory = "INSERT INTO MOVIE_CATEGORIES (MOVIE_ID, CATEGORY_ID) VALUES (?, ?)";
         try (Connection conn = AppConfig.getConnection()) {
@@ -121,10 +413,8 @@ public class MovieDAO {
             try (PreparedStatement pstmtMovie = conn.prepareStatement(sqlUpdateMovie); PreparedStatement pstmtDeleteCategories = conn.prepareStatement(sqlDeleteCategories); PreparedStatement pstmtInsertCategory = conn.prepareStatement(sqlInsertCategory)) {
                 pstmtMovie.setString(1, movie.getTitle());
                 pstmtMovie.setString(2, movie.getDescription());
-                pstmtMovie.setInt(3, movie.getCopiesAvailable());
-                pstmtMovie.setInt(4, movie.getQuantity());
-                pstmtMovie.setDate(5, new java.sql.Date(movie.getDateRelease().getTime()));
-                pstmtMovie.setString(6, movie.getMovieId());
+                pstmtMovie.setDate(3, new java.sql.Date(movie.getDateRelease().getTime()));
+                pstmtMovie.setString(4, movie.getMovieId());
                 if (pstmtMovie.executeUpdate() == 0) {
                     conn.rollback();
                     return false;
@@ -137,6 +427,7 @@ public class MovieDAO {
                     pstmtInsertCategory.executeUpdate();
                 }
                 conn.commit();
+                CatalogVersion.bump(CatalogChangeType.MOVIE_UPDATED, movie.getMovieId());
                 return true;
             } catch (SQLException e) {
                 conn.rollback();
@@ -167,6 +458,7 @@ public class MovieDAO {
                 int rowsAffected = pstmtMovie.executeUpdate();
                 if (rowsAffected > 0) {
                     conn.commit();
+                    CatalogVersion.bump(CatalogChangeType.MOVIE_DELETED, movieId);
                     return true;
                 } else {
                     conn.rollback();
@@ -205,21 +497,101 @@ public class MovieDAO {
     }
 
     /**
-     * Updates inventory quantity and available copies of a movie.
+     * Changes the inventory of a movie by the given deltas in a single atomic
+     * UPDATE. The new values are computed by the database from the current
+     * row, so concurrent writers never overwrite each other and no lock is
+     * held between reading and writing. The update is rejected if either
+     * count would become negative or available copies would exceed the total.
+     * The change and its ledger event are committed together.
      *
-     * @param movie The movie object to update.
-     * @return true if updated successfully, false otherwise.
+     * @param movieId the ID of the movie
+     * @param quantityDelta the change to the total number of copies
+     * @param availableDelta the change to the number of available copies
+     * @param type the kind of change, recorded in the inventory ledger
+     * @return the outcome of the update
      */
-    public static boolean updateMovieInventory(Movie movie) {
-        String sql = "UPDATE MOVIES SET QUANTITY = ?, COPIES_AVAILABLE = ? WHERE MOVIE_ID = ?";
-        try (Connection conn = AppConfig.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, Math.max(movie.getQuantity(), 0));
-            pstmt.setInt(2, Math.max(movie.getCopiesAvailable(), 0));
-            pstmt.setString(3, movie.getMovieId());
-            return pstmt.executeUpdate() > 0;
+    public static InventoryUpdateResult adjustInventory(String movieId, int quantityDelta, int availableDelta, InventoryEventType type) {
+        try (Connection conn = AppConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                InventoryUpdateResult result = adjustInventory(conn, movieId, quantityDelta, availableDelta, type);
+                conn.commit();
+                if (result == InventoryUpdateResult.UPDATED) {
+                    CatalogVersion.bump(CatalogChangeType.AVAILABILITY, movieId);
+                }
+                return result;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
-            System.err.println("❌ SQL Error: " + e.getMessage());
-            return false;
+            System.err.println("❌ SQL Error (adjustInventory): " + e.getMessage());
+            return InventoryUpdateResult.ERROR;
+        }
+    }
+
+    /**
+     * Changes the inventory of a movie by the given deltas using the caller's
+     * connection, so the change can be part of a larger transaction. An
+     * applied change is appended to the inventory ledger in that same
+     * transaction.
+     *
+     * @param conn the connection to use
+     * @param movieId the ID of the movie
+     * @param quantityDelta the change to the total number of copies
+     * @param availableDelta the change to the number of available copies
+     * @param type the kind of change, recorded in the inventory ledger
+     * @return the outcome of the update
+     * @throws SQLException if a database error occurs
+     */
+    public static InventoryUpdateResult adjustInventory(Connection conn, String movieId, int quantityDelta, int availableDelta, InventoryEventType type) throws SQLException {
+        String sql = "UPDATE MOVIES SET QUANTITY = QUANTITY + ?, COPIES_AVAILABLE = COPIES_AVAILABLE + ?, VERSION = VERSION + 1 "
+                + "WHERE MOVIE_ID = ? AND QUANTITY + ? >= 0 AND COPIES_AVAILABLE + ? >= 0 "
+                + "AND COPIES_AVAILABLE + ? <= QUANTITY + ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, quantityDelta);
+            pstmt.setInt(2, availableDelta);
+            pstmt.setString(3, movieId);
+            pstmt.setInt(4, quantityDelta);
+            pstmt.setInt(5, availableDelta);
+            pstmt.setInt(6, availableDelta);
+            pstmt.setInt(7, quantityDelta);
+            if (pstmt.executeUpdate() > 0) {
+                InventoryLedgerDAO.recordEvent(conn, movieId, type, quantityDelta, availableDelta);
+                return InventoryUpdateResult.UPDATED;
+            }
+        }
+        return movieIdExists(conn, movieId) ? InventoryUpdateResult.REJECTED : InventoryUpdateResult.NOT_FOUND;
+    }
+
+    /**
+     * Counts all movies in the catalog.
+     *
+     * @return the number of movies, or 0 if an error occurs
+     */
+    public static int countMovies() {
+        try (Connection conn = AppConfig.getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM MOVIES")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            System.err.println("❌ SQL Error (countMovies): " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Checks whether a movie row with the given ID exists.
+     *
+     * @param conn the connection to use
+     * @param movieId the ID of the movie
+     * @return true if the movie exists
+     * @throws SQLException if a database error occurs
+     */
+    private static boolean movieIdExists(Connection conn, String movieId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1 FROM MOVIES WHERE MOVIE_ID = ?")) {
+            pstmt.setString(1, movieId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
         }
     }
 
@@ -232,7 +604,7 @@ public class MovieDAO {
      * or an error occurs
      */
     public static Movie getMovieById(String movieId) {
-        String sqlMovie = "SELECT MOVIE_ID, TITLE, DESCRIPTION, COPIES_AVAILABLE, QUANTITY, DATE_RELEASE "
+        String sqlMovie = "SELECT MOVIE_ID, TITLE, DESCRIPTION, COPIES_AVAILABLE, QUANTITY, DATE_RELEASE, VERSION "
                 + "FROM MOVIES WHERE MOVIE_ID = ?";
         String sqlCategories = "SELECT C.NAME_CATEGORY FROM MOVIE_CATEGORIES MC "
                 + "JOIN CATEGORIES C ON MC.CATEGORY_ID = C.CATEGORY_ID "
@@ -250,7 +622,7 @@ public class MovieDAO {
                     }
                     categoryNames.append(rsCategories.getString("NAME_CATEGORY"));
                 }
-                return new Movie(
+                Movie movie = new Movie(
                         rsMovie.getString("MOVIE_ID"),
                         rsMovie.getString("TITLE"),
                         rsMovie.getString("DESCRIPTION"),
@@ -259,6 +631,8 @@ public class MovieDAO {
                         rsMovie.getDate("DATE_RELEASE"),
                         categoryNames.toString()
                 );
+                movie.setVersion(rsMovie.getInt("VERSION"));
+                return movie;
             }
         } catch (SQLException e) {
             System.err.println("❌ SQL Error (getMovieById): " + e.getMessage());
@@ -289,22 +663,17 @@ public class MovieDAO {
     }
 
     /**
-     * Decreases the total number of copies for a movie by 1, only if the
-     * current quantity is greater than 0.
-     *
-     * @param movieId the ID of the movie whose quantity should be decreased
-     * @return true if the update was successful (at least one row affected),
-     * false otherwise
+     * Receives the movies of a streamed catalog read.
      */
-    public static boolean decreaseTotalCopies(String movieId) {
-        String sql = "UPDATE MOVIES SET QUANTITY = QUANTITY - 1 WHERE MOVIE_ID = ? AND QUANTITY > 0";
-        try (Connection conn = AppConfig.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, movieId);
-            return stmt.executeUpdate() > 0;
-        } catch (SQLException e) {
-            System.out.println("❌ Failed to decrease movie copies: " + e.getMessage());
-            return false;
-        }
-    }
+    public interface MovieHandler {
 
+        /**
+         * Handles one movie. Category names are null if the movie has no
+         * category.
+         *
+         * @param movie the movie
+         * @throws IOException if the movie cannot be written
+         */
+        void handle(Movie movie) throws IOException;
+    }
 }
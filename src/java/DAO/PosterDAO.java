@@ -0,0 +1,155 @@
+package DAO;
+
+import Utils.PosterStore;
+import config.AppConfig;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Data Access Object (DAO) for the poster references of movies and
+ * categories, and for moving the posters of older databases out of their
+ * POSTER_IMAGE BLOB columns into the PosterStore.
+ */
+public class PosterDAO {
+
+    private static final String[][] POSTER_TABLES = {{"MOVIES", "MOVIE_ID"}, {"CATEGORIES", "CATEGORY_ID"}}; // Tables with posters and their keys
+
+    /**
+     * Retrieves every poster hash referenced by a movie or a category.
+     *
+     * @return the referenced hashes, or null if an error occurs
+     */
+    public static Set<String> getReferencedHashes() {
+        String sql = "SELECT POSTER_HASH FROM MOVIES WHERE POSTER_HASH IS NOT NULL "
+                + "UNION SELECT POSTER_HASH FROM CATEGORIES WHERE POSTER_HASH IS NOT NULL";
+        Set<String> hashes = new HashSet<>();
+        try (Connection conn = AppConfig.getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                hashes.add(rs.getString(1));
+            }
+            return hashes;
+        } catch (SQLException e) {
+            System.err.println("❌ SQL Error (getReferencedHashes): " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Moves the posters still stored in POSTER_IMAGE columns into the
+     * PosterStore, one row per transaction, then drops the emptied columns
+     * and compresses the tables so Derby returns the space. A database
+     * without the columns (new, or already migrated) is left untouched, and
+     * an interrupted migration continues on the next startup. Called once at
+     * startup.
+     *
+     * @return the number of posters moved
+     */
+    public static int moveBlobsToStore() {
+        int moved = 0;
+        try (Connection conn = AppConfig.getConnection()) {
+            for (String[] table : POSTER_TABLES) {
+                if (!hasBlobColumn(conn, table[0])) {
+                    continue;
+                }
+                moved += moveBlobs(conn, table[0], table[1]);
+                dropBlobColumn(conn, table[0]);
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ SQL Error (moveBlobsToStore): " + e.getMessage());
+        }
+        return moved;
+    }
+
+    /**
+     * Moves the posters of one table, committing each row as soon as its
+     * poster is in the store; the cursor is held over the commits. Rows
+     * whose poster cannot be written keep it in the BLOB column and are
+     * retried on the next startup.
+     *
+     * @param conn the connection to use
+     * @param table the table name
+     * @param idColumn its primary key column
+     * @return the number of posters moved
+     * @throws SQLException if a database error occurs
+     */
+    private static int moveBlobs(Connection conn, String table, String idColumn) throws SQLException {
+        String sqlSelect = "SELECT " + idColumn + ", POSTER_IMAGE FROM " + table + " WHERE POSTER_IMAGE IS NOT NULL AND POSTER_HASH IS NULL";
+        String sqlUpdate = "UPDATE " + table + " SET POSTER_HASH = ?, POSTER_IMAGE = NULL WHERE " + idColumn + " = ?";
+        int moved = 0;
+        conn.setAutoCommit(false);
+        try (Statement stmtSelect = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT);
+                PreparedStatement pstmtUpdate = conn.prepareStatement(sqlUpdate)) {
+            try (ResultSet rs = stmtSelect.executeQuery(sqlSelect)) {
+                while (rs.next()) {
+                    String hash;
+                    try (InputStream image = rs.getBinaryStream("POSTER_IMAGE")) {
+                        hash = PosterStore.store(image, Long.MAX_VALUE); // Streamed, so large BLOBs are never loaded whole
+                    } catch (IOException e) {
+                        System.err.println("❌ Could not move poster of " + table + " " + rs.getString(idColumn) + ": " + e.getMessage());
+                        continue;
+                    }
+                    if (hash != null) { // Rows added without a poster hold an empty BLOB
+                        moved++;
+                    }
+                    pstmtUpdate.setString(1, hash);
+                    pstmtUpdate.setString(2, rs.getString(idColumn));
+                    pstmtUpdate.executeUpdate();
+                    conn.commit();
+                }
+            }
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+        return moved;
+    }
+
+    /**
+     * Drops the POSTER_IMAGE column of a table once no row uses it, and
+     * compresses the table so the space of the moved BLOBs is released.
+     *
+     * @param conn the connection to use
+     * @param table the table name
+     * @throws SQLException if a database error occurs
+     */
+    private static void dropBlobColumn(Connection conn, String table) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table + " WHERE POSTER_IMAGE IS NOT NULL")) {
+                rs.next();
+                if (rs.getInt(1) > 0) {
+                    return; // Some posters could not be moved yet
+                }
+            }
+            stmt.executeUpdate("ALTER TABLE " + table + " DROP COLUMN POSTER_IMAGE");
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement("CALL SYSCS_UTIL.SYSCS_COMPRESS_TABLE(?, ?, 1)")) {
+            pstmt.setString(1, conn.getMetaData().getUserName().toUpperCase()); // Default schema of the application user
+            pstmt.setString(2, table);
+            pstmt.execute();
+        }
+        System.out.println("✅ Column " + table + ".POSTER_IMAGE dropped.");
+    }
+
+    /**
+     * @param conn the connection to use
+     * @param table the table name
+     * @return true if the table still has its POSTER_IMAGE column
+     * @throws SQLException if a database error occurs
+     */
+    private static boolean hasBlobColumn(Connection conn, String table) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        try (ResultSet rs = metaData.getColumns(null, null, table, "POSTER_IMAGE")) {
+            return rs.next();
+        }
+    }
+}
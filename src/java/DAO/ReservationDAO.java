@@ -0,0 +1,409 @@
+package DAO;
+
+import Modules.CatalogChangeType;
+import Modules.InventoryEventType;
+import Modules.InventoryUpdateResult;
+import Modules.Reservation;
+import Utils.CatalogVersion;
+import Utils.MovieLockRegistry;
+import config.AppConfig;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Data Access Object (DAO) for the movie waitlist (RESERVATIONS table).
+ *
+ * Copies are handed out strictly first-come first-served: a copy freed by a
+ * return, an expired hold or a cancelled hold is assigned to the oldest
+ * waiting reservation in the same transaction that freed it, and only goes
+ * back to COPIES_AVAILABLE when nobody is waiting. Every status change is a
+ * compare-and-set on the current status, so concurrent returns never assign
+ * two copies to one reservation or one copy to two reservations.
+ */
+public class ReservationDAO {
+
+    /**
+     * Adds the user to the end of the waitlist of a movie, unless the user
+     * already has a waiting or held reservation for it.
+     *
+     * @param userId the ID of the user
+     * @param movieId the ID of the movie
+     * @return true if the reservation was added, false if one already exists
+     * or an error occurs
+     */
+    public static boolean addReservation(String userId, String movieId) {
+        String sql = "INSERT INTO RESERVATIONS (ID_RESERVATION, ID_USER, ID_MOVIE, DATE_RESERVED, STATUS) "
+                + "SELECT ?, ?, ?, ?, ? FROM SYSIBM.SYSDUMMY1 WHERE NOT EXISTS ("
+                + "SELECT 1 FROM RESERVATIONS WHERE ID_USER = ? AND ID_MOVIE = ? AND STATUS IN (?, ?))";
+        try (Connection conn = AppConfig.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, UUID.randomUUID().toString());
+            pstmt.setString(2, userId);
+            pstmt.setString(3, movieId);
+            pstmt.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+            pstmt.setString(5, Reservation.WAITING);
+            pstmt.setString(6, userId);
+            pstmt.setString(7, movieId);
+            pstmt.setString(8, Reservation.WAITING);
+            pstmt.setString(9, Reservation.HELD);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("❌ SQL Error (addReservation): " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Retrieves the waiting and held reservations of a user, with the movie
+     * title and the current place in each waitlist.
+     *
+     * @param userId the ID of the user
+     * @return list of active reservations, oldest first
+     */
+    public static List<Reservation> getActiveReservationsByUser(String userId) {
+        List<Reservation> reservations = new ArrayList<>();
+        String sql = "SELECT r.ID_RESERVATION, r.ID_USER, r.ID_MOVIE, r.DATE_RESERVED, r.STATUS, r.HOLD_EXPIRES, m.TITLE, "
+                + "(SELECT COUNT(*) FROM RESERVATIONS w WHERE w.ID_MOVIE = r.ID_MOVIE AND w.STATUS = ? "
+                + "AND w.DATE_RESERVED <= r.DATE_RESERVED) AS POSITION "
+                + "FROM RESERVATIONS r JOIN MOVIES m ON r.ID_MOVIE = m.MOVIE_ID "
+                + "WHERE r.ID_USER = ? AND r.STATUS IN (?, ?) ORDER BY r.DATE_RESERVED";
+        try (Connection conn = AppConfig.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, Reservation.WAITING);
+            pstmt.setString(2, userId);
+            pstmt.setString(3, Reservation.WAITING);
+            pstmt.setString(4, Reservation.HELD);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                Reservation reservation = new Reservation();
+                reservation.setReservationId(rs.getString("ID_RESERVATION"));
+                reservation.setUserId(rs.getString("ID_USER"));
+                reservation.setMovieId(rs.getString("ID_MOVIE"));
+                reservation.setDateReserved(rs.getTimestamp("DATE_RESERVED"));
+                reservation.setStatus(rs.getString("STATUS"));
+                reservation.setHoldExpires(rs.getTimestamp("HOLD_EXPIRES"));
+                reservation.setMovieTitle(rs.getString("TITLE"));
+                reservation.setPosition(rs.getInt("POSITION"));
+                reservations.add(reservation);
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ SQL Error (getActiveReservationsByUser): " + e.getMessage());
+        }
+        return reservations;
+    }
+
+    /**
+     * Retrieves the movie of a reservation owned by a user.
+     *
+     * @param reservationId the ID of the reservation
+     * @param userId the ID of the user who owns it
+     * @return the movie ID, or null if the user has no such reservation or
+     * an error occurs
+     */
+    public static String getMovieId(String reservationId, String userId) {
+        try (Connection conn = AppConfig.getConnection()) {
+            return findMovieId(conn, reservationId, userId);
+        } catch (SQLException e) {
+            System.err.println("❌ SQL Error (getMovieId): " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Cancels a waiting or held reservation of a user. A held copy is passed
+     * on to the next waiting user, or returned to the available copies, in the
+     * same transaction.
+     *
+     * @param reservationId the ID of the reservation
+     * @param userId the ID of the user who owns it
+     * @return true if the reservation was cancelled, false otherwise
+     */
+    public static boolean cancelReservation(String reservationId, String userId) {
+        String sqlWaiting = "UPDATE RESERVATIONS SET STATUS = ? WHERE ID_RESERVATION = ? AND ID_USER = ? AND STATUS = ?";
+        try (Connection conn = AppConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sqlWaiting)) {
+                pstmt.setString(1, Reservation.CANCELLED);
+                pstmt.setString(2, reservationId);
+                pstmt.setString(3, userId);
+                pstmt.setString(4, Reservation.WAITING);
+                boolean cancelled = pstmt.executeUpdate() > 0;
+                String releasedMovieId = null; // Movie whose held copy was given back, if any
+                if (!cancelled) {
+                    String movieId = findMovieId(conn, reservationId, userId);
+                    cancelled = movieId != null && releaseHold(conn, reservationId, movieId, Reservation.CANCELLED);
+                    releasedMovieId = cancelled ? movieId : null;
+                }
+                conn.commit();
+                if (releasedMovieId != null) {
+                    CatalogVersion.bump(CatalogChangeType.AVAILABILITY, releasedMovieId);
+                }
+                return cancelled;
+            } catch (SQLException e) {
+                conn.rollback();
+                System.err.println("❌ SQL Error (cancelReservation): " + e.getMessage());
+                return false;
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ SQL Error (cancelReservation): " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Marks the user's unexpired hold on a movie as fulfilled. Called inside
+     * the borrow transaction; if it returns true, the held copy is the one
+     * being borrowed and COPIES_AVAILABLE must not be decreased again.
+     *
+     * @param conn the connection of the borrow transaction
+     * @param userId the ID of the borrowing user
+     * @param movieId the ID of the movie
+     * @return true if the user had a hold on the movie
+     * @throws SQLException if a database error occurs
+     */
+    public static boolean claimHold(Connection conn, String userId, String movieId) throws SQLException {
+        String sql = "UPDATE RESERVATIONS SET STATUS = ? WHERE ID_USER = ? AND ID_MOVIE = ? AND STATUS = ? AND HOLD_EXPIRES > ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, Reservation.FULFILLED);
+            pstmt.setString(2, userId);
+            pstmt.setString(3, movieId);
+            pstmt.setString(4, Reservation.HELD);
+            pstmt.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Hands a freed copy of a movie to the oldest waiting reservation, or adds
+     * it back to the available copies if nobody is waiting. Must be called
+     * inside the transaction that freed the copy, which is recorded in the
+     * inventory ledger with the given event type.
+     *
+     * @param conn the connection of the current transaction
+     * @param movieId the ID of the movie
+     * @param type RETURNED or HOLD_RELEASED
+     * @return the ID of the reservation that now holds the copy, or null if
+     * the copy was made available
+     * @throws SQLException if a database error occurs or the copy cannot be
+     * added back to the inventory
+     */
+    public static String releaseCopy(Connection conn, String movieId, InventoryEventType type) throws SQLException {
+        String reservationId = assignToNextWaiting(conn, movieId);
+        if (reservationId != null) {
+            // The copy goes straight to the next hold: the counts do not change, the ledger still records it
+            InventoryLedgerDAO.recordEvent(conn, movieId, type, 0, 0);
+            return reservationId;
+        }
+        InventoryUpdateResult result = MovieDAO.adjustInventory(conn, movieId, 0, 1, type);
+        if (result != InventoryUpdateResult.UPDATED) {
+            throw new SQLException("Could not return a copy of movie " + movieId + " to the inventory: " + result);
+        }
+        return null;
+    }
+
+    /**
+     * Moves available copies of a movie to its waitlist, one per waiting
+     * reservation, for example after an admin added copies.
+     *
+     * @param movieId the ID of the movie
+     * @return the number of copies assigned to waiting users
+     */
+    public static int allocateAvailableCopies(String movieId) {
+        int assigned = 0;
+        try (Connection conn = AppConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                while (MovieDAO.adjustInventory(conn, movieId, 0, -1, InventoryEventType.HELD) == InventoryUpdateResult.UPDATED) {
+                    if (assignToNextWaiting(conn, movieId) == null) {
+                        conn.rollback(); // Nobody left waiting: undo the last decrement only
+                        return assigned;
+                    }
+                    conn.commit();
+                    CatalogVersion.bump(CatalogChangeType.AVAILABILITY, movieId);
+                    assigned++;
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                System.err.println("❌ SQL Error (allocateAvailableCopies): " + e.getMessage());
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ SQL Error (allocateAvailableCopies): " + e.getMessage());
+        }
+        return assigned;
+    }
+
+    /**
+     * Expires holds whose time ran out and passes each copy on, in batches of
+     * the configured size with one short transaction per hold. A hold that
+     * cannot be expired stays selected, so the sweep stops at a batch in which
+     * no hold was expired and leaves the rest to the next run. Afterwards,
+     * movies that have both free copies and waiting users (for example after
+     * copies were added while a hold was pending) are allocated. Called
+     * periodically from the background scheduler.
+     */
+    public static void sweepExpiredHolds() {
+        String sqlExpired = "SELECT ID_RESERVATION, ID_MOVIE FROM RESERVATIONS WHERE STATUS = ? AND HOLD_EXPIRES <= ? ORDER BY HOLD_EXPIRES";
+        String sqlStarved = "SELECT DISTINCT r.ID_MOVIE FROM RESERVATIONS r JOIN MOVIES m ON r.ID_MOVIE = m.MOVIE_ID "
+                + "WHERE r.STATUS = ? AND m.COPIES_AVAILABLE > 0";
+        int expired = 0;
+        int allocated = 0;
+        try (Connection conn = AppConfig.getConnection()) {
+            int batchSize = AppConfig.getReservationSweepBatchSize();
+            List<String[]> batch;
+            int expiredInBatch;
+            do {
+                batch = new ArrayList<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(sqlExpired)) {
+                    pstmt.setString(1, Reservation.HELD);
+                    pstmt.setTimestamp(2, new Timestamp(System.currentTimeMillis()));
+                    pstmt.setMaxRows(batchSize);
+                    ResultSet rs = pstmt.executeQuery();
+                    while (rs.next()) {
+                        batch.add(new String[]{rs.getString("ID_RESERVATION"), rs.getString("ID_MOVIE")});
+                    }
+                }
+                conn.setAutoCommit(false);
+                expiredInBatch = 0;
+                for (String[] hold : batch) {
+                    if (MovieLockRegistry.withLock(hold[1], () -> expireHold(conn, hold[0], hold[1]))) {
+                        expiredInBatch++;
+                    }
+                }
+                conn.setAutoCommit(true);
+                expired += expiredInBatch;
+            } while (batch.size() == batchSize && expiredInBatch > 0);
+
+            List<String> starved = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(sqlStarved)) {
+                pstmt.setString(1, Reservation.WAITING);
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    starved.add(rs.getString(1));
+                }
+            }
+            for (String movieId : starved) {
+                allocated += MovieLockRegistry.withLock(movieId, () -> allocateAvailableCopies(movieId));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ SQL Error (sweepExpiredHolds): " + e.getMessage());
+        }
+        if (expired > 0 || allocated > 0) {
+            System.out.println("⏳ Reservation sweep: " + expired + " holds expired, " + allocated + " copies allocated.");
+        }
+    }
+
+    /**
+     * Expires one hold in its own transaction on the sweep's connection.
+     *
+     * @param conn the sweep connection, with auto-commit disabled
+     * @param reservationId the ID of the held reservation
+     * @param movieId the ID of the movie
+     * @return true if the hold was expired
+     */
+    private static boolean expireHold(Connection conn, String reservationId, String movieId) {
+        try {
+            boolean released = releaseHold(conn, reservationId, movieId, Reservation.EXPIRED);
+            conn.commit();
+            if (released) {
+                CatalogVersion.bump(CatalogChangeType.AVAILABILITY, movieId);
+            }
+            return released;
+        } catch (SQLException e) {
+            try {
+                conn.rollback();
+            } catch (SQLException rollbackError) {
+                System.err.println("❌ SQL Error (expireHold rollback): " + rollbackError.getMessage());
+            }
+            System.err.println("❌ SQL Error (sweepExpiredHolds): " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Ends a held reservation with the given status and passes its copy on.
+     * The status change is a compare-and-set on HELD, so a hold that was
+     * claimed or released concurrently is left alone.
+     *
+     * @param conn the connection of the current transaction
+     * @param reservationId the ID of the held reservation
+     * @param movieId the ID of the movie
+     * @param newStatus EXPIRED or CANCELLED
+     * @return true if the hold was released
+     * @throws SQLException if a database error occurs
+     */
+    private static boolean releaseHold(Connection conn, String reservationId, String movieId, String newStatus) throws SQLException {
+        String sql = "UPDATE RESERVATIONS SET STATUS = ?, HOLD_EXPIRES = NULL WHERE ID_RESERVATION = ? AND STATUS = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, newStatus);
+            pstmt.setString(2, reservationId);
+            pstmt.setString(3, Reservation.HELD);
+            if (pstmt.executeUpdate() == 0) {
+                return false;
+            }
+        }
+        releaseCopy(conn, movieId, InventoryEventType.HOLD_RELEASED);
+        return true;
+    }
+
+    /**
+     * Turns the oldest waiting reservation of a movie into a hold. Candidates
+     * are tried in order with a compare-and-set on WAITING, so a reservation
+     * taken by a concurrent transaction is skipped.
+     *
+     * @param conn the connection of the current transaction
+     * @param movieId the ID of the movie
+     * @return the ID of the reservation now holding a copy, or null if nobody
+     * is waiting
+     * @throws SQLException if a database error occurs
+     */
+    private static String assignToNextWaiting(Connection conn, String movieId) throws SQLException {
+        String sqlQueue = "SELECT ID_RESERVATION FROM RESERVATIONS WHERE ID_MOVIE = ? AND STATUS = ? ORDER BY DATE_RESERVED, ID_RESERVATION";
+        String sqlHold = "UPDATE RESERVATIONS SET STATUS = ?, HOLD_EXPIRES = ? WHERE ID_RESERVATION = ? AND STATUS = ?";
+        List<String> candidates = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sqlQueue)) {
+            pstmt.setString(1, movieId);
+            pstmt.setString(2, Reservation.WAITING);
+            pstmt.setMaxRows(AppConfig.getReservationAssignCandidates());
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                candidates.add(rs.getString(1));
+            }
+        }
+        Timestamp holdExpires = new Timestamp(System.currentTimeMillis() + AppConfig.getReservationHoldMillis());
+        try (PreparedStatement pstmt = conn.prepareStatement(sqlHold)) {
+            for (String reservationId : candidates) {
+                pstmt.setString(1, Reservation.HELD);
+                pstmt.setTimestamp(2, holdExpires);
+                pstmt.setString(3, reservationId);
+                pstmt.setString(4, Reservation.WAITING);
+                if (pstmt.executeUpdate() > 0) {
+                    return reservationId;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Looks up the movie of a reservation owned by a user.
+     *
+     * @param conn the connection to use
+     * @param reservationId the ID of the reservation
+     * @param userId the ID of the owner
+     * @return the movie ID, or null if not found
+     * @throws SQLException if a database error occurs
+     */
+    private static String findMovieId(Connection conn, String reservationId, String userId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT ID_MOVIE FROM RESERVATIONS WHERE ID_RESERVATION = ? AND ID_USER = ?")) {
+            pstmt.setString(1, reservationId);
+            pstmt.setString(2, userId);
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package DAO;
 
+import Modules.CatalogChangeType;
 import Modules.Review;
+import Modules.ReviewOutcome;
 import config.AppConfig;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import Utils.CatalogVersion;
 import Utils.MathUtils;
 
 /**
@@ -16,12 +19,15 @@ import Utils.MathUtils;
 public class ReviewDAO {
 
     /**
-     * Adds a new review to the database.
+     * Adds a new review to the database. The UNIQUE (ID_USER, ID_MOVIE)
+     * constraint on REVIEWS rejects a second review by the same user for the
+     * same movie, so no separate existence check is needed.
      *
      * @param review the Review object to be added
-     * @return true if the review was added successfully, false otherwise
+     * @return ADDED if the review was stored, DUPLICATE if the user already
+     * reviewed the movie, ERROR otherwise
      */
-    public static boolean addReview(Review review) {
+    public static ReviewOutcome addReview(Review review) {
         String sql = "INSERT INTO REVIEWS (REVIEW_ID, ID_USER, ID_MOVIE, COMMENT, RATING, DATE_REVIEW) "
                 + "VALUES (?, ?, ?, ?, ?, ?)";
         try (Connection conn = AppConfig.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -33,12 +39,17 @@ public class ReviewDAO {
             pstmt.setTimestamp(6, review.getDateReview());
             boolean success = pstmt.executeUpdate() > 0;
             if (success) {
+                CatalogVersion.bump(CatalogChangeType.REVIEW, review.getMovieId());
                 System.out.println("✅ Review added successfully.");
             } else {
                 System.out.println("⚠️ No rows affected while inserting review.");
             }
-            return success;
+            return success ? ReviewOutcome.ADDED : ReviewOutcome.ERROR;
         } catch (SQLException e) {
+            if ("23505".equals(e.getSQLState())) { // Unique constraint violation
+                System.out.println("ℹ️ Review already exists for user " + review.getUserId() + " and movie " + review.getMovieId());
+                return ReviewOutcome.DUPLICATE;
+            }
             System.out.println("❌ SQLException - " + e.getMessage());
             System.out.println("📌 reviewId=" + review.getReviewId());
             System.out.println("📌 userId=" + review.getUserId());
@@ -46,7 +57,7 @@ public class ReviewDAO {
             System.out.println("📌 comment=" + review.getComment());
             System.out.println("📌 rating=" + review.getRating());
             System.out.println("📌 date=" + review.getDateReview());
-            return false;
+            return ReviewOutcome.ERROR;
         }
     }
 
@@ -78,6 +89,76 @@ public class ReviewDAO {
         return reviews;
     }
 
+    /**
+     * Retrieves one page of a movie's reviews, newest first, by keyset
+     * pagination on (DATE_REVIEW, REVIEW_ID): the page starts right after the
+     * given review, so deep pages cost the same as the first one.
+     *
+     * @param movieId the ID of the movie
+     * @param afterDate the date of the last review of the previous page, or
+     * null for the first page
+     * @param afterReviewId the ID of the last review of the previous page
+     * @param limit the maximum number of reviews to return
+     * @return a list of at most limit reviews, newest first
+     */
+    public static List<Review> getReviewsPage(String movieId, Timestamp afterDate, String afterReviewId, int limit) {
+        List<Review> reviews = new ArrayList<>();
+        String sql = "SELECT REVIEW_ID, ID_USER, ID_MOVIE, COMMENT, RATING, DATE_REVIEW FROM REVIEWS WHERE ID_MOVIE = ?"
+                + (afterDate != null ? " AND (DATE_REVIEW < ? OR (DATE_REVIEW = ? AND REVIEW_ID < ?))" : "")
+                + " ORDER BY DATE_REVIEW DESC, REVIEW_ID DESC";
+        try (Connection conn = AppConfig.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, movieId);
+            if (afterDate != null) {
+                pstmt.setTimestamp(2, afterDate);
+                pstmt.setTimestamp(3, afterDate);
+                pstmt.setString(4, afterReviewId);
+            }
+            pstmt.setMaxRows(limit);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                reviews.add(new Review(
+                        rs.getString("REVIEW_ID"),
+                        rs.getString("ID_USER"),
+                        rs.getString("ID_MOVIE"),
+                        rs.getString("COMMENT"),
+                        rs.getInt("RATING"),
+                        rs.getTimestamp("DATE_REVIEW")
+                ));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ SQL Error (getReviewsPage): " + e.getMessage());
+        }
+        return reviews;
+    }
+
+    /**
+     * Retrieves all reviews written by a specific user.
+     *
+     * @param userId the ID of the user
+     * @return a list of Review objects written by the user
+     */
+    public static List<Review> getReviewsByUser(String userId) {
+        List<Review> reviews = new ArrayList<>();
+        String sql = "SELECT * FROM REVIEWS WHERE ID_USER = ?";
+        try (Connection conn = AppConfig.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, userId);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                reviews.add(new Review(
+                        rs.getString("REVIEW_ID"),
+                        rs.getString("ID_USER"),
+                        rs.getString("ID_MOVIE"),
+                        rs.getString("COMMENT"),
+                        rs.getInt("RATING"),
+                        rs.getTimestamp("DATE_REVIEW")
+                ));
+            }
+        } catch (SQLException e) {
+            System.out.println("Failed to retrieve user reviews: " + e.getMessage());
+        }
+        return reviews;
+    }
+
     /**
      * Calculates the average rating for a specific movie.
      *
@@ -107,37 +188,6 @@ public class ReviewDAO {
         return 0.0;
     }
 
-    /**
-     * Checks whether a specific user has already submitted a review for a given
-     * movie. This method queries the REVIEWS table to count the number of
-     * existing reviews by the given user for the specified movie. It returns
-     * true if at least one review exists, false otherwise.
-     * @param userId the ID of the user
-     * @param movieId the ID of the movie
-     * @return true if the user has already reviewed the movie; false otherwise
-     */
-    public static boolean hasUserReviewed(String userId, String movieId) {
-        String sql = "SELECT COUNT(*) FROM REVIEWS WHERE ID_USER = ? AND ID_MOVIE = ?";
-        System.out.println("🔎 Checking if user " + userId + " reviewed movie " + movieId);
-        try (Connection conn = AppConfig.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, userId);
-            stmt.setString(2, movieId);
-            System.out.println("📝 Executing query: " + sql);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                int count = rs.getInt(1);
-                System.out.println("🔢 Found " + count + " reviews for user " + userId + " and movie " + movieId);
-                return count > 0;
-            } else {
-                System.out.println("🔍 No results found for user " + userId + " and movie " + movieId);
-                return false;
-            }
-        } catch (SQLException e) {
-            System.err.println("❌ SQL Error (hasUserReviewed): " + e.getMessage());
-            return false;
-        }
-    }
-
     /**
      * Deletes a specific review submitted by a user for a given movie. This
      * method removes a review from the REVIEWS table based on the user ID and
@@ -157,6 +207,9 @@ public class ReviewDAO {
             stmt.setString(2, movieId);
             int affected = stmt.executeUpdate();
             System.out.println(" Rows affected: " + affected);
+            if (affected > 0) {
+                CatalogVersion.bump(CatalogChangeType.REVIEW, movieId);
+            }
             return affected > 0;
         } catch (SQLException e) {
             System.err.println(" SQL Error (deleteReview): " + e.getMessage());
@@ -180,6 +233,9 @@ public class ReviewDAO {
             stmt.setString(1, reviewId);
             int affected = stmt.executeUpdate();
             System.out.println(" Rows affected: " + affected);
+            if (affected > 0) {
+                CatalogVersion.bump(CatalogChangeType.REVIEW, null);
+            }
             return affected > 0;
         } catch (SQLException e) {
             System.err.println(" SQL Error (deleteReviewById): " + e.getMessage());
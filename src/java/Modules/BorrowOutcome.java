@@ -0,0 +1,17 @@
+package Modules;
+
+/**
+ * Outcome of a borrow, return or loss confirmation attempt.
+ */
+public enum BorrowOutcome {
+    BORROWED, // The borrowing was recorded and a copy was taken
+    RETURNED, // The borrowing was closed and the copy was freed
+    NOT_AVAILABLE, // No free copy and no hold for the user
+    LIMIT_REACHED, // The user already borrows the maximum number of movies
+    ALREADY_BORROWED, // The user currently borrows this movie
+    NOT_BORROWED, // The user has no open borrowing of this movie to return
+    LOSS_CONFIRMED, // A pending loss report was confirmed and the copy written off
+    NOT_PENDING_LOSS, // The borrowing has no pending loss report to confirm
+    NOT_FOUND, // No movie with the given ID exists
+    ERROR // A database error occurred; nothing was changed
+}
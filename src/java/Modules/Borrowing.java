@@ -7,7 +7,7 @@ import java.util.Date;
  * Represents a borrowing transaction in the system.
  *
  * This class stores information about a user's movie borrowing, including the
- * user ID, movie ID, borrowing date, and return date.
+ * user ID, movie ID, borrowing date, due date, and return date.
  */
 public class Borrowing implements Serializable {
 
@@ -17,6 +17,8 @@ public class Borrowing implements Serializable {
     private Date borrowDate;
     private Date returnDate;
     private String status;
+    private Date dueDate; // Date by which the movie should be returned
+    private Date overdueSince; // Time the overdue scan marked the borrowing, or null
 
     /**
      * Constructs a new Borrowing object with the specified details.
@@ -137,4 +139,44 @@ public class Borrowing implements Serializable {
     public void setStatus(String status) {
         this.status = status;
     }
+
+    /**
+     * @return the date by which the movie should be returned
+     */
+    public Date getDueDate() {
+        return dueDate;
+    }
+
+    /**
+     * Sets the due date.
+     *
+     * @param dueDate the date by which the movie should be returned
+     */
+    public void setDueDate(Date dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    /**
+     * @return the time the borrowing was marked overdue, or null if it never
+     *         was
+     */
+    public Date getOverdueSince() {
+        return overdueSince;
+    }
+
+    /**
+     * Sets the time the borrowing was marked overdue.
+     *
+     * @param overdueSince the time, or null
+     */
+    public void setOverdueSince(Date overdueSince) {
+        this.overdueSince = overdueSince;
+    }
+
+    /**
+     * @return true if the borrowing is still open and was marked overdue
+     */
+    public boolean isOverdue() {
+        return returnDate == null && overdueSince != null;
+    }
 }
@@ -0,0 +1,13 @@
+package Modules;
+
+/**
+ * Kind of change recorded in the catalog change log.
+ */
+public enum CatalogChangeType {
+    MOVIE_INSERTED, // A movie was added to the catalog
+    MOVIE_UPDATED, // A movie's details or categories were edited
+    MOVIE_DELETED, // A movie was removed from the catalog
+    AVAILABILITY, // A movie's available or total copies changed
+    CATEGORY, // A category was added, renamed or removed
+    REVIEW // A review of a movie was added or removed
+}
@@ -6,14 +6,15 @@ import java.util.UUID;
 /**
  * Represents a movie category in the system.
  * 
- * Each category has a unique ID, name, description, and an optional poster image.
+ * Each category has a unique ID, name, description, and an optional poster
+ * (stored in the PosterStore and referenced by its hash).
  */
 public class Category implements Serializable {
 
     private String categoryId;
     private String name;
     private String description;
-    private transient byte[] posterImage;
+    private String posterHash; // SHA-256 of the poster in the PosterStore, or null if none
 
     /**
      * Constructs a new Category with a randomly generated ID.
@@ -84,19 +85,20 @@ public class Category implements Serializable {
     }
 
     /**
-     * @return the poster image as byte array
+     * @return the hash of the poster in the PosterStore, or null if the
+     * category has no poster
      */
-    public byte[] getPosterImage() {
-        return posterImage;
+    public String getPosterHash() {
+        return posterHash;
     }
 
     /**
-     * Sets the poster image.
+     * Sets the poster of the category.
      *
-     * @param posterImage the poster image bytes to set
+     * @param posterHash the hash returned by PosterStore.store, or null
      */
-    public void setPosterImage(byte[] posterImage) {
-        this.posterImage = posterImage;
+    public void setPosterHash(String posterHash) {
+        this.posterHash = posterHash;
     }
 
     /**
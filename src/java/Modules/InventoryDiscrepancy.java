@@ -0,0 +1,88 @@
+package Modules;
+
+import java.io.Serializable;
+
+/**
+ * A movie whose stored counts did not match the counts replayed from the
+ * inventory ledger during an inventory recount.
+ */
+public class InventoryDiscrepancy implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String movieId;
+    private final String title;
+    private final int recordedQuantity; // QUANTITY before the recount
+    private final int countedQuantity; // QUANTITY replayed from the ledger
+    private final int recordedAvailable; // COPIES_AVAILABLE before the recount
+    private final int countedAvailable; // COPIES_AVAILABLE replayed from the ledger
+
+    /**
+     * Constructs a discrepancy entry.
+     *
+     * @param movieId the ID of the movie
+     * @param title the title of the movie
+     * @param recordedQuantity the total quantity stored before the recount
+     * @param countedQuantity the total quantity computed by the recount
+     * @param recordedAvailable the available copies stored before the recount
+     * @param countedAvailable the available copies computed by the recount
+     */
+    public InventoryDiscrepancy(String movieId, String title, int recordedQuantity, int countedQuantity,
+            int recordedAvailable, int countedAvailable) {
+        this.movieId = movieId;
+        this.title = title;
+        this.recordedQuantity = recordedQuantity;
+        this.countedQuantity = countedQuantity;
+        this.recordedAvailable = recordedAvailable;
+        this.countedAvailable = countedAvailable;
+    }
+
+    /**
+     * @return the movie ID
+     */
+    public String getMovieId() {
+        return movieId;
+    }
+
+    /**
+     * @return the movie title
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * @return the total quantity stored before the recount
+     */
+    public int getRecordedQuantity() {
+        return recordedQuantity;
+    }
+
+    /**
+     * @return the total quantity computed by the recount
+     */
+    public int getCountedQuantity() {
+        return countedQuantity;
+    }
+
+    /**
+     * @return the correction applied (counted minus recorded)
+     */
+    public int getDifference() {
+        return countedQuantity - recordedQuantity;
+    }
+
+    /**
+     * @return the available copies stored before the recount
+     */
+    public int getRecordedAvailable() {
+        return recordedAvailable;
+    }
+
+    /**
+     * @return the available copies computed by the recount
+     */
+    public int getCountedAvailable() {
+        return countedAvailable;
+    }
+}
@@ -0,0 +1,15 @@
+package Modules;
+
+/**
+ * Kind of change recorded in the INVENTORY_EVENTS ledger.
+ */
+public enum InventoryEventType {
+    CREATED, // A movie was added to the catalog with its initial copies
+    ADDED, // An admin added copies
+    LOST_BY_COMPANY, // Copies were lost by the company
+    LOST_BY_CUSTOMER, // Borrowed copies were lost by customers
+    BORROWED, // A copy was borrowed (from stock or from the user's hold)
+    RETURNED, // A copy was returned (to stock or to a waiting user's hold)
+    HELD, // An available copy was held for a waiting user
+    HOLD_RELEASED // An expired or cancelled hold gave its copy back
+}
@@ -0,0 +1,14 @@
+package Modules;
+
+/**
+ * Outcome of an inventory update on the MOVIES table.
+ *
+ * A delta update is REJECTED when the change would make a count negative or
+ * leave more available copies than total copies.
+ */
+public enum InventoryUpdateResult {
+    UPDATED, // The row was changed
+    REJECTED, // The change would break the inventory constraints
+    NOT_FOUND, // No movie with the given ID exists
+    ERROR // A database error occurred
+}
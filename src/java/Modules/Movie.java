@@ -7,7 +7,8 @@ import java.util.Date;
  * Represents a movie in the system.
  *
  * Each movie has an ID, title, description, quantity information,
- * release date, category names, and an optional poster image.
+ * release date, category names, and an optional poster (stored in the
+ * PosterStore and referenced by its hash).
  */
 public class Movie implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -19,7 +20,8 @@ public class Movie implements Serializable {
     private Integer quantity;
     private Date dateRelease;
     private String categoryNames;
-    private transient byte[] posterImage;
+    private String posterHash; // SHA-256 of the poster in the PosterStore, or null if none
+    private int version; // Row version of the inventory columns, used for compare-and-set updates
 
     /**
      * Default constructor.
@@ -165,17 +167,33 @@ public class Movie implements Serializable {
     }
 
     /**
-     * @return the poster image as a byte array
+     * @return the hash of the poster in the PosterStore, or null if the
+     * movie has no poster
      */
-    public byte[] getPosterImage() {
-        return posterImage;
+    public String getPosterHash() {
+        return posterHash;
     }
 
     /**
-     * Sets the poster image for the movie.
-     * @param posterImage the byte array representing the image
+     * Sets the poster of the movie.
+     * @param posterHash the hash returned by PosterStore.store, or null
      */
-    public void setPosterImage(byte[] posterImage) {
-        this.posterImage = posterImage;
+    public void setPosterHash(String posterHash) {
+        this.posterHash = posterHash;
+    }
+
+    /**
+     * @return the row version read together with the inventory counts
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the row version read together with the inventory counts.
+     * @param version the VERSION column value
+     */
+    public void setVersion(int version) {
+        this.version = version;
     }
 }
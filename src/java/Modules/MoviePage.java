@@ -0,0 +1,38 @@
+package Modules;
+
+import java.util.List;
+
+/**
+ * One page of the movie catalog, plus the keyset position of its last row so
+ * that the next page can continue from it.
+ */
+public class MoviePage {
+
+    private final List<Movie> movies; // Movies of the page, in sort order
+    private final boolean hasMore; // Whether more movies follow this page
+    private final Object lastSortValue; // Sort value of the last movie (may be null)
+    private final String lastMovieId; // Movie ID of the last movie, or null if the page is empty
+
+    public MoviePage(List<Movie> movies, boolean hasMore, Object lastSortValue, String lastMovieId) {
+        this.movies = movies;
+        this.hasMore = hasMore;
+        this.lastSortValue = lastSortValue;
+        this.lastMovieId = lastMovieId;
+    }
+
+    public List<Movie> getMovies() {
+        return movies;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public Object getLastSortValue() {
+        return lastSortValue;
+    }
+
+    public String getLastMovieId() {
+        return lastMovieId;
+    }
+}
@@ -0,0 +1,154 @@
+package Modules;
+
+import java.sql.Date;
+
+/**
+ * Filters, sort order and position of one page of the movie catalog, as
+ * requested through the REST API.
+ *
+ * Pages are addressed by keyset: the sort value and movie ID of the last row
+ * of the previous page (afterValue and afterMovieId). The next page starts
+ * right after that row, so reading page N costs the same as reading page 1
+ * and rows inserted meanwhile never shift or repeat the results.
+ */
+public class MovieQuery {
+
+    /**
+     * Sort keys of the catalog, with the column each one orders by. MOVIE_ID
+     * is always the tie-breaker.
+     */
+    public enum Sort {
+        TITLE("TITLE"),
+        RELEASE("DATE_RELEASE"),
+        AVAILABLE("COPIES_AVAILABLE");
+
+        private final String column; // Column ordered by
+
+        Sort(String column) {
+            this.column = column;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+
+        /**
+         * Parses a sort value written into a cursor back into the column's
+         * type.
+         *
+         * @param value the value as text
+         * @return the typed value
+         * @throws IllegalArgumentException if the text is not a valid value
+         */
+        public Object parseValue(String value) {
+            switch (this) {
+                case RELEASE:
+                    return Date.valueOf(value);
+                case AVAILABLE:
+                    return Integer.valueOf(value);
+                default:
+                    return value;
+            }
+        }
+    }
+
+    private Sort sort = Sort.TITLE; // Sort key
+    private boolean descending; // Whether to sort from high to low
+    private String categoryId; // Only movies in this category, or null for all
+    private Date releasedFrom; // Earliest release date, inclusive, or null
+    private Date releasedTo; // Latest release date, inclusive, or null
+    private boolean availableOnly; // Only movies with copies available
+    private boolean afterSet; // Whether this query continues from a previous page
+    private Object afterValue; // Sort value of the last row of the previous page (may be null)
+    private String afterMovieId; // Movie ID of the last row of the previous page
+    private int limit; // Maximum number of movies in the page
+    private boolean includeDescription; // Whether to read the DESCRIPTION column
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    public void setSort(Sort sort) {
+        this.sort = sort;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public void setDescending(boolean descending) {
+        this.descending = descending;
+    }
+
+    public String getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(String categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public Date getReleasedFrom() {
+        return releasedFrom;
+    }
+
+    public void setReleasedFrom(Date releasedFrom) {
+        this.releasedFrom = releasedFrom;
+    }
+
+    public Date getReleasedTo() {
+        return releasedTo;
+    }
+
+    public void setReleasedTo(Date releasedTo) {
+        this.releasedTo = releasedTo;
+    }
+
+    public boolean isAvailableOnly() {
+        return availableOnly;
+    }
+
+    public void setAvailableOnly(boolean availableOnly) {
+        this.availableOnly = availableOnly;
+    }
+
+    public boolean isAfterSet() {
+        return afterSet;
+    }
+
+    public Object getAfterValue() {
+        return afterValue;
+    }
+
+    public String getAfterMovieId() {
+        return afterMovieId;
+    }
+
+    /**
+     * Continues the query after the last row of a previous page.
+     *
+     * @param afterValue the sort value of that row, or null if it had none
+     * @param afterMovieId the movie ID of that row
+     */
+    public void setAfter(Object afterValue, String afterMovieId) {
+        this.afterSet = true;
+        this.afterValue = afterValue;
+        this.afterMovieId = afterMovieId;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    public boolean isIncludeDescription() {
+        return includeDescription;
+    }
+
+    public void setIncludeDescription(boolean includeDescription) {
+        this.includeDescription = includeDescription;
+    }
+}
@@ -0,0 +1,165 @@
+package Modules;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Represents a user's place in the waitlist of a movie.
+ *
+ * A reservation starts WAITING. When a copy is returned it is assigned to the
+ * oldest waiting reservation, which becomes HELD until its hold expires. A
+ * held reservation ends FULFILLED when the user borrows the copy, EXPIRED when
+ * the hold runs out, or CANCELLED by the user.
+ */
+public class Reservation implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String WAITING = "WAITING";
+    public static final String HELD = "HELD";
+    public static final String FULFILLED = "FULFILLED";
+    public static final String EXPIRED = "EXPIRED";
+    public static final String CANCELLED = "CANCELLED";
+
+    private String reservationId;
+    private String userId;
+    private String movieId;
+    private String movieTitle; // Title of the movie, for display
+    private Date dateReserved;
+    private String status;
+    private Date holdExpires; // End of the hold, only set while HELD
+    private int position; // 1-based place in the waitlist, only set while WAITING
+
+    /**
+     * Constructs an empty Reservation object.
+     */
+    public Reservation() {
+    }
+
+    /**
+     * @return the reservation ID
+     */
+    public String getReservationId() {
+        return reservationId;
+    }
+
+    /**
+     * Sets the reservation ID.
+     * @param reservationId the unique reservation identifier
+     */
+    public void setReservationId(String reservationId) {
+        this.reservationId = reservationId;
+    }
+
+    /**
+     * @return the ID of the user who reserved
+     */
+    public String getUserId() {
+        return userId;
+    }
+
+    /**
+     * Sets the ID of the user who reserved.
+     * @param userId the user ID
+     */
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * @return the ID of the reserved movie
+     */
+    public String getMovieId() {
+        return movieId;
+    }
+
+    /**
+     * Sets the ID of the reserved movie.
+     * @param movieId the movie ID
+     */
+    public void setMovieId(String movieId) {
+        this.movieId = movieId;
+    }
+
+    /**
+     * @return the title of the reserved movie
+     */
+    public String getMovieTitle() {
+        return movieTitle;
+    }
+
+    /**
+     * Sets the title of the reserved movie.
+     * @param movieTitle the movie title
+     */
+    public void setMovieTitle(String movieTitle) {
+        this.movieTitle = movieTitle;
+    }
+
+    /**
+     * @return the time the user joined the waitlist
+     */
+    public Date getDateReserved() {
+        return dateReserved;
+    }
+
+    /**
+     * Sets the time the user joined the waitlist.
+     * @param dateReserved the reservation time
+     */
+    public void setDateReserved(Date dateReserved) {
+        this.dateReserved = dateReserved;
+    }
+
+    /**
+     * @return the reservation status
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Sets the reservation status.
+     * @param status one of the status constants of this class
+     */
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    /**
+     * @return the end of the hold, or null if the reservation is not held
+     */
+    public Date getHoldExpires() {
+        return holdExpires;
+    }
+
+    /**
+     * Sets the end of the hold.
+     * @param holdExpires the hold expiry time
+     */
+    public void setHoldExpires(Date holdExpires) {
+        this.holdExpires = holdExpires;
+    }
+
+    /**
+     * @return the 1-based place in the waitlist
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Sets the place in the waitlist.
+     * @param position the 1-based position
+     */
+    public void setPosition(int position) {
+        this.position = position;
+    }
+
+    /**
+     * @return true if a copy is currently held for the user
+     */
+    public boolean isHeld() {
+        return HELD.equals(status);
+    }
+}
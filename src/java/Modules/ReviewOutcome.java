@@ -0,0 +1,10 @@
+package Modules;
+
+/**
+ * Outcome of submitting a review.
+ */
+public enum ReviewOutcome {
+    ADDED, // The review was stored
+    DUPLICATE, // The user already reviewed this movie (UNIQUE (ID_USER, ID_MOVIE))
+    ERROR // A database error occurred
+}
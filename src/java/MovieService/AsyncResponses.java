@@ -0,0 +1,145 @@
+package MovieService;
+
+import Utils.ApiExecutor;
+import Utils.CatalogVersion;
+import Utils.PosterStore;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+/**
+ * Helpers for resource methods that return CompletionStage&lt;Response&gt;,
+ * so that their blocking work runs on the ApiExecutor instead of the HTTP
+ * request thread.
+ */
+final class AsyncResponses {
+
+    private static final String CACHE_CONTROL = "no-cache"; // Cache, but revalidate with the ETag before every use
+
+    private AsyncResponses() {
+    }
+
+    /**
+     * Runs the blocking part of a request on the ApiExecutor. Anything taken
+     * from the request or the session (UriInfo, UserBean) must be read before
+     * calling this, on the request thread.
+     *
+     * @param work builds the response
+     * @return the pending response; 503 with Retry-After if the API is
+     *         saturated, 500 if the work failed
+     */
+    static CompletionStage<Response> run(Supplier<Response> work) {
+        return ApiExecutor.supply(work).exceptionally(error -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            Map<String, String> body = new LinkedHashMap<>();
+            if (cause instanceof RejectedExecutionException) {
+                body.put("outcome", "BUSY");
+                return Response.status(Response.Status.SERVICE_UNAVAILABLE).header("Retry-After", 1).entity(body).build();
+            }
+            body.put("outcome", "ERROR");
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(body).build();
+        });
+    }
+
+    /**
+     * Runs a read of catalog data like run, with HTTP validators taken from
+     * the catalog version. If the client's If-None-Match holds the current
+     * ETag the answer is 304 at once, without touching the database;
+     * otherwise a successful response gets the ETag, Last-Modified and a
+     * Cache-Control that makes clients revalidate on every use.
+     *
+     * The tag is weak: the GzipWriterInterceptor may send the same version
+     * compressed or not, and the two bodies are equivalent but not identical
+     * byte for byte.
+     *
+     * The version is read before the work runs, so the tag is never newer
+     * than the data; a change that commits in between only makes the next
+     * poll fetch again.
+     *
+     * @param ifNoneMatch the If-None-Match header, or null
+     * @param work builds the response
+     * @return the pending response
+     */
+    static CompletionStage<Response> runConditional(String ifNoneMatch, Supplier<Response> work) {
+        CatalogVersion.State version = CatalogVersion.current();
+        EntityTag tag = new EntityTag(version.getETag(), true);
+        Date lastModified = new Date(version.getLastModified());
+        if (matches(ifNoneMatch, version.getETag())) {
+            return done(Response.notModified(tag).lastModified(lastModified).header("Cache-Control", CACHE_CONTROL).build());
+        }
+        return run(work).thenApply(response -> response.getStatus() != Response.Status.OK.getStatusCode() ? response
+                : Response.fromResponse(response).tag(tag).lastModified(lastModified).header("Cache-Control", CACHE_CONTROL).build());
+    }
+
+    /**
+     * Serves a poster from the PosterStore like run. A hash always names the
+     * same bytes, so the hash is the ETag and the response carries the same
+     * immutable Cache-Control as PosterServlet; a matching If-None-Match is
+     * answered with 304 without reading the file.
+     *
+     * @param ifNoneMatch the If-None-Match header, or null
+     * @param hashLookup finds the hash of the poster, or null if there is none
+     * @return the pending response; 404 if there is no poster
+     */
+    static CompletionStage<Response> runPoster(String ifNoneMatch, Supplier<String> hashLookup) {
+        return run(() -> {
+            String hash = hashLookup.get();
+            Path file = PosterStore.resolve(hash);
+            if (file == null) {
+                return Response.status(Response.Status.NOT_FOUND).build();
+            }
+            EntityTag tag = new EntityTag(hash);
+            if (matches(ifNoneMatch, hash)) {
+                return Response.notModified(tag).header("Cache-Control", PosterStore.CACHE_CONTROL).build();
+            }
+            return Response.ok((StreamingOutput) out -> PosterStore.transferTo(file, out), PosterStore.contentType(file))
+                    .tag(tag).header("Cache-Control", PosterStore.CACHE_CONTROL).build();
+        });
+    }
+
+    /**
+     * Wraps a response that was decided without blocking work.
+     *
+     * @param response the response
+     * @return an already completed stage
+     */
+    static CompletionStage<Response> done(Response response) {
+        return CompletableFuture.completedFuture(response);
+    }
+
+    /**
+     * Checks whether an If-None-Match header lists an entity tag. Weak tags
+     * match too, as If-None-Match uses weak comparison.
+     *
+     * @param ifNoneMatch the header value, or null
+     * @param etag the current tag value (without quotes)
+     * @return true if the client already has the current representation
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                value = value.substring(1, value.length() - 1);
+            }
+            if (value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
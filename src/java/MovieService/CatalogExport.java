@@ -0,0 +1,191 @@
+package MovieService;
+
+import DAO.MovieDAO;
+import Modules.Movie;
+import Utils.ApiExecutor;
+import config.AppConfig;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Set;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+/**
+ * Writes the whole catalog to a response as it is read from the database.
+ *
+ * Each row is written as soon as it leaves the ResultSet and only the movie
+ * being written is held in memory, so heap usage does not depend on the size
+ * of the catalog. The output is either one JSON array or NDJSON (one JSON
+ * object per line). Posters are written as URLs, never as bytes.
+ *
+ * The export holds a database connection for the whole response, so it takes
+ * an ApiExecutor permit like every other request; when none is free the
+ * client gets 503 with Retry-After before any of the body is written.
+ */
+class CatalogExport implements StreamingOutput {
+
+    private final boolean ndjson; // NDJSON instead of a JSON array
+    private final Set<String> fields; // Movie fields to write
+    private final URI baseUri; // Base URI of the API, for poster links
+
+    /**
+     * @param ndjson whether to write NDJSON instead of a JSON array
+     * @param fields the movie fields to write
+     * @param baseUri the base URI of the API
+     */
+    CatalogExport(boolean ndjson, Set<String> fields, URI baseUri) {
+        this.ndjson = ndjson;
+        this.fields = fields;
+        this.baseUri = baseUri;
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        if (!ApiExecutor.tryAcquire()) {
+            throw new WebApplicationException(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", 1).entity(Map.of("outcome", "BUSY")).build());
+        }
+        try {
+            writeCatalog(output);
+        } finally {
+            ApiExecutor.release();
+        }
+    }
+
+    /**
+     * Writes the export while holding the API permit.
+     *
+     * @param output the response stream
+     * @throws IOException if writing or reading the catalog fails
+     */
+    private void writeCatalog(OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        if (!ndjson) {
+            writer.write('[');
+        }
+        boolean[] first = {true};
+        try {
+            int count = MovieDAO.streamMovies(AppConfig.getApiExportFetchSize(), fields.contains("description"), movie -> {
+                if (ndjson) {
+                    writeMovie(writer, movie);
+                    writer.write('\n');
+                } else {
+                    if (!first[0]) {
+                        writer.write(',');
+                    }
+                    writeMovie(writer, movie);
+                }
+                first[0] = false;
+            });
+            System.out.println("📤 Catalog export: " + count + " movies streamed.");
+        } catch (SQLException e) {
+            // The response is already partly sent, so the client sees a truncated body
+            System.err.println("❌ SQL Error (catalog export): " + e.getMessage());
+            throw new IOException("Catalog export failed", e);
+        }
+        if (!ndjson) {
+            writer.write(']');
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes one movie as a JSON object with the selected fields.
+     *
+     * @param writer the response writer
+     * @param movie the movie
+     * @throws IOException if writing fails
+     */
+    private void writeMovie(Writer writer, Movie movie) throws IOException {
+        writer.write('{');
+        boolean firstField = true;
+        for (String field : fields) {
+            if (!firstField) {
+                writer.write(',');
+            }
+            firstField = false;
+            writeString(writer, field);
+            writer.write(':');
+            switch (field) {
+                case "id":
+                    writeString(writer, movie.getMovieId());
+                    break;
+                case "title":
+                    writeString(writer, movie.getTitle());
+                    break;
+                case "description":
+                    writeString(writer, movie.getDescription());
+                    break;
+                case "categories":
+                    writeString(writer, movie.getCategoryNames() != null ? movie.getCategoryNames() : "No Category");
+                    break;
+                case "copiesAvailable":
+                    writer.write(String.valueOf(movie.getCopiesAvailable()));
+                    break;
+                case "quantity":
+                    writer.write(String.valueOf(movie.getQuantity()));
+                    break;
+                case "dateRelease":
+                    writeString(writer, movie.getDateRelease() != null ? new java.sql.Date(movie.getDateRelease().getTime()).toString() : null);
+                    break;
+                case "posterUrl":
+                    writeString(writer, baseUri.resolve("movies/" + movie.getMovieId() + "/poster").toString());
+                    break;
+                default:
+                    writer.write("null");
+                    break;
+            }
+        }
+        writer.write('}');
+    }
+
+    /**
+     * Writes a JSON string literal, or null.
+     *
+     * @param writer the response writer
+     * @param value the string
+     * @throws IOException if writing fails
+     */
+    private static void writeString(Writer writer, String value) throws IOException {
+        if (value == null) {
+            writer.write("null");
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+            }
+        }
+        writer.write('"');
+    }
+}
@@ -0,0 +1,78 @@
+package MovieService;
+
+import DAO.CategoryDAO;
+import Modules.Category;
+import Utils.CategoryRegistry;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+
+/**
+ * RESTful Web Service that provides access to movie categories.
+ *
+ * Endpoints (category IDs can be passed to /api/movies?category=ID):
+ * http://localhost:8080/almoviland/api/categories
+ * http://localhost:8080/almoviland/api/categories/{id}/poster
+ */
+@Path("/categories")
+public class CategoryRestService {
+
+    @Context
+    private UriInfo uriInfo; // Base URI of the API, for poster links
+
+    /**
+     * Retrieves all categories. Posters are linked, not embedded.
+     *
+     * @param ifNoneMatch the ETags the client already has, if any
+     * @return a list of categories in JSON format, or 500 if they cannot be
+     * read
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public CompletionStage<Response> getCategories(@HeaderParam("If-None-Match") String ifNoneMatch) {
+        URI baseUri = uriInfo.getBaseUri();
+        return AsyncResponses.runConditional(ifNoneMatch, () -> {
+            List<Category> loaded = CategoryDAO.getAllCategoriesWithoutPosters();
+            if (loaded == null) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
+            }
+            List<Map<String, Object>> categories = new ArrayList<>();
+            for (Category category : loaded) {
+                Map<String, Object> json = new LinkedHashMap<>();
+                json.put("id", category.getCategoryId());
+                json.put("name", category.getName());
+                json.put("description", category.getDescription());
+                json.put("posterUrl", baseUri.resolve("categories/" + category.getCategoryId() + "/poster").toString());
+                categories.add(json);
+            }
+            return Response.ok(categories).build();
+        });
+    }
+
+    /**
+     * Retrieves the poster image of a category.
+     *
+     * @param categoryId the ID of the category
+     * @param ifNoneMatch the ETags the client already has, if any
+     * @return the image, streamed from the poster store, or 404 if the category
+     * has no poster
+     */
+    @GET
+    @Path("/{id}/poster")
+    @Produces("image/*")
+    public CompletionStage<Response> getPoster(@PathParam("id") String categoryId, @HeaderParam("If-None-Match") String ifNoneMatch) {
+        return AsyncResponses.runPoster(ifNoneMatch, () -> CategoryRegistry.getPosterHash(categoryId));
+    }
+}
@@ -0,0 +1,43 @@
+package MovieService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes the keyset position of a page into the opaque cursor strings that
+ * the REST API hands out, and decodes them again. A cursor is the URL-safe
+ * Base64 of its parts joined by newlines; clients only pass it back.
+ */
+final class Cursors {
+
+    private Cursors() {
+    }
+
+    /**
+     * Encodes the parts of a position into a cursor.
+     *
+     * @param parts the parts; only the last one may contain a newline
+     * @return the cursor
+     */
+    static String encode(String... parts) {
+        String joined = String.join("\n", parts);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor into its parts.
+     *
+     * @param cursor the cursor received from a client
+     * @param count the expected number of parts
+     * @return the parts, or null if the cursor is malformed
+     */
+    static String[] decode(String cursor, int count) {
+        try {
+            String joined = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = joined.split("\n", count);
+            return parts.length == count ? parts : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
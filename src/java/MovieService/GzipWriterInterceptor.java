@@ -0,0 +1,62 @@
+package MovieService;
+
+import Utils.CompressingOutputStream;
+import java.io.IOException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+/**
+ * Gzip-compresses JSON and NDJSON response bodies of the REST API for
+ * clients that accept it, once a body exceeds the configured size.
+ *
+ * Working as a writer interceptor rather than a servlet filter means it also
+ * covers asynchronous responses, which are written after the request thread
+ * has returned, and streamed exports. Other types (posters are already
+ * compressed, and server-sent events must not be buffered) pass through.
+ */
+@Provider
+public class GzipWriterInterceptor implements WriterInterceptor {
+
+    @Context
+    private HttpHeaders requestHeaders; // Headers of the request being answered
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        MediaType type = context.getMediaType();
+        if (type == null || !isJson(type)) {
+            context.proceed();
+            return;
+        }
+        context.getHeaders().add("Vary", "Accept-Encoding");
+        if (!CompressingOutputStream.acceptsGzip(requestHeaders.getHeaderString("Accept-Encoding"))
+                || context.getHeaders().containsKey("Content-Encoding")) {
+            context.proceed();
+            return;
+        }
+        CompressingOutputStream body = new CompressingOutputStream(context.getOutputStream(), () -> {
+            context.getHeaders().remove("Content-Length");
+            context.getHeaders().putSingle("Content-Encoding", "gzip");
+            return true;
+        });
+        context.setOutputStream(body);
+        try {
+            context.proceed();
+            body.finish();
+        } finally {
+            body.release();
+        }
+    }
+
+    /**
+     * @param type the media type of the body
+     * @return true for JSON and newline-delimited JSON
+     */
+    private boolean isJson(MediaType type) {
+        String subtype = type.getSubtype().toLowerCase();
+        return subtype.equals("json") || subtype.endsWith("+json") || subtype.equals("x-ndjson");
+    }
+}
@@ -0,0 +1,141 @@
+package MovieService;
+
+import Bean.UserBean;
+import Modules.User;
+import Utils.ApiExecutor;
+import Utils.AvailabilityBroadcaster;
+import Utils.MovieLockRegistry;
+import Utils.RateLimiter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * RESTful Web Service that exposes runtime counters for monitoring. Like the
+ * admin pages, it is restricted to logged-in ADMIN users.
+ *
+ * Endpoints:
+ * http://localhost:8080/almoviland/api/metrics/rate-limits
+ * http://localhost:8080/almoviland/api/metrics/movie-locks
+ * http://localhost:8080/almoviland/api/metrics/api-executor
+ * http://localhost:8080/almoviland/api/metrics/live-availability
+ */
+@Path("/metrics")
+public class MetricsRestService {
+
+    @Inject
+    private UserBean userBean; // Session user, who must be an admin
+
+    /**
+     * Retrieves the allowed and rejected request counts of every rate-limited
+     * action, plus the number of buckets held in memory.
+     *
+     * @return the rate limiter counters in JSON format, or 401/403 if the
+     * caller is not an admin
+     */
+    @GET
+    @Path("/rate-limits")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getRateLimits() {
+        Response denied = checkAdmin();
+        if (denied != null) {
+            return denied;
+        }
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("actions", RateLimiter.getStats());
+        metrics.put("buckets", RateLimiter.getBucketCount());
+        metrics.put("evicted", RateLimiter.getEvictedCount());
+        return Response.ok(metrics).build();
+    }
+
+    /**
+     * Retrieves the load of the REST executor: requests using the database,
+     * requests waiting for a permit and requests rejected as saturated.
+     *
+     * @return the executor counters in JSON format, or 401/403 if the caller
+     * is not an admin
+     */
+    @GET
+    @Path("/api-executor")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getApiExecutor() {
+        Response denied = checkAdmin();
+        if (denied != null) {
+            return denied;
+        }
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("virtualThreads", ApiExecutor.isVirtual());
+        metrics.put("active", ApiExecutor.getActiveCount());
+        metrics.put("waiting", ApiExecutor.getWaitingCount());
+        metrics.put("rejected", ApiExecutor.getRejectedCount());
+        return Response.ok(metrics).build();
+    }
+
+    /**
+     * Retrieves the number of open live availability streams and the number
+     * of events dropped for subscribers that could not keep up.
+     *
+     * @return the broadcaster counters in JSON format, or 401/403 if the
+     * caller is not an admin
+     */
+    @GET
+    @Path("/live-availability")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getLiveAvailability() {
+        Response denied = checkAdmin();
+        if (denied != null) {
+            return denied;
+        }
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("subscribers", AvailabilityBroadcaster.getSubscriberCount());
+        metrics.put("dropped", AvailabilityBroadcaster.getDroppedCount());
+        return Response.ok(metrics).build();
+    }
+
+    /**
+     * Retrieves the contention counters of every movie lock stripe that has
+     * been used.
+     *
+     * @return the stripe statistics in JSON format, or 401/403 if the caller
+     * is not an admin
+     */
+    @GET
+    @Path("/movie-locks")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getMovieLocks() {
+        Response denied = checkAdmin();
+        if (denied != null) {
+            return denied;
+        }
+        List<MovieLockRegistry.StripeStats> stats = MovieLockRegistry.getStripeStats();
+        return Response.ok(stats).build();
+    }
+
+    /**
+     * @return 401 if no user is logged in, 403 if the user is not an admin,
+     * or null if the request may proceed
+     */
+    private Response checkAdmin() {
+        User user = userBean.getLoggedInUser();
+        if (user == null) {
+            return outcomeResponse(Response.Status.UNAUTHORIZED, "LOGIN_REQUIRED");
+        }
+        if (!"ADMIN".equals(user.getRole())) {
+            System.out.println("⛔ Access Denied: Only ADMIN users can read metrics.");
+            return outcomeResponse(Response.Status.FORBIDDEN, "ADMIN_REQUIRED");
+        }
+        return null;
+    }
+
+    private Response outcomeResponse(Response.Status status, String outcome) {
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put("outcome", outcome);
+        return Response.status(status).entity(body).build();
+    }
+}
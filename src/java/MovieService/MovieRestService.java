@@ -1,30 +1,635 @@
 package MovieService;
 
+import Bean.UserBean;
+import Modules.BorrowOutcome;
+import Modules.Borrowing;
+import Modules.CatalogChangeType;
 import Modules.Movie;
+import Modules.MoviePage;
+import Modules.MovieQuery;
+import Modules.Review;
+import Modules.ReviewOutcome;
+import Modules.User;
 import DAO.MovieDAO;
+import DAO.ReviewDAO;
+import Utils.AvailabilityBroadcaster;
+import Utils.CatalogChangeLog;
+import Utils.CatalogVersion;
+import Utils.IdempotencyStore;
+import Utils.LendingService;
+import Utils.RateLimiter;
+import Utils.TrendingTracker;
+import config.AppConfig;
+import java.net.URI;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.FormParam;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
 
 /**
  * RESTful Web Service that provides access to movie data.
  *
- * Responds with a list of all movies in JSON format. Endpoint:
- * http://localhost:8080/almoviland/api/movies
+ * Read endpoints (the catalog is paginated with an opaque cursor; fields=
+ * selects the movie fields returned):
+ * http://localhost:8080/almoviland/api/movies?limit=20&sort=-release&category=ID&releasedFrom=2020-01-01&available=true&fields=id,title
+ * http://localhost:8080/almoviland/api/movies?cursor=NEXT_CURSOR
+ * http://localhost:8080/almoviland/api/movies/export?format=ndjson&fields=id,title
+ * http://localhost:8080/almoviland/api/movies/changes?since=VERSION_TOKEN
+ * http://localhost:8080/almoviland/api/movies/availability (server-sent events)
+ * http://localhost:8080/almoviland/api/movies/{id}
+ * http://localhost:8080/almoviland/api/movies/{id}/poster
+ * http://localhost:8080/almoviland/api/movies/{id}/reviews?limit=20&cursor=NEXT_CURSOR
+ * http://localhost:8080/almoviland/api/movies/trending?limit=10
+ *
+ * State-changing endpoints act for the logged-in session user and accept an
+ * optional Idempotency-Key header; retrying a request with the same key
+ * returns the first outcome instead of acting twice:
+ * POST http://localhost:8080/almoviland/api/movies/{id}/borrow
+ * POST http://localhost:8080/almoviland/api/movies/{id}/return
+ * POST http://localhost:8080/almoviland/api/movies/{id}/reviews (rating, comment)
+ *
+ * Borrows and reviews are rate limited per user; a throttled request gets
+ * 429 Too Many Requests with a Retry-After header.
+ *
+ * Catalog reads carry a weak ETag derived from the catalog version that
+ * every DAO write bumps; a poll with a matching If-None-Match gets 304 Not
+ * Modified without a database query. The same tag is the version token of
+ * delta sync: /changes?since= returns only the movies changed after it.
+ *
+ * Database work runs off the HTTP request thread on the ApiExecutor, so
+ * endpoints return a CompletionStage; when too many requests are already
+ * using the database the response is 503 Service Unavailable. Session state
+ * (the logged-in user) and the request URI are read before handing off.
  */
 @Path("/movies")
 public class MovieRestService {
 
+    private static final Set<String> MOVIE_FIELDS = new LinkedHashSet<>(Arrays.asList(
+            "id", "title", "description", "categories", "copiesAvailable", "quantity", "dateRelease", "posterUrl")); // Fields a client may select
+    private static final Set<String> DEFAULT_LIST_FIELDS = new LinkedHashSet<>(Arrays.asList(
+            "id", "title", "categories", "copiesAvailable", "dateRelease", "posterUrl")); // Catalog page fields when none are selected
+
+    @Inject
+    private UserBean userBean; // Session user on whose behalf borrow, return and review requests act
+    @Context
+    private UriInfo uriInfo; // Base URI of the API, for poster links
+
+    /**
+     * Retrieves one page of the catalog. Pages are addressed by an opaque
+     * cursor (keyset pagination), so deep pages are as cheap as the first
+     * and concurrent inserts never shift the results. Posters are never
+     * embedded; each movie links to its poster instead.
+     *
+     * @param limit the maximum number of movies (default and maximum from
+     * AppConfig)
+     * @param cursor the nextCursor of the previous page, or absent for the
+     * first page
+     * @param sort title, release or available; prefix with "-" to sort from
+     * high to low
+     * @param categoryId only movies in this category
+     * @param releasedFrom earliest release date (yyyy-MM-dd), inclusive
+     * @param releasedTo latest release date (yyyy-MM-dd), inclusive
+     * @param available only movies with copies available
+     * @param fields comma-separated fields to include (see MOVIE_FIELDS)
+     * @param ifNoneMatch the ETags the client already has, if any
+     * @return the page as JSON: {"items": [...], "nextCursor": ...}
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public CompletionStage<Response> getMovies(@QueryParam("limit") Integer limit, @QueryParam("cursor") String cursor,
+            @QueryParam("sort") @DefaultValue("title") String sort, @QueryParam("category") String categoryId,
+            @QueryParam("releasedFrom") String releasedFrom, @QueryParam("releasedTo") String releasedTo,
+            @QueryParam("available") @DefaultValue("false") boolean available, @QueryParam("fields") String fields,
+            @HeaderParam("If-None-Match") String ifNoneMatch) {
+        Set<String> projection = parseFields(fields, DEFAULT_LIST_FIELDS);
+        if (projection == null) {
+            return AsyncResponses.done(outcomeResponse(Response.Status.BAD_REQUEST, "INVALID_FIELDS"));
+        }
+        MovieQuery query = new MovieQuery();
+        boolean descending = sort.startsWith("-");
+        try {
+            query.setSort(MovieQuery.Sort.valueOf((descending ? sort.substring(1) : sort).toUpperCase()));
+            query.setReleasedFrom(releasedFrom != null ? java.sql.Date.valueOf(releasedFrom) : null);
+            query.setReleasedTo(releasedTo != null ? java.sql.Date.valueOf(releasedTo) : null);
+        } catch (IllegalArgumentException e) {
+            return AsyncResponses.done(outcomeResponse(Response.Status.BAD_REQUEST, "INVALID_PARAMETER"));
+        }
+        query.setDescending(descending);
+        query.setCategoryId(categoryId);
+        query.setAvailableOnly(available);
+        query.setLimit(pageSize(limit));
+        query.setIncludeDescription(projection.contains("description"));
+        if (cursor != null) {
+            // A cursor is only valid for the sort order it was issued for
+            String[] parts = Cursors.decode(cursor, 3);
+            if (parts == null || !parts[0].equals(sort) || parts[2].isEmpty()) {
+                return AsyncResponses.done(outcomeResponse(Response.Status.BAD_REQUEST, "INVALID_CURSOR"));
+            }
+            try {
+                query.setAfter(parts[2].startsWith("1") ? query.getSort().parseValue(parts[2].substring(1)) : null, parts[1]);
+            } catch (IllegalArgumentException e) {
+                return AsyncResponses.done(outcomeResponse(Response.Status.BAD_REQUEST, "INVALID_CURSOR"));
+            }
+        }
+        URI baseUri = uriInfo.getBaseUri();
+        return AsyncResponses.runConditional(ifNoneMatch, () -> {
+            MoviePage page = MovieDAO.findMovies(query);
+            if (page == null) {
+                return outcomeResponse(Response.Status.INTERNAL_SERVER_ERROR, "ERROR");
+            }
+            List<Map<String, Object>> items = new ArrayList<>();
+            for (Movie movie : page.getMovies()) {
+                items.add(project(movie, projection, baseUri));
+            }
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("items", items);
+            body.put("nextCursor", page.isHasMore()
+                    ? Cursors.encode(sort, page.getLastMovieId(), page.getLastSortValue() != null ? "1" + page.getLastSortValue() : "0")
+                    : null);
+            return Response.ok(body).build();
+        });
+    }
+
+    /**
+     * Exports the whole catalog, streamed straight from the database so that
+     * memory use stays constant however large the catalog is.
+     *
+     * @param format json for one JSON array, ndjson for one movie per line
+     * @param fields comma-separated fields to include (all by default;
+     * posters are always URLs)
+     * @return the streamed export; 503 with Retry-After if the API is
+     *         saturated
+     */
+    @GET
+    @Path("/export")
+    @Produces({MediaType.APPLICATION_JSON, "application/x-ndjson"})
+    public Response exportMovies(@QueryParam("format") @DefaultValue("json") String format, @QueryParam("fields") String fields) {
+        Set<String> projection = parseFields(fields, MOVIE_FIELDS);
+        if (projection == null) {
+            return outcomeResponse(Response.Status.BAD_REQUEST, "INVALID_FIELDS");
+        }
+        if (!format.equals("json") && !format.equals("ndjson")) {
+            return outcomeResponse(Response.Status.BAD_REQUEST, "INVALID_FORMAT");
+        }
+        boolean ndjson = format.equals("ndjson");
+        return Response.ok(new CatalogExport(ndjson, projection, uriInfo.getBaseUri()),
+                ndjson ? "application/x-ndjson" : MediaType.APPLICATION_JSON).build();
+    }
+
+    /**
+     * Returns what changed in the catalog since a version token (an ETag of
+     * this API), so a client can keep a local copy current without paging
+     * through the whole catalog again. Movies whose details changed are sent
+     * in full (catalog page fields); movies whose only change was to their
+     * copies are sent as compact [id, copiesAvailable, quantity] tuples.
+     * Reviews are not part of the delta. When the token is older than the
+     * change log, from before a restart, or a category changed, the response
+     * asks the client to resync with a full catalog fetch instead.
+     *
+     * @param since the version token the client holds
+     * @return the delta as JSON: {"version", "resync", "upserted",
+     * "availability", "deleted"}; version is the token to send next time
+     */
+    @GET
+    @Path("/changes")
+    @Produces(MediaType.APPLICATION_JSON)
+    public CompletionStage<Response> getChanges(@QueryParam("since") String since) {
+        CatalogVersion.State current = CatalogVersion.current();
+        CatalogChangeLog.Delta delta = CatalogChangeLog.since(CatalogVersion.parseToken(since), current.getVersion());
+        if (delta == null || delta.isCategoriesChanged()) {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("version", current.getETag());
+            body.put("resync", true);
+            return AsyncResponses.done(Response.ok(body).build());
+        }
+        URI baseUri = uriInfo.getBaseUri();
+        return AsyncResponses.run(() -> {
+            List<String> changedIds = new ArrayList<>();
+            List<String> deleted = new ArrayList<>();
+            for (Map.Entry<String, CatalogChangeType> entry : delta.getMovies().entrySet()) {
+                if (entry.getValue() == CatalogChangeType.MOVIE_DELETED) {
+                    deleted.add(entry.getKey());
+                } else {
+                    changedIds.add(entry.getKey());
+                }
+            }
+            List<Movie> movies = MovieDAO.getMoviesByIds(changedIds);
+            if (movies == null) {
+                return outcomeResponse(Response.Status.INTERNAL_SERVER_ERROR, "ERROR");
+            }
+            Set<String> missing = new LinkedHashSet<>(changedIds);
+            List<Map<String, Object>> upserted = new ArrayList<>();
+            List<Object[]> availability = new ArrayList<>();
+            for (Movie movie : movies) {
+                missing.remove(movie.getMovieId());
+                if (delta.getMovies().get(movie.getMovieId()) == CatalogChangeType.AVAILABILITY) {
+                    availability.add(new Object[]{movie.getMovieId(), movie.getCopiesAvailable(), movie.getQuantity()});
+                } else {
+                    upserted.add(project(movie, DEFAULT_LIST_FIELDS, baseUri));
+                }
+            }
+            deleted.addAll(missing); // Deleted after the change was logged
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("version", CatalogVersion.token(delta.getVersion()));
+            body.put("resync", false);
+            body.put("upserted", upserted);
+            body.put("availability", availability);
+            body.put("deleted", deleted);
+            return Response.ok(body).build();
+        });
+    }
+
+    /**
+     * Opens a live stream (server-sent events) of availability changes. Each
+     * "availability" event carries a JSON array of
+     * [id, copiesAvailable, quantity] tuples for the movies whose copies
+     * changed since the previous event; its event ID is the catalog version
+     * token, usable with /changes after a reconnect.
+     *
+     * @param sink the event sink of the request
+     * @param sse the SSE context
+     */
+    @GET
+    @Path("/availability")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void streamAvailability(@Context SseEventSink sink, @Context Sse sse) {
+        if (!AvailabilityBroadcaster.subscribe(sink, sse)) {
+            sink.close(); // Too many open streams; the browser retries after its reconnect delay
+        }
+    }
+
+    /**
+     * Retrieves a single movie.
+     *
+     * @param movieId the ID of the movie
+     * @param fields comma-separated fields to include (all by default)
+     * @param ifNoneMatch the ETags the client already has, if any
+     * @return the movie as JSON, or 404 if it does not exist
+     */
+    @GET
+    @Path("/{id}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public CompletionStage<Response> getMovie(@PathParam("id") String movieId, @QueryParam("fields") String fields, @HeaderParam("If-None-Match") String ifNoneMatch) {
+        Set<String> projection = parseFields(fields, MOVIE_FIELDS);
+        if (projection == null) {
+            return AsyncResponses.done(outcomeResponse(Response.Status.BAD_REQUEST, "INVALID_FIELDS"));
+        }
+        URI baseUri = uriInfo.getBaseUri();
+        return AsyncResponses.runConditional(ifNoneMatch, () -> {
+            Movie movie = MovieDAO.getMovieById(movieId);
+            if (movie == null) {
+                return outcomeResponse(Response.Status.NOT_FOUND, "NOT_FOUND");
+            }
+            return Response.ok(project(movie, projection, baseUri)).build();
+        });
+    }
+
+    /**
+     * Retrieves the poster image of a movie.
+     *
+     * @param movieId the ID of the movie
+     * @param ifNoneMatch the ETags the client already has, if any
+     * @return the image, streamed from the poster store, or 404 if the movie
+     * has no poster
+     */
+    @GET
+    @Path("/{id}/poster")
+    @Produces("image/*")
+    public CompletionStage<Response> getPoster(@PathParam("id") String movieId, @HeaderParam("If-None-Match") String ifNoneMatch) {
+        return AsyncResponses.runPoster(ifNoneMatch, () -> MovieDAO.getPosterHash(movieId));
+    }
+
+    /**
+     * Retrieves one page of a movie's reviews, newest first.
+     *
+     * @param movieId the ID of the movie
+     * @param limit the maximum number of reviews
+     * @param cursor the nextCursor of the previous page, or absent for the
+     * first page
+     * @param ifNoneMatch the ETags the client already has, if any
+     * @return the page as JSON: {"items": [...], "nextCursor": ...}, where
+     * nextCursor is null on the last page
+     */
+    @GET
+    @Path("/{id}/reviews")
+    @Produces(MediaType.APPLICATION_JSON)
+    public CompletionStage<Response> getReviews(@PathParam("id") String movieId, @QueryParam("limit") Integer limit,
+            @QueryParam("cursor") String cursor, @HeaderParam("If-None-Match") String ifNoneMatch) {
+        String[] parts = cursor != null ? Cursors.decode(cursor, 2) : null;
+        Timestamp afterDate;
+        try {
+            afterDate = parts != null ? Timestamp.valueOf(parts[0]) : null;
+        } catch (IllegalArgumentException e) {
+            afterDate = null;
+        }
+        if (cursor != null && afterDate == null) {
+            return AsyncResponses.done(outcomeResponse(Response.Status.BAD_REQUEST, "INVALID_CURSOR"));
+        }
+        Timestamp fromDate = afterDate;
+        String fromReviewId = parts != null ? parts[1] : null;
+        return AsyncResponses.runConditional(ifNoneMatch, () -> {
+            int size = pageSize(limit);
+            List<Review> reviews = ReviewDAO.getReviewsPage(movieId, fromDate, fromReviewId, size + 1); // One extra row tells whether more follow
+            boolean hasMore = reviews.size() > size;
+            if (hasMore) {
+                reviews = reviews.subList(0, size);
+            }
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("items", reviews);
+            Review last = hasMore ? reviews.get(size - 1) : null;
+            body.put("nextCursor", last != null ? Cursors.encode(last.getDateReview().toString(), last.getReviewId()) : null);
+            return Response.ok(body).build();
+        });
+    }
+
     /**
-     * Retrieves a list of all movies from the database.
+     * Retrieves the movies currently trending by recent borrow activity, best
+     * first. The movies are read with one bulk query and put back in rank
+     * order.
      *
-     * @return a list of Movie objects in JSON format
+     * @param limit the maximum number of movies to return
+     * @return the list of trending Movie objects in JSON format, or 500 if
+     * they cannot be read
      */
     @GET
+    @Path("/trending")
     @Produces(MediaType.APPLICATION_JSON)
-    public List<Movie> getMovies() {
-        return MovieDAO.getAllMovies();
+    public CompletionStage<Response> getTrendingMovies(@QueryParam("limit") @DefaultValue("10") int limit) {
+        return AsyncResponses.run(() -> {
+            List<String> topIds = TrendingTracker.getTopMovieIds(Math.min(limit, AppConfig.getTrendingMaxRanked()));
+            List<Movie> found = MovieDAO.getMoviesByIds(topIds);
+            if (found == null) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
+            }
+            Map<String, Movie> byId = new HashMap<>();
+            for (Movie movie : found) {
+                byId.put(movie.getMovieId(), movie);
+            }
+            List<Movie> trending = new ArrayList<>();
+            for (String movieId : topIds) {
+                Movie movie = byId.get(movieId);
+                if (movie != null) {
+                    trending.add(movie);
+                }
+            }
+            return Response.ok(trending).build();
+        });
+    }
+
+    /**
+     * Borrows a movie for the logged-in user.
+     *
+     * @param movieId the ID of the movie
+     * @param idempotencyKey optional client key identifying this request
+     * @return the outcome of the borrow as JSON
+     */
+    @POST
+    @Path("/{id}/borrow")
+    @Produces(MediaType.APPLICATION_JSON)
+    public CompletionStage<Response> borrowMovie(@PathParam("id") String movieId, @HeaderParam("Idempotency-Key") String idempotencyKey) {
+        User user = userBean.getLoggedInUser();
+        if (user == null) {
+            return AsyncResponses.done(outcomeResponse(Response.Status.UNAUTHORIZED, "LOGIN_REQUIRED"));
+        }
+        long retryMillis = RateLimiter.tryAcquire(RateLimiter.Action.BORROW, userBean.getRateLimitSubject());
+        if (retryMillis > 0) {
+            return AsyncResponses.done(rateLimitedResponse(retryMillis));
+        }
+        return AsyncResponses.run(() -> {
+            if (MovieDAO.getMovieById(movieId) == null) {
+                return outcomeResponse(Response.Status.NOT_FOUND, BorrowOutcome.NOT_FOUND.name());
+            }
+            Borrowing borrowing = new Borrowing(UUID.randomUUID().toString(), user.getUserId(), movieId, new Date(), null);
+            BorrowOutcome outcome = IdempotencyStore.execute(IdempotencyStore.scopedKey("borrow", user.getUserId(), idempotencyKey),
+                    () -> LendingService.borrow(user, borrowing), LendingService::isFinal);
+            return borrowOutcomeResponse(outcome);
+        });
+    }
+
+    /**
+     * Returns the logged-in user's open borrowing of a movie.
+     *
+     * @param movieId the ID of the movie
+     * @param idempotencyKey optional client key identifying this request
+     * @return the outcome of the return as JSON
+     */
+    @POST
+    @Path("/{id}/return")
+    @Produces(MediaType.APPLICATION_JSON)
+    public CompletionStage<Response> returnMovie(@PathParam("id") String movieId, @HeaderParam("Idempotency-Key") String idempotencyKey) {
+        User user = userBean.getLoggedInUser();
+        if (user == null) {
+            return AsyncResponses.done(outcomeResponse(Response.Status.UNAUTHORIZED, "LOGIN_REQUIRED"));
+        }
+        return AsyncResponses.run(() -> {
+            BorrowOutcome outcome = IdempotencyStore.execute(IdempotencyStore.scopedKey("return", user.getUserId(), idempotencyKey),
+                    () -> LendingService.returnMovie(user.getUserId(), movieId), LendingService::isFinal);
+            return borrowOutcomeResponse(outcome);
+        });
+    }
+
+    /**
+     * Adds the logged-in user's review of a movie. A user can review a movie
+     * only once; the database rejects a second review.
+     *
+     * @param movieId the ID of the movie
+     * @param rating the rating given
+     * @param comment the review comment
+     * @param idempotencyKey optional client key identifying this request
+     * @return the outcome of the submission as JSON
+     */
+    @POST
+    @Path("/{id}/reviews")
+    @Consumes(MediaType.APPLICATION_FORM_URLENCODED)
+    @Produces(MediaType.APPLICATION_JSON)
+    public CompletionStage<Response> addReview(@PathParam("id") String movieId, @FormParam("rating") int rating,
+            @FormParam("comment") String comment, @HeaderParam("Idempotency-Key") String idempotencyKey) {
+        User user = userBean.getLoggedInUser();
+        if (user == null) {
+            return AsyncResponses.done(outcomeResponse(Response.Status.UNAUTHORIZED, "LOGIN_REQUIRED"));
+        }
+        long retryMillis = RateLimiter.tryAcquire(RateLimiter.Action.REVIEW, userBean.getRateLimitSubject());
+        if (retryMillis > 0) {
+            return AsyncResponses.done(rateLimitedResponse(retryMillis));
+        }
+        if (comment == null || comment.trim().isEmpty() || rating < 1 || rating > AppConfig.getMaxStars()) {
+            return AsyncResponses.done(outcomeResponse(Response.Status.BAD_REQUEST, "INVALID"));
+        }
+        return AsyncResponses.run(() -> {
+            if (MovieDAO.getMovieById(movieId) == null) {
+                return outcomeResponse(Response.Status.NOT_FOUND, "NOT_FOUND");
+            }
+            Review review = new Review(UUID.randomUUID().toString(), user.getUserId(), movieId, comment,
+                    rating, new Timestamp(System.currentTimeMillis()));
+            ReviewOutcome outcome = IdempotencyStore.execute(IdempotencyStore.scopedKey("review", user.getUserId(), idempotencyKey),
+                    () -> ReviewDAO.addReview(review), result -> result != ReviewOutcome.ERROR);
+            if (outcome == null) {
+                return outcomeResponse(Response.Status.CONFLICT, "IN_PROGRESS");
+            }
+            switch (outcome) {
+                case ADDED:
+                    return outcomeResponse(Response.Status.OK, outcome.name());
+                case DUPLICATE:
+                    return outcomeResponse(Response.Status.CONFLICT, outcome.name());
+                default:
+                    return outcomeResponse(Response.Status.INTERNAL_SERVER_ERROR, outcome.name());
+            }
+        });
+    }
+
+    /**
+     * Maps a borrow or return outcome to an HTTP response.
+     *
+     * @param outcome the outcome, or null if an earlier request with the same
+     * key is still being processed
+     * @return the response
+     */
+    private Response borrowOutcomeResponse(BorrowOutcome outcome) {
+        if (outcome == null) {
+            return outcomeResponse(Response.Status.CONFLICT, "IN_PROGRESS");
+        }
+        switch (outcome) {
+            case BORROWED:
+            case RETURNED:
+                return outcomeResponse(Response.Status.OK, outcome.name());
+            case NOT_FOUND:
+                return outcomeResponse(Response.Status.NOT_FOUND, outcome.name());
+            case ERROR:
+                return outcomeResponse(Response.Status.INTERNAL_SERVER_ERROR, outcome.name());
+            default:
+                return outcomeResponse(Response.Status.CONFLICT, outcome.name());
+        }
+    }
+
+    /**
+     * Builds the 429 response of a throttled request, telling the client
+     * when to retry.
+     *
+     * @param retryMillis the delay returned by the rate limiter
+     * @return the response
+     */
+    private Response rateLimitedResponse(long retryMillis) {
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put("outcome", "RATE_LIMITED");
+        return Response.status(Response.Status.TOO_MANY_REQUESTS)
+                .header("Retry-After", RateLimiter.toSeconds(retryMillis))
+                .entity(body).build();
+    }
+
+    /**
+     * Clamps a requested page size to the configured bounds.
+     *
+     * @param limit the requested size, or null for the default
+     * @return the page size to use
+     */
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return AppConfig.getApiPageDefaultSize();
+        }
+        return Math.max(1, Math.min(limit, AppConfig.getApiPageMaxSize()));
+    }
+
+    /**
+     * Parses a fields= projection.
+     *
+     * @param fields the comma-separated field names, or null
+     * @param defaults the fields to use when none are given
+     * @return the selected fields, or null if an unknown field was requested
+     */
+    private Set<String> parseFields(String fields, Set<String> defaults) {
+        if (fields == null || fields.trim().isEmpty()) {
+            return defaults;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!MOVIE_FIELDS.contains(name)) {
+                return null;
+            }
+            selected.add(name);
+        }
+        return selected;
+    }
+
+    /**
+     * Builds the JSON representation of a movie with only the selected
+     * fields.
+     *
+     * @param movie the movie
+     * @param fields the fields to include
+     * @param baseUri the base URI of the API, for the poster link
+     * @return the projected movie
+     */
+    private Map<String, Object> project(Movie movie, Set<String> fields, URI baseUri) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        for (String field : fields) {
+            switch (field) {
+                case "id":
+                    json.put(field, movie.getMovieId());
+                    break;
+                case "title":
+                    json.put(field, movie.getTitle());
+                    break;
+                case "description":
+                    json.put(field, movie.getDescription());
+                    break;
+                case "categories":
+                    json.put(field, movie.getCategoryNames());
+                    break;
+                case "copiesAvailable":
+                    json.put(field, movie.getCopiesAvailable());
+                    break;
+                case "quantity":
+                    json.put(field, movie.getQuantity());
+                    break;
+                case "dateRelease":
+                    json.put(field, movie.getDateRelease() != null ? new java.sql.Date(movie.getDateRelease().getTime()).toString() : null);
+                    break;
+                case "posterUrl":
+                    json.put(field, baseUri.resolve("movies/" + movie.getMovieId() + "/poster").toString());
+                    break;
+                default:
+                    break;
+            }
+        }
+        return json;
+    }
+
+    /**
+     * Builds a JSON response of the form {"outcome": "..."}.
+     *
+     * @param status the HTTP status
+     * @param outcome the outcome name
+     * @return the response
+     */
+    private Response outcomeResponse(Response.Status status, String outcome) {
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put("outcome", outcome);
+        return Response.status(status).entity(body).build();
     }
 }
@@ -0,0 +1,190 @@
+package Utils;
+
+import config.AppConfig;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Executor for the blocking work of REST requests, so that slow database
+ * calls do not hold the server's HTTP request threads.
+ *
+ * Work runs on virtual threads when the runtime provides them (Java 21+),
+ * where a request waiting on the database only parks. On older runtimes it
+ * falls back to a bounded pool of platform threads. Either way a semaphore
+ * caps how many requests use the database at once, so a burst of API calls
+ * queues in front of the connection pool instead of exhausting it; a request
+ * that cannot get a permit in time is rejected.
+ */
+public class ApiExecutor {
+
+    private static final AtomicInteger threadCounter = new AtomicInteger(); // Used to name fallback threads
+    private static final Semaphore gate = new Semaphore(AppConfig.getApiMaxConcurrentRequests(), true); // Caps concurrent database work
+    private static final LongAdder rejected = new LongAdder(); // Requests turned away by the gate or a full queue
+    private static final ExecutorService executor = createExecutor(); // Runs the request work
+
+    private ApiExecutor() {
+    }
+
+    /**
+     * Runs a piece of request work asynchronously behind the concurrency
+     * gate.
+     *
+     * @param <T> the result type
+     * @param task the blocking work; it must not use request- or
+     * session-scoped state, which is not available off the request thread
+     * @return a stage completed with the task's result, or exceptionally with
+     *         a RejectedExecutionException if the API is saturated
+     */
+    public static <T> CompletableFuture<T> supply(Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                boolean permitted = false;
+                try {
+                    permitted = gate.tryAcquire(AppConfig.getApiGateWaitMillis(), TimeUnit.MILLISECONDS);
+                    if (!permitted) {
+                        rejected.increment();
+                        result.completeExceptionally(new RejectedExecutionException("API concurrency limit reached"));
+                        return;
+                    }
+                    result.complete(task.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    result.completeExceptionally(e);
+                } catch (RuntimeException e) {
+                    System.err.println("❌ API request failed: " + e.getMessage());
+                    result.completeExceptionally(e);
+                } finally {
+                    if (permitted) {
+                        gate.release();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Takes a permit for work that must run on the calling thread, such as a
+     * streamed response body. Waits as long as supply does; every successful
+     * call must be paired with release.
+     *
+     * @return true if a permit was taken, false if the API is saturated
+     */
+    public static boolean tryAcquire() {
+        try {
+            if (gate.tryAcquire(AppConfig.getApiGateWaitMillis(), TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Returns a permit taken with tryAcquire.
+     */
+    public static void release() {
+        gate.release();
+    }
+
+    /**
+     * @return true if request work runs on virtual threads
+     */
+    public static boolean isVirtual() {
+        return !(executor instanceof ThreadPoolExecutor);
+    }
+
+    /**
+     * @return the number of requests currently holding a permit
+     */
+    public static int getActiveCount() {
+        return AppConfig.getApiMaxConcurrentRequests() - gate.availablePermits();
+    }
+
+    /**
+     * @return the number of requests waiting for a permit
+     */
+    public static int getWaitingCount() {
+        return gate.getQueueLength();
+    }
+
+    /**
+     * @return the number of requests rejected because the API was saturated
+     */
+    public static long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Stops accepting work and waits briefly for running requests. Called
+     * when the application is undeployed.
+     */
+    public static void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Checks whether the runtime can create virtual threads. The project
+     * targets Java 17, so the factory is looked up reflectively.
+     *
+     * @return true if Executors.newVirtualThreadPerTaskExecutor exists
+     */
+    private static boolean virtualThreadsAvailable() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a virtual-thread-per-task executor if available, otherwise a
+     * bounded platform thread pool.
+     *
+     * @return the executor
+     */
+    private static ExecutorService createExecutor() {
+        if (virtualThreadsAvailable()) {
+            try {
+                System.out.println("🧵 REST requests run on virtual threads.");
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                System.err.println("❌ Virtual threads unavailable: " + e.getMessage());
+            }
+        }
+        System.out.println("🧵 REST requests run on a pool of " + AppConfig.getApiFallbackPoolSize() + " platform threads.");
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                AppConfig.getApiFallbackPoolSize(), AppConfig.getApiFallbackPoolSize(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(AppConfig.getApiQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "almoviland-api-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
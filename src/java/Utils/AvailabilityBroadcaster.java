@@ -0,0 +1,228 @@
+package Utils;
+
+import DAO.MovieDAO;
+import Modules.Movie;
+import config.AppConfig;
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes availability changes to the browsers subscribed to the live
+ * availability stream (server-sent events).
+ *
+ * Committed availability changes only mark their movie as pending. A
+ * periodic flush reads the current counts of all pending movies with one
+ * query and fans the result out as one event to every subscriber, so the
+ * database work does not grow with the number of subscribers and a movie
+ * borrowed many times between flushes is sent once.
+ *
+ * Every subscriber has a bounded buffer and at most one send in flight. A
+ * subscriber that cannot keep up loses its oldest buffered events instead of
+ * holding the flush or growing memory; the counts in an event are absolute,
+ * so the next change to a movie corrects any update that was dropped.
+ */
+public class AvailabilityBroadcaster {
+
+    private static final Set<String> pending = ConcurrentHashMap.newKeySet(); // Movies changed since the last flush
+    private static final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet(); // Open streams
+    private static final LongAdder dropped = new LongAdder(); // Events dropped from full buffers
+
+    private AvailabilityBroadcaster() {
+    }
+
+    /**
+     * Registers a new stream.
+     *
+     * @param sink the event sink of the request
+     * @param sse the SSE context, used to build events
+     * @return true if the stream was registered, false if the configured
+     *         maximum number of subscribers is reached
+     */
+    public static boolean subscribe(SseEventSink sink, Sse sse) {
+        if (subscribers.size() >= AppConfig.getLiveMaxSubscribers()) {
+            return false;
+        }
+        Subscriber subscriber = new Subscriber(sink, sse);
+        subscribers.add(subscriber);
+        subscriber.offer(sse.newEventBuilder().reconnectDelay(AppConfig.getLiveReconnectMillis()).comment("connected").build());
+        return true;
+    }
+
+    /**
+     * Records that the available copies of a movie changed. Must be called
+     * after the change is committed; the event is sent on the next flush.
+     *
+     * @param movieId the movie that changed
+     */
+    static void publish(String movieId) {
+        if (movieId != null && !subscribers.isEmpty()) {
+            pending.add(movieId);
+        }
+    }
+
+    /**
+     * Sends the current counts of every pending movie to all subscribers, as
+     * one "availability" event whose data is a JSON array of
+     * [id, copiesAvailable, quantity] tuples. Called periodically from the
+     * background scheduler. If the counts cannot be read, the movies stay
+     * pending for the next flush.
+     */
+    public static void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<String> movieIds = new ArrayList<>();
+        for (Iterator<String> it = pending.iterator(); it.hasNext();) {
+            movieIds.add(it.next());
+            it.remove();
+        }
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        List<Movie> movies = MovieDAO.getMoviesByIds(movieIds);
+        if (movies == null) {
+            pending.addAll(movieIds); // The read failed; send these on the next flush
+            return;
+        }
+        if (movies.isEmpty()) {
+            return; // Every pending movie was deleted; nothing to send
+        }
+        JsonArrayBuilder data = Json.createArrayBuilder();
+        for (Movie movie : movies) {
+            data.add(Json.createArrayBuilder().add(movie.getMovieId()).add(movie.getCopiesAvailable()).add(movie.getQuantity()));
+        }
+        String json = data.build().toString();
+        String id = CatalogVersion.current().getETag();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(subscriber.sse.newEventBuilder().id(id).name("availability").data(String.class, json).build());
+        }
+    }
+
+    /**
+     * Sends a comment to every subscriber, so idle connections stay open
+     * through proxies and closed ones are detected and removed. Called
+     * periodically from the background scheduler.
+     */
+    public static void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.sink.isClosed()) {
+                subscriber.close();
+            } else {
+                subscriber.offer(subscriber.sse.newEventBuilder().comment("keep-alive").build());
+            }
+        }
+    }
+
+    /**
+     * Closes every stream. Called when the application is undeployed.
+     */
+    public static void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+    }
+
+    /**
+     * @return the number of open streams
+     */
+    public static int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * @return the number of events dropped because a subscriber's buffer
+     *         was full
+     */
+    public static long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * One open stream with its send buffer.
+     */
+    private static class Subscriber {
+
+        private final SseEventSink sink; // Connection to the browser
+        private final Sse sse; // Builds events for this sink
+        private final ArrayDeque<OutboundSseEvent> buffer = new ArrayDeque<>(); // Events waiting to be sent, oldest first
+        private boolean sending; // Whether a send is in flight (guarded by this)
+
+        Subscriber(SseEventSink sink, Sse sse) {
+            this.sink = sink;
+            this.sse = sse;
+        }
+
+        /**
+         * Buffers an event, dropping the oldest buffered one if the buffer
+         * is full, and starts sending if no send is in flight.
+         *
+         * @param event the event to send
+         */
+        void offer(OutboundSseEvent event) {
+            synchronized (this) {
+                if (buffer.size() >= AppConfig.getLiveClientBufferSize()) {
+                    buffer.pollFirst();
+                    dropped.increment();
+                }
+                buffer.addLast(event);
+                if (sending) {
+                    return;
+                }
+                sending = true;
+            }
+            sendNext();
+        }
+
+        /**
+         * Sends the oldest buffered event and, once it is written, the next
+         * one. The lock is not held while writing, so a slow connection never
+         * blocks the flush.
+         */
+        private void sendNext() {
+            OutboundSseEvent event;
+            synchronized (this) {
+                event = buffer.pollFirst();
+                if (event == null) {
+                    sending = false;
+                    return;
+                }
+            }
+            try {
+                sink.send(event).whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        close();
+                    } else {
+                        sendNext();
+                    }
+                });
+            } catch (RuntimeException e) {
+                close(); // The sink was already closed
+            }
+        }
+
+        /**
+         * Unregisters the stream and closes its connection.
+         */
+        void close() {
+            subscribers.remove(this);
+            synchronized (this) {
+                buffer.clear();
+            }
+            try {
+                sink.close();
+            } catch (RuntimeException e) {
+                // Already closed by the client
+            }
+        }
+    }
+}
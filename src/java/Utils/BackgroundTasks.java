@@ -0,0 +1,93 @@
+package Utils;
+
+import config.AppConfig;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared executor for work that must not run on a JSF or REST request thread
+ * (rebuild jobs, precomputation). The pool and its queue are bounded; when
+ * both are full the task is dropped and false is returned, so callers never
+ * block a request waiting for background capacity.
+ */
+public class BackgroundTasks {
+
+    private static final AtomicInteger threadCounter = new AtomicInteger(); // Used to name worker threads
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            AppConfig.getBackgroundPoolSize(), AppConfig.getBackgroundPoolSize(),
+            60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(AppConfig.getBackgroundQueueCapacity()),
+            runnable -> {
+                Thread thread = new Thread(runnable, "almoviland-background-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    private static final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "almoviland-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    }); // Only triggers periodic tasks; the work itself runs on the executor
+
+    static {
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    private BackgroundTasks() {
+    }
+
+    /**
+     * Queues a task for background execution. Exceptions thrown by the task
+     * are logged and do not kill the worker.
+     *
+     * @param name a short name of the task, used in log messages
+     * @param task the task to run
+     * @return true if the task was queued, false if the queue is full
+     */
+    public static boolean submit(String name, Runnable task) {
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    System.err.println("❌ Background task '" + name + "' failed: " + e.getMessage());
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            System.out.println("⚠️ Background queue full, task '" + name + "' dropped.");
+            return false;
+        }
+    }
+
+    /**
+     * Runs a task periodically on the background executor. Each run is queued
+     * like a submitted task, so a slow run never blocks the scheduler thread
+     * and a full queue only skips that run.
+     *
+     * @param name a short name of the task, used in log messages
+     * @param task the task to run
+     * @param periodMillis the time between runs in milliseconds
+     */
+    public static void scheduleAtFixedRate(String name, Runnable task, long periodMillis) {
+        scheduler.scheduleAtFixedRate(() -> submit(name, task), periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops accepting tasks and waits briefly for running ones to finish.
+     * Called when the application is undeployed.
+     */
+    public static void shutdown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package Utils;
+
+import Modules.CatalogChangeType;
+import config.AppConfig;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * In-memory ring buffer of the most recent catalog changes, one entry per
+ * catalog version, so that clients can sync by fetching only what changed
+ * since the version they hold.
+ *
+ * Version v is stored in slot v % capacity, and writers never wait for each
+ * other. A reader walks the versions after the client's one and checks that
+ * each slot still holds the expected version: a slot already overwritten by
+ * a newer version means the client's version has aged out and it must
+ * resync; a slot not written yet (its writer is still between bumping the
+ * version and recording it) ends the walk early, and the client simply
+ * continues from there on its next sync.
+ */
+public class CatalogChangeLog {
+
+    private static final AtomicReferenceArray<Entry> ring = new AtomicReferenceArray<>(AppConfig.getCatalogChangeLogCapacity()); // Recent changes by version
+
+    private CatalogChangeLog() {
+    }
+
+    /**
+     * Stores the change that produced a catalog version. Called by
+     * CatalogVersion right after bumping.
+     *
+     * @param version the version produced by the change
+     * @param type the kind of change
+     * @param movieId the movie changed, or null for catalog-wide changes
+     */
+    static void record(long version, CatalogChangeType type, String movieId) {
+        ring.set((int) (version % ring.length()), new Entry(version, type, movieId));
+    }
+
+    /**
+     * Collects the changes after a version, merged to the latest kind of
+     * change per movie.
+     *
+     * @param since the version the client holds
+     * @param current the current catalog version
+     * @return the changes, or null if since has aged out of the log
+     */
+    public static Delta since(long since, long current) {
+        if (since < 0 || since > current || current - since > ring.length()) {
+            return null;
+        }
+        Map<String, CatalogChangeType> movies = new LinkedHashMap<>();
+        boolean categoriesChanged = false;
+        long reached = since;
+        for (long version = since + 1; version <= current; version++) {
+            Entry entry = ring.get((int) (version % ring.length()));
+            if (entry == null || entry.version < version) {
+                break; // Not recorded yet: stop here, the client resumes from reached
+            }
+            if (entry.version > version) {
+                return null; // Overwritten meanwhile: aged out
+            }
+            reached = version;
+            if (entry.type == CatalogChangeType.CATEGORY) {
+                categoriesChanged = true;
+            } else if (entry.type != CatalogChangeType.REVIEW && entry.movieId != null) {
+                movies.merge(entry.movieId, entry.type, CatalogChangeLog::merge);
+            }
+        }
+        return new Delta(reached, movies, categoriesChanged);
+    }
+
+    /**
+     * Combines two changes of the same movie. A deletion wins, a full change
+     * absorbs availability changes, otherwise the later change is kept.
+     *
+     * @param earlier the change already collected
+     * @param later the newer change
+     * @return the combined change
+     */
+    private static CatalogChangeType merge(CatalogChangeType earlier, CatalogChangeType later) {
+        if (later == CatalogChangeType.MOVIE_DELETED || earlier == CatalogChangeType.MOVIE_DELETED) {
+            return CatalogChangeType.MOVIE_DELETED;
+        }
+        if (later == CatalogChangeType.AVAILABILITY) {
+            return earlier;
+        }
+        return earlier == CatalogChangeType.MOVIE_INSERTED ? earlier : later;
+    }
+
+    /**
+     * One recorded change.
+     */
+    private static class Entry {
+
+        private final long version; // Version produced by the change
+        private final CatalogChangeType type; // Kind of change
+        private final String movieId; // Movie changed, or null
+
+        Entry(long version, CatalogChangeType type, String movieId) {
+            this.version = version;
+            this.type = type;
+            this.movieId = movieId;
+        }
+    }
+
+    /**
+     * The changes after a version.
+     */
+    public static class Delta {
+
+        private final long version; // Last version included
+        private final Map<String, CatalogChangeType> movies; // Latest kind of change per movie
+        private final boolean categoriesChanged; // Whether a category was added, renamed or removed
+
+        Delta(long version, Map<String, CatalogChangeType> movies, boolean categoriesChanged) {
+            this.version = version;
+            this.movies = movies;
+            this.categoriesChanged = categoriesChanged;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public Map<String, CatalogChangeType> getMovies() {
+            return movies;
+        }
+
+        public boolean isCategoriesChanged() {
+            return categoriesChanged;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package Utils;
+
+import Modules.CatalogChangeType;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Version counter of the catalog data served by the REST API (movies, their
+ * inventory, categories and reviews).
+ *
+ * Every DAO write to that data bumps the version after its transaction has
+ * committed, so a version read before a query is never newer than the data
+ * the query returns. The REST layer derives weak ETags from the version and
+ * answers a matching If-None-Match with 304 without touching the database.
+ * The tag includes the startup time, so tags issued before a restart never
+ * match afterwards. Every bump is also recorded in the CatalogChangeLog, and
+ * the tag doubles as the version token of delta sync.
+ */
+public class CatalogVersion {
+
+    private static final String bootId = Long.toString(System.currentTimeMillis(), 36); // Distinguishes versions of different runs
+    private static final AtomicReference<State> state = new AtomicReference<>(new State(0, System.currentTimeMillis())); // Current version and its time
+
+    private CatalogVersion() {
+    }
+
+    /**
+     * Records that catalog data changed, logs the change for delta sync,
+     * queues availability changes for the live stream and drops the
+     * CategoryRegistry on category changes. Must be called after the change
+     * is committed.
+     *
+     * @param type the kind of change
+     * @param movieId the movie changed, or null for catalog-wide changes
+     */
+    public static void bump(CatalogChangeType type, String movieId) {
+        long now = System.currentTimeMillis();
+        State next = state.updateAndGet(current -> new State(current.version + 1, Math.max(now, current.lastModified)));
+        CatalogChangeLog.record(next.version, type, movieId);
+        if (type == CatalogChangeType.AVAILABILITY) {
+            AvailabilityBroadcaster.publish(movieId);
+        } else if (type == CatalogChangeType.CATEGORY) {
+            CategoryRegistry.invalidate();
+        }
+    }
+
+    /**
+     * Records the same kind of change for several movies, one version each.
+     * Must be called after the changes are committed.
+     *
+     * @param type the kind of change
+     * @param movieIds the movies changed
+     */
+    public static void bumpAll(CatalogChangeType type, Collection<String> movieIds) {
+        for (String movieId : movieIds) {
+            bump(type, movieId);
+        }
+    }
+
+    /**
+     * Parses a version token (the value of an ETag issued by this API).
+     *
+     * @param token the token
+     * @return the version, or -1 if the token is malformed or was issued
+     *         before the last restart
+     */
+    public static long parseToken(String token) {
+        if (token == null || !token.startsWith(bootId + "-")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(token.substring(bootId.length() + 1), 36);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Formats a version of this run as a version token.
+     *
+     * @param version the version
+     * @return the token, equal to the ETag value of that version
+     */
+    public static String token(long version) {
+        return bootId + "-" + Long.toString(version, 36);
+    }
+
+    /**
+     * @return the current version and the time it was reached, read
+     *         together
+     */
+    public static State current() {
+        return state.get();
+    }
+
+    /**
+     * A catalog version and the time of the change that produced it.
+     */
+    public static class State {
+
+        private final long version; // Number of changes since startup
+        private final long lastModified; // Time of the last change, in epoch milliseconds
+
+        State(long version, long lastModified) {
+            this.version = version;
+            this.lastModified = lastModified;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * @return the ETag value of this version (without quotes)
+         */
+        public String getETag() {
+            return token(version);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package Utils;
+
+import DAO.CategoryDAO;
+import Modules.Category;
+import config.AppConfig;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Application-wide index of the categories' posters, by category ID and by
+ * normalized name (trimmed, lower case, as CategoryDAO compares names).
+ *
+ * The home page shows a category header per carousel; with the index each
+ * header is a map lookup instead of a list scan and a database query. The
+ * index is an immutable snapshot loaded on first use and dropped whenever a
+ * category is added, updated or deleted (CatalogVersion reports every
+ * category change), so the next lookup loads it again. Reads take no lock.
+ * If the categories cannot be read, lookups fall back to the default image
+ * and the next one tries again.
+ */
+public class CategoryRegistry {
+
+    private static volatile Snapshot snapshot; // Current index, or null until loaded
+
+    private CategoryRegistry() {
+    }
+
+    /**
+     * Returns the poster URL of a category at card size.
+     *
+     * @param categoryId the ID of the category
+     * @return the poster URL, or the default image path if the category has
+     * no poster or does not exist
+     */
+    public static String getPosterUrl(String categoryId) {
+        Entry entry = current().byId.get(categoryId);
+        return entry != null && entry.posterUrl != null ? entry.posterUrl : AppConfig.getDefaultImagePath();
+    }
+
+    /**
+     * Returns the poster URL of a category found by name, ignoring case and
+     * surrounding spaces.
+     *
+     * @param name the name of the category
+     * @return the poster URL, or the default image path if the category has
+     * no poster or does not exist
+     */
+    public static String getPosterUrlByName(String name) {
+        Entry entry = name != null ? current().byName.get(normalize(name)) : null;
+        return entry != null && entry.posterUrl != null ? entry.posterUrl : AppConfig.getDefaultImagePath();
+    }
+
+    /**
+     * Returns the hash of a category's poster in the PosterStore.
+     *
+     * @param categoryId the ID of the category
+     * @return the poster hash, or null if the category has no poster or does
+     * not exist
+     */
+    public static String getPosterHash(String categoryId) {
+        Entry entry = current().byId.get(categoryId);
+        return entry != null ? entry.posterHash : null;
+    }
+
+    /**
+     * Drops the index so the next lookup reloads it. Called after a category
+     * change is committed. Waits for a load in progress, which may have read
+     * the categories before the change.
+     */
+    public static synchronized void invalidate() {
+        snapshot = null;
+    }
+
+    /**
+     * @return the current index, loading it if needed
+     */
+    private static Snapshot current() {
+        Snapshot current = snapshot;
+        return current != null ? current : load();
+    }
+
+    private static synchronized Snapshot load() {
+        if (snapshot == null) {
+            List<Category> categories = CategoryDAO.getAllCategories();
+            Map<String, Entry> byId = new HashMap<>();
+            Map<String, Entry> byName = new HashMap<>();
+            if (categories == null) {
+                return new Snapshot(byId, byName); // Not cached, so the next lookup retries
+            }
+            for (Category category : categories) {
+                Entry entry = new Entry(category.getPosterHash());
+                byId.put(category.getCategoryId(), entry);
+                byName.put(normalize(category.getName()), entry);
+            }
+            snapshot = new Snapshot(byId, byName);
+            System.out.println("📂 Category registry loaded: " + byId.size() + " categories.");
+        }
+        return snapshot;
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The poster of one category.
+     */
+    private static class Entry {
+
+        private final String posterHash; // Hash in the PosterStore, or null if none
+        private final String posterUrl; // URL of the card-size rendition, or null if none
+
+        Entry(String posterHash) {
+            this.posterHash = posterHash;
+            this.posterUrl = posterHash != null ? PosterStore.getUrl(posterHash, AppConfig.getPosterCardWidth()) : null;
+        }
+    }
+
+    /**
+     * Both lookups of one loaded index.
+     */
+    private static class Snapshot {
+
+        private final Map<String, Entry> byId; // Category ID -> poster
+        private final Map<String, Entry> byName; // Normalized name -> poster
+
+        Snapshot(Map<String, Entry> byId, Map<String, Entry> byName) {
+            this.byId = byId;
+            this.byName = byName;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package Utils;
+
+import config.AppConfig;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.BooleanSupplier;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Output stream that gzip-compresses a response body once it grows past a
+ * size threshold. Used by the compression filter for JSF pages and by the
+ * REST writer interceptor for JSON.
+ *
+ * The first bytes are held in memory; a body that stays under the threshold
+ * is written as is, since compressing it would cost more than it saves. Once
+ * the threshold is crossed the stream asks its owner whether to compress
+ * (the owner checks the content type and sets Content-Encoding) and then
+ * writes the gzip format itself around a raw Deflater. Deflaters and their
+ * output buffers are kept in a bounded pool and reused across responses,
+ * because each one holds native memory that is expensive to allocate for
+ * every request.
+ */
+public class CompressingOutputStream extends OutputStream {
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff}; // Magic, method, no flags, no time, unknown OS
+    private static final ArrayBlockingQueue<Compressor> pool = new ArrayBlockingQueue<>(AppConfig.getCompressionPoolSize()); // Idle deflaters with their buffers
+
+    private final OutputStream target; // Stream the body is written to
+    private final BooleanSupplier decision; // Returns true to compress; sets the response headers if so
+    private byte[] pending = new byte[AppConfig.getCompressionMinBytes()]; // Bytes held until the decision, or null once made
+    private int pendingCount; // Bytes used in pending
+    private Compressor compressor; // Borrowed while compressing
+    private final CRC32 crc = new CRC32(); // Checksum of the uncompressed body, for the gzip trailer
+    private long size; // Length of the uncompressed body
+    private boolean finished; // Whether the body is complete
+
+    /**
+     * @param target the stream the body is written to
+     * @param decision called once when the body crosses the threshold;
+     * returns true to compress (after setting Content-Encoding) or false to
+     * write the body as is
+     */
+    public CompressingOutputStream(OutputStream target, BooleanSupplier decision) {
+        this.target = target;
+        this.decision = decision;
+    }
+
+    /**
+     * Checks whether a client accepts gzip, per its Accept-Encoding header.
+     *
+     * @param acceptEncoding the header value, may be null
+     * @return true if gzip (or any encoding) is accepted with a non-zero
+     *         quality
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] params = coding.split(";");
+            String name = params[0].trim().toLowerCase();
+            if (!name.equals("gzip") && !name.equals("x-gzip") && !name.equals("*")) {
+                continue;
+            }
+            double quality = 1;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (quality > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a content type is worth compressing: text, JSON,
+     * JavaScript and XML, but not event streams, which must reach the client
+     * as they are written.
+     *
+     * @param contentType the content type, may be null
+     * @return true if the type compresses well
+     */
+    public static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase();
+        if (type.startsWith("text/event-stream")) {
+            return false;
+        }
+        return type.startsWith("text/") || type.contains("json") || type.contains("javascript") || type.contains("xml");
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (finished) {
+            throw new IOException("Stream already finished");
+        }
+        if (pending != null) {
+            if (pendingCount + len <= pending.length) {
+                System.arraycopy(b, off, pending, pendingCount, len);
+                pendingCount += len;
+                return;
+            }
+            decide();
+        }
+        if (compressor != null) {
+            deflate(b, off, len);
+        } else {
+            target.write(b, off, len);
+        }
+    }
+
+    /**
+     * Flushes what has been compressed so far. A body still under the
+     * threshold is kept back, so flushing never forces the decision.
+     *
+     * @throws IOException if the target fails
+     */
+    @Override
+    public void flush() throws IOException {
+        if (pending != null || finished) {
+            return;
+        }
+        if (compressor != null) {
+            int written;
+            do {
+                written = drain(Deflater.SYNC_FLUSH);
+            } while (written == compressor.buffer.length);
+        }
+        target.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish();
+        target.close();
+    }
+
+    /**
+     * Completes the body without closing the target: writes a body under
+     * the threshold as is, or the rest of the compressed body and the gzip
+     * trailer. Calling it again has no effect.
+     *
+     * @throws IOException if the target fails
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        try {
+            if (pending != null) {
+                target.write(pending, 0, pendingCount);
+                pending = null;
+            } else if (compressor != null) {
+                compressor.deflater.finish();
+                while (!compressor.deflater.finished()) {
+                    drain(Deflater.NO_FLUSH);
+                }
+                writeIntLE((int) crc.getValue());
+                writeIntLE((int) size);
+            }
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Returns the deflater to the pool if it is still held, for example
+     * after the response failed half-way. Calling it again has no effect.
+     */
+    public void release() {
+        if (compressor != null) {
+            compressor.deflater.reset();
+            if (!pool.offer(compressor)) {
+                compressor.deflater.end();
+            }
+            compressor = null;
+        }
+    }
+
+    /**
+     * Discards the bytes held under the threshold, when the response is
+     * reset before anything was written.
+     *
+     * @return true if the body was still held and is now empty
+     */
+    public boolean resetPending() {
+        if (pending == null) {
+            return false;
+        }
+        pendingCount = 0;
+        return true;
+    }
+
+    /**
+     * Asks the owner whether to compress and writes the held bytes
+     * accordingly.
+     *
+     * @throws IOException if the target fails
+     */
+    private void decide() throws IOException {
+        byte[] held = pending;
+        pending = null;
+        if (decision.getAsBoolean()) {
+            compressor = pool.poll();
+            if (compressor == null) {
+                compressor = new Compressor();
+            }
+            target.write(GZIP_HEADER);
+            deflate(held, 0, pendingCount);
+        } else {
+            target.write(held, 0, pendingCount);
+        }
+    }
+
+    /**
+     * Compresses bytes and writes whatever output the deflater produces.
+     *
+     * @param b the bytes
+     * @param off the start offset
+     * @param len the number of bytes
+     * @throws IOException if the target fails
+     */
+    private void deflate(byte[] b, int off, int len) throws IOException {
+        crc.update(b, off, len);
+        size += len;
+        compressor.deflater.setInput(b, off, len);
+        while (!compressor.deflater.needsInput()) {
+            drain(Deflater.NO_FLUSH);
+        }
+    }
+
+    /**
+     * Writes one buffer of deflater output to the target.
+     *
+     * @param flushMode the deflater flush mode
+     * @return the number of bytes written
+     * @throws IOException if the target fails
+     */
+    private int drain(int flushMode) throws IOException {
+        int count = compressor.deflater.deflate(compressor.buffer, 0, compressor.buffer.length, flushMode);
+        if (count > 0) {
+            target.write(compressor.buffer, 0, count);
+        }
+        return count;
+    }
+
+    private void writeIntLE(int value) throws IOException {
+        target.write(value & 0xff);
+        target.write((value >> 8) & 0xff);
+        target.write((value >> 16) & 0xff);
+        target.write((value >> 24) & 0xff);
+    }
+
+    /**
+     * A raw deflater (the gzip header and trailer are written by the stream)
+     * with its output buffer, pooled together.
+     */
+    private static class Compressor {
+
+        private final Deflater deflater = new Deflater(AppConfig.getCompressionLevel(), true); // Raw deflate, no zlib wrapper
+        private final byte[] buffer = new byte[8192]; // Deflater output
+    }
+}
@@ -0,0 +1,256 @@
+package Utils;
+
+import DAO.BorrowingDAO;
+import DAO.MovieDAO;
+import DAO.ReviewDAO;
+import Modules.Borrowing;
+import Modules.Movie;
+import Modules.Review;
+import config.AppConfig;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Precomputes a personalized home feed per active user: unseen movies from the
+ * user's preferred categories, ranked by how strongly the user's borrow and
+ * review history points to those categories.
+ *
+ * Feeds are computed on the shared background executor, never on the request
+ * thread, and kept in a size-bounded LRU cache with a time-to-live. Readers
+ * get whatever is cached (possibly nothing yet) and a refresh is queued when
+ * the entry is missing or stale, so rendering the home page never waits for
+ * personalization.
+ */
+public class HomeFeedService {
+
+    private static final Map<String, FeedEntry> cache = new LinkedHashMap<String, FeedEntry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FeedEntry> eldest) {
+            return size() > AppConfig.getHomeFeedCacheSize();
+        }
+    }; // User ID -> cached feed, least recently used first
+    private static final Set<String> inFlight = new HashSet<>(); // Users whose feed is being computed; guarded by cache
+    private static final Set<String> dirty = new HashSet<>(); // In-flight users with a refresh requested since it started; guarded by cache
+    private static final Set<String> evicted = new HashSet<>(); // In-flight users evicted since it started; guarded by cache
+    private static volatile List<Movie> catalog = Collections.emptyList(); // Shared catalog snapshot without posters
+    private static volatile long catalogLoadedAt = 0; // Time the catalog snapshot was loaded
+
+    private HomeFeedService() {
+    }
+
+    /**
+     * Returns the cached feed of a user. Never computes on the calling thread:
+     * if the entry is missing or older than the TTL, a background refresh is
+     * queued and the stale (or empty) feed is returned.
+     *
+     * @param userId the ID of the user
+     * @return list of recommended movie IDs, best first
+     */
+    public static List<String> getFeed(String userId) {
+        if (userId == null) {
+            return Collections.emptyList();
+        }
+        FeedEntry entry;
+        synchronized (cache) {
+            entry = cache.get(userId);
+        }
+        if (entry == null || System.currentTimeMillis() - entry.computedAt > AppConfig.getHomeFeedTtlMillis()) {
+            requestRefresh(userId);
+        }
+        return entry != null ? entry.movieIds : Collections.emptyList();
+    }
+
+    /**
+     * Queues a recomputation of a user's feed, for example when a session
+     * starts or after the user borrows a movie. A request for a user whose
+     * feed is already being computed is remembered, and the feed is computed
+     * again once the running computation ends, since it may have read the
+     * user's history before the change.
+     *
+     * @param userId the ID of the user
+     */
+    public static void requestRefresh(String userId) {
+        if (userId == null) {
+            return;
+        }
+        synchronized (cache) {
+            if (!inFlight.add(userId)) {
+                dirty.add(userId);
+                return;
+            }
+        }
+        submit(userId);
+    }
+
+    /**
+     * Drops a user's cached feed, for example on logout. A computation still
+     * running for the user does not store its result.
+     *
+     * @param userId the ID of the user
+     */
+    public static void evict(String userId) {
+        synchronized (cache) {
+            cache.remove(userId);
+            if (inFlight.contains(userId)) {
+                evicted.add(userId);
+                dirty.remove(userId);
+            }
+        }
+    }
+
+    /**
+     * Queues the computation of a user already marked in flight. When it
+     * ends, the feed is stored unless the user was evicted meanwhile, and a
+     * refresh requested meanwhile queues it again.
+     *
+     * @param userId the ID of the user
+     */
+    private static void submit(String userId) {
+        boolean queued = BackgroundTasks.submit("home-feed", () -> {
+            List<String> feed = null;
+            boolean again;
+            try {
+                feed = computeFeed(userId);
+            } finally {
+                synchronized (cache) {
+                    if (!evicted.remove(userId) && feed != null) {
+                        cache.put(userId, new FeedEntry(feed, System.currentTimeMillis()));
+                    }
+                    again = dirty.remove(userId);
+                    if (!again) {
+                        inFlight.remove(userId);
+                    }
+                }
+            }
+            if (again) {
+                submit(userId);
+            }
+        });
+        if (!queued) {
+            synchronized (cache) {
+                inFlight.remove(userId);
+                dirty.remove(userId);
+                evicted.remove(userId);
+            }
+        }
+    }
+
+    /**
+     * Computes the feed of a user. Each category gets an affinity score: +1
+     * for every borrowed movie in it and +/- half a point per star above or
+     * below 3 for every reviewed movie in it. Movies the user has not borrowed
+     * or reviewed are then ranked by the summed affinity of their categories,
+     * preferring movies with copies available and then trending ones.
+     *
+     * @param userId the ID of the user
+     * @return list of recommended movie IDs, best first
+     */
+    private static List<String> computeFeed(String userId) {
+        List<Movie> movies = getCatalog();
+        Map<String, Movie> moviesById = new HashMap<>();
+        for (Movie movie : movies) {
+            moviesById.put(movie.getMovieId(), movie);
+        }
+        Set<String> seen = new HashSet<>();
+        Map<String, Double> affinity = new HashMap<>();
+        for (Borrowing borrowing : BorrowingDAO.getAllBorrowingsByUser(userId)) {
+            seen.add(borrowing.getMovieId());
+            addAffinity(affinity, moviesById.get(borrowing.getMovieId()), 1.0);
+        }
+        for (Review review : ReviewDAO.getReviewsByUser(userId)) {
+            seen.add(review.getMovieId());
+            addAffinity(affinity, moviesById.get(review.getMovieId()), (review.getRating() - 3) * 0.5);
+        }
+        if (affinity.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<String, Double> scores = new HashMap<>();
+        for (Movie movie : movies) {
+            if (seen.contains(movie.getMovieId())) {
+                continue;
+            }
+            double score = 0;
+            for (String category : splitCategories(movie)) {
+                score += affinity.getOrDefault(category, 0.0);
+            }
+            if (score > 0) {
+                scores.put(movie.getMovieId(), score);
+            }
+        }
+        List<String> ranked = new ArrayList<>(scores.keySet());
+        ranked.sort(Comparator.<String>comparingDouble(scores::get).reversed()
+                .thenComparing(id -> moviesById.get(id).getCopiesAvailable() <= 0)
+                .thenComparing(Comparator.<String>comparingDouble(TrendingTracker::getScore).reversed()));
+        return new ArrayList<>(ranked.subList(0, Math.min(AppConfig.getHomeFeedSize(), ranked.size())));
+    }
+
+    /**
+     * Adds a weight to every category of a movie.
+     *
+     * @param affinity the category affinity map to update
+     * @param movie the movie, or null if it no longer exists
+     * @param weight the weight to add
+     */
+    private static void addAffinity(Map<String, Double> affinity, Movie movie, double weight) {
+        if (movie == null) {
+            return;
+        }
+        for (String category : splitCategories(movie)) {
+            affinity.merge(category, weight, Double::sum);
+        }
+    }
+
+    /**
+     * Splits the comma-separated category names of a movie.
+     *
+     * @param movie the movie
+     * @return list of trimmed category names
+     */
+    private static List<String> splitCategories(Movie movie) {
+        List<String> categories = new ArrayList<>();
+        if (movie.getCategoryNames() != null) {
+            for (String category : movie.getCategoryNames().split(",")) {
+                categories.add(category.trim());
+            }
+        }
+        return categories;
+    }
+
+    /**
+     * Returns the shared catalog snapshot, reloading it (without posters) when
+     * it is older than the configured refresh interval. Only background
+     * threads call this method.
+     *
+     * @return list of all movies
+     */
+    private static List<Movie> getCatalog() {
+        long now = System.currentTimeMillis();
+        if (now - catalogLoadedAt > AppConfig.getHomeFeedCatalogRefreshMillis()) {
+            catalog = MovieDAO.getAllMoviesWithoutPosters();
+            catalogLoadedAt = now;
+        }
+        return catalog;
+    }
+
+    /**
+     * A computed feed and the time it was computed.
+     */
+    private static class FeedEntry {
+
+        private final List<String> movieIds;
+        private final long computedAt;
+
+        FeedEntry(List<String> movieIds, long computedAt) {
+            this.movieIds = Collections.unmodifiableList(movieIds);
+            this.computedAt = computedAt;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package Utils;
+
+import config.AppConfig;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Application-wide store of idempotency keys for state-changing actions
+ * (borrow, return, review), shared by the JSF beans and the REST endpoints.
+ *
+ * The first request with a key runs the action and records its result; a
+ * replay with the same key (double-click, browser or client retry) gets the
+ * recorded result without running the action again. A replay that arrives
+ * while the first request is still running waits for its result. Keys live
+ * in a size-bounded LRU map and expire after the configured time-to-live.
+ */
+public class IdempotencyStore {
+
+    private static final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > AppConfig.getIdempotencyCapacity();
+        }
+    }; // Key -> recorded (or pending) result, least recently used first
+    private static final AtomicLong replays = new AtomicLong(); // Number of requests answered from the store
+
+    private IdempotencyStore() {
+    }
+
+    /**
+     * Runs an action at most once per key.
+     *
+     * @param <T> the result type
+     * @param key the idempotency key, already scoped to the action and user;
+     * if null the action simply runs
+     * @param action the state-changing action
+     * @param keep decides whether a result is recorded; results for which it
+     * returns false (for example transient errors) are forgotten so that a
+     * retry runs the action again
+     * @return the result of the action, the recorded result of an earlier
+     * request with the same key, or null if that request is still running
+     * after the configured wait
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T execute(String key, Supplier<T> action, Predicate<T> keep) {
+        if (key == null) {
+            return action.get();
+        }
+        CompletableFuture<Object> pending = new CompletableFuture<>();
+        Entry existing;
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            existing = entries.get(key);
+            if (existing != null && now - existing.createdAt > AppConfig.getIdempotencyTtlMillis()) {
+                existing = null;
+            }
+            if (existing == null) {
+                entries.put(key, new Entry(pending, now));
+            }
+        }
+        if (existing != null) {
+            replays.incrementAndGet();
+            System.out.println("🔁 Replayed request " + key);
+            try {
+                return (T) existing.result.get(AppConfig.getIdempotencyWaitMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException | TimeoutException e) {
+                return null;
+            }
+        }
+        try {
+            T result = action.get();
+            if (!keep.test(result)) {
+                forget(key);
+            }
+            pending.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            forget(key);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Builds a store key scoped to an action and a user, so a key can never
+     * replay another user's or another action's result.
+     *
+     * @param action the action name
+     * @param userId the ID of the acting user
+     * @param requestKey the client-supplied key, may be null
+     * @return the scoped key, or null if no client key was supplied
+     */
+    public static String scopedKey(String action, String userId, String requestKey) {
+        if (requestKey == null || requestKey.isBlank()) {
+            return null;
+        }
+        return action + ":" + userId + ":" + requestKey;
+    }
+
+    /**
+     * @return the number of requests answered from the store since startup
+     */
+    public static long getReplayCount() {
+        return replays.get();
+    }
+
+    /**
+     * Removes a key so the next request with it runs the action again.
+     *
+     * @param key the key to remove
+     */
+    private static void forget(String key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * A recorded or pending result and the time its key was first seen.
+     */
+    private static class Entry {
+
+        private final CompletableFuture<Object> result;
+        private final long createdAt;
+
+        Entry(CompletableFuture<Object> result, long createdAt) {
+            this.result = result;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package Utils;
+
+import java.util.Arrays;
+
+/**
+ * Minimal open-addressing hash map from int keys to int values, used where a
+ * HashMap of boxed Integers would cost too much memory (for example the rows
+ * of the borrowing co-occurrence matrix). Keys must not be negative; -1 marks
+ * a free slot. Not thread-safe.
+ */
+public class IntIntHashMap {
+
+    private static final int FREE = -1; // Marker for an unused slot
+    private int[] keys; // Slot keys, FREE if unused
+    private int[] values; // Slot values
+    private int size; // Number of keys stored
+    private int mask; // Table length - 1 (table length is a power of two)
+
+    /**
+     * Creates an empty map with room for a few entries.
+     */
+    public IntIntHashMap() {
+        this(4);
+    }
+
+    /**
+     * Creates an empty map sized for the expected number of entries.
+     *
+     * @param expectedSize the number of entries expected
+     */
+    public IntIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE);
+        mask = capacity - 1;
+    }
+
+    /**
+     * @return the number of keys in the map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value stored for a key.
+     *
+     * @param key the key to look up
+     * @return the value, or 0 if the key is absent
+     */
+    public int get(int key) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    /**
+     * Checks whether a key is present.
+     *
+     * @param key the key to check
+     * @return true if the key is stored in the map
+     */
+    public boolean containsKey(int key) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Adds a delta to the value of a key, inserting the key with the delta if
+     * it is absent.
+     *
+     * @param key the key to update
+     * @param delta the amount to add
+     * @return the new value
+     */
+    public int addTo(int key, int delta) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                values[slot] += delta;
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+        return delta;
+    }
+
+    /**
+     * Adds every entry of another map to this one.
+     *
+     * @param other the map whose values are added
+     */
+    public void addAll(IntIntHashMap other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.keys[i] != FREE) {
+                addTo(other.keys[i], other.values[i]);
+            }
+        }
+    }
+
+    /**
+     * Calls the consumer once for each entry.
+     *
+     * @param consumer receives each key and its value
+     */
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Doubles the table and reinserts every entry.
+     */
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        Arrays.fill(keys, FREE);
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Spreads the bits of a key so sequential keys do not cluster.
+     *
+     * @param key the key to hash
+     * @return the mixed hash
+     */
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Receives the entries of an IntIntHashMap.
+     */
+    public interface EntryConsumer {
+
+        void accept(int key, int value);
+    }
+}
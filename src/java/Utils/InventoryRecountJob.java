@@ -0,0 +1,206 @@
+package Utils;
+
+import DAO.InventoryLedgerDAO;
+import DAO.MovieDAO;
+import Modules.InventoryDiscrepancy;
+import config.AppConfig;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Application-wide inventory recount job.
+ *
+ * The recount runs on the shared background executor and walks the catalog
+ * in chunks of MOVIE_ID order. Each movie is verified by replaying the
+ * inventory ledger from its latest snapshot, so only the few events after
+ * the snapshot are read instead of recomputing from the borrowing history;
+ * a movie whose counts drifted from the ledger is reset to it. Every chunk
+ * runs in its own short transaction, so no request thread waits for it and
+ * no lock is held on the whole table. Progress and a bounded discrepancy report are kept in memory
+ * for the admin dashboard. Only one recount runs at a time.
+ */
+public class InventoryRecountJob {
+
+    private static final AtomicBoolean running = new AtomicBoolean(false); // True while a recount runs
+    private static final AtomicInteger processed = new AtomicInteger(); // Movies processed by the current run
+    private static final AtomicInteger corrected = new AtomicInteger(); // Movies whose counts were corrected
+    private static final List<InventoryDiscrepancy> report = Collections.synchronizedList(new ArrayList<>()); // First discrepancies found
+    private static volatile int total = 0; // Number of movies when the run started
+    private static volatile Date startedAt; // Start time of the last run
+    private static volatile Date finishedAt; // End time of the last run
+    private static volatile String error; // Error message of the last run, if it failed
+
+    private InventoryRecountJob() {
+    }
+
+    /**
+     * Starts a recount in the background unless one is already running.
+     *
+     * @return true if a new recount was started, false if one is running or
+     *         the background queue is full
+     */
+    public static boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        processed.set(0);
+        corrected.set(0);
+        report.clear();
+        total = MovieDAO.countMovies();
+        startedAt = new Date();
+        finishedAt = null;
+        error = null;
+        if (!BackgroundTasks.submit("inventory-recount", InventoryRecountJob::run)) {
+            running.set(false);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Processes the catalog chunk by chunk until no movies are left.
+     */
+    private static void run() {
+        try {
+            String lastMovieId = null;
+            do {
+                List<InventoryDiscrepancy> found = new ArrayList<>();
+                lastMovieId = InventoryLedgerDAO.verifyChunk(lastMovieId, AppConfig.getInventoryRecountChunkSize(), found, processed);
+                corrected.addAndGet(found.size());
+                for (InventoryDiscrepancy discrepancy : found) {
+                    if (report.size() >= AppConfig.getInventoryRecountMaxReported()) {
+                        break;
+                    }
+                    report.add(discrepancy);
+                }
+            } while (lastMovieId != null);
+            System.out.println("✅ Inventory recount finished: " + processed.get() + " movies, "
+                    + corrected.get() + " corrected.");
+        } catch (SQLException e) {
+            error = e.getMessage();
+            System.err.println("❌ Inventory recount failed: " + e.getMessage());
+        } finally {
+            finishedAt = new Date();
+            running.set(false);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the current or last recount.
+     *
+     * @return the progress snapshot
+     */
+    public static Progress getProgress() {
+        List<InventoryDiscrepancy> discrepancies;
+        synchronized (report) {
+            discrepancies = new ArrayList<>(report);
+        }
+        return new Progress(running.get(), processed.get(), total, corrected.get(), discrepancies, startedAt, finishedAt, error);
+    }
+
+    /**
+     * Immutable snapshot of the recount state, read by the admin dashboard.
+     */
+    public static class Progress {
+
+        private final boolean running;
+        private final int processed;
+        private final int total;
+        private final int corrected;
+        private final List<InventoryDiscrepancy> discrepancies;
+        private final Date startedAt;
+        private final Date finishedAt;
+        private final String error;
+
+        Progress(boolean running, int processed, int total, int corrected, List<InventoryDiscrepancy> discrepancies,
+                Date startedAt, Date finishedAt, String error) {
+            this.running = running;
+            this.processed = processed;
+            this.total = total;
+            this.corrected = corrected;
+            this.discrepancies = Collections.unmodifiableList(discrepancies);
+            this.startedAt = startedAt;
+            this.finishedAt = finishedAt;
+            this.error = error;
+        }
+
+        /**
+         * @return true while the recount is running
+         */
+        public boolean isRunning() {
+            return running;
+        }
+
+        /**
+         * @return true if a recount has been started since the application
+         *         started
+         */
+        public boolean isStarted() {
+            return startedAt != null;
+        }
+
+        /**
+         * @return the number of movies processed so far
+         */
+        public int getProcessed() {
+            return processed;
+        }
+
+        /**
+         * @return the number of movies when the recount started
+         */
+        public int getTotal() {
+            return total;
+        }
+
+        /**
+         * @return the progress in percent (0-100)
+         */
+        public int getPercent() {
+            if (total <= 0) {
+                return running ? 0 : 100;
+            }
+            return Math.min(100, processed * 100 / total);
+        }
+
+        /**
+         * @return the number of movies whose counts were corrected
+         */
+        public int getCorrected() {
+            return corrected;
+        }
+
+        /**
+         * @return the first corrected movies, up to the configured limit
+         */
+        public List<InventoryDiscrepancy> getDiscrepancies() {
+            return discrepancies;
+        }
+
+        /**
+         * @return the start time of the recount, or null if never started
+         */
+        public Date getStartedAt() {
+            return startedAt;
+        }
+
+        /**
+         * @return the end time of the recount, or null while running
+         */
+        public Date getFinishedAt() {
+            return finishedAt;
+        }
+
+        /**
+         * @return the error message if the recount failed, otherwise null
+         */
+        public String getError() {
+            return error;
+        }
+    }
+}
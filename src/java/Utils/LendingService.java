@@ -0,0 +1,104 @@
+package Utils;
+
+import DAO.BorrowingDAO;
+import Modules.BorrowOutcome;
+import Modules.Borrowing;
+import Modules.User;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Borrow and return rules shared by the JSF beans and the REST endpoints.
+ * Callers wrap these calls in the IdempotencyStore, so everything that
+ * decides the outcome (limit and duplicate checks included) runs inside the
+ * idempotent action and a replay reports the original outcome. The inventory
+ * change itself runs under the movie's lock in MovieLockRegistry.
+ */
+public class LendingService {
+
+    private LendingService() {
+    }
+
+    /**
+     * Borrows a movie for a user after checking the user's borrow limit and
+     * that the movie is not already borrowed by the user.
+     *
+     * @param user the borrowing user
+     * @param borrowing the borrowing to record
+     * @return the outcome of the attempt
+     */
+    public static BorrowOutcome borrow(User user, Borrowing borrowing) {
+        List<Borrowing> active = BorrowingDAO.getCurrentBorrowedByUser(user.getUserId());
+        if (active.stream().anyMatch(b -> b.getMovieId().equals(borrowing.getMovieId()))) {
+            return BorrowOutcome.ALREADY_BORROWED;
+        }
+        if (active.size() >= user.getLimitBorrowMax()) {
+            return BorrowOutcome.LIMIT_REACHED;
+        }
+        BorrowOutcome outcome = MovieLockRegistry.withLock(borrowing.getMovieId(), () -> BorrowingDAO.borrow(borrowing));
+        if (outcome == BorrowOutcome.BORROWED) {
+            HomeFeedService.requestRefresh(user.getUserId());
+        }
+        return outcome;
+    }
+
+    /**
+     * Returns the user's open borrowing of a movie.
+     *
+     * @param userId the ID of the returning user
+     * @param movieId the ID of the movie
+     * @return RETURNED, NOT_BORROWED if the user has no open borrowing of the
+     * movie, or ERROR
+     */
+    public static BorrowOutcome returnMovie(String userId, String movieId) {
+        for (Borrowing active : BorrowingDAO.getCurrentBorrowedByUser(userId)) {
+            if (active.getMovieId().equals(movieId)) {
+                java.sql.Date returnDate = new java.sql.Date(System.currentTimeMillis());
+                if (MovieLockRegistry.withLock(movieId, () -> BorrowingDAO.markAsReturned(active.getBorrowingId(), returnDate))) {
+                    System.out.println("✅ Borrowing marked as returned for borrowingId: " + active.getBorrowingId());
+                    return BorrowOutcome.RETURNED;
+                }
+                return BorrowOutcome.ERROR;
+            }
+        }
+        return BorrowOutcome.NOT_BORROWED;
+    }
+
+    /**
+     * Returns several borrowings of a user in one transaction, holding the
+     * locks of all affected movies.
+     *
+     * @param userId the ID of the returning user
+     * @param borrowingIds the IDs of the borrowings to return
+     * @return outcome per borrowing ID
+     */
+    public static Map<String, BorrowOutcome> returnBorrowings(String userId, List<String> borrowingIds) {
+        java.sql.Date returnDate = new java.sql.Date(System.currentTimeMillis());
+        Map<String, String> movieIds = BorrowingDAO.getMovieIdsByBorrowingIds(borrowingIds);
+        return MovieLockRegistry.withLocks(movieIds.values(),
+                () -> BorrowingDAO.returnBorrowings(userId, borrowingIds, returnDate));
+    }
+
+    /**
+     * Confirms several pending loss reports in one transaction, holding the
+     * locks of all affected movies.
+     *
+     * @param borrowingIds the IDs of the borrowings to confirm as lost
+     * @return outcome per borrowing ID
+     */
+    public static Map<String, BorrowOutcome> confirmLosses(List<String> borrowingIds) {
+        Map<String, String> movieIds = BorrowingDAO.getMovieIdsByBorrowingIds(borrowingIds);
+        return MovieLockRegistry.withLocks(movieIds.values(), () -> BorrowingDAO.confirmLosses(borrowingIds));
+    }
+
+    /**
+     * Tells the IdempotencyStore which outcomes to record: errors are not
+     * recorded so a retry runs again.
+     *
+     * @param outcome the outcome of a borrow or return
+     * @return true if the outcome is final
+     */
+    public static boolean isFinal(BorrowOutcome outcome) {
+        return outcome != null && outcome != BorrowOutcome.ERROR;
+    }
+}
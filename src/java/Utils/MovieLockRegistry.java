@@ -0,0 +1,207 @@
+package Utils;
+
+import config.AppConfig;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped locks that serialize inventory mutations of the same movie inside
+ * this JVM (borrow, return, loss, added copies, reservation changes).
+ *
+ * A movie ID is hashed onto a fixed, power-of-two array of locks, so no lock
+ * is allocated per movie and memory stays constant however large the catalog
+ * grows. Operations on movies that map to different stripes run fully in
+ * parallel; two movies sharing a stripe only wait for each other briefly.
+ * The database still guards every change, the locks just keep same-movie
+ * transactions from racing each other and retrying.
+ *
+ * Each stripe counts its acquisitions, how many of them had to wait and the
+ * total time spent waiting.
+ */
+public class MovieLockRegistry {
+
+    private static final ReentrantLock[] stripes = createStripes(AppConfig.getMovieLockStripes()); // Fixed lock array
+    private static final int mask = stripes.length - 1; // Stripe index mask (length is a power of two)
+    private static final AtomicLongArray acquired = new AtomicLongArray(stripes.length); // Acquisitions per stripe
+    private static final AtomicLongArray contended = new AtomicLongArray(stripes.length); // Acquisitions that had to wait
+    private static final AtomicLongArray waitNanos = new AtomicLongArray(stripes.length); // Total wait time per stripe
+
+    private MovieLockRegistry() {
+    }
+
+    /**
+     * Runs an action while holding the lock of a movie's stripe. The lock is
+     * reentrant, so an action may call other locked operations on the same
+     * movie.
+     *
+     * @param <T> the result type
+     * @param movieId the ID of the movie being changed
+     * @param action the inventory-mutating action
+     * @return the result of the action
+     */
+    public static <T> T withLock(String movieId, Supplier<T> action) {
+        int index = stripeIndex(movieId);
+        acquire(index);
+        try {
+            return action.get();
+        } finally {
+            stripes[index].unlock();
+        }
+    }
+
+    /**
+     * Runs an action while holding the locks of several movies, for bulk
+     * operations. The stripes are locked in ascending index order, so two bulk
+     * operations over overlapping movies cannot deadlock.
+     *
+     * @param <T> the result type
+     * @param movieIds the IDs of the movies being changed
+     * @param action the inventory-mutating action
+     * @return the result of the action
+     */
+    public static <T> T withLocks(Collection<String> movieIds, Supplier<T> action) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (String movieId : movieIds) {
+            indexes.add(stripeIndex(movieId));
+        }
+        List<Integer> locked = new ArrayList<>();
+        try {
+            for (int index : indexes) {
+                acquire(index);
+                locked.add(index);
+            }
+            return action.get();
+        } finally {
+            for (int i = locked.size() - 1; i >= 0; i--) {
+                stripes[locked.get(i)].unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the contention metrics of every stripe that has been used.
+     *
+     * @return list of stripe statistics ordered by stripe index
+     */
+    public static List<StripeStats> getStripeStats() {
+        List<StripeStats> stats = new ArrayList<>();
+        for (int i = 0; i < stripes.length; i++) {
+            long count = acquired.get(i);
+            if (count > 0) {
+                stats.add(new StripeStats(i, count, contended.get(i), waitNanos.get(i) / 1_000_000));
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Logs a summary of lock contention. Called when the application is
+     * undeployed.
+     */
+    public static void logContention() {
+        long total = 0;
+        long waited = 0;
+        StripeStats hottest = null;
+        for (StripeStats stats : getStripeStats()) {
+            total += stats.getAcquired();
+            waited += stats.getContended();
+            if (hottest == null || stats.getContended() > hottest.getContended()) {
+                hottest = stats;
+            }
+        }
+        System.out.println("🔒 Movie locks: " + total + " acquisitions, " + waited + " contended"
+                + (hottest != null && hottest.getContended() > 0
+                        ? " (hottest stripe " + hottest.getStripe() + ": " + hottest.getContended() + " waits, " + hottest.getWaitMillis() + " ms)"
+                        : ""));
+    }
+
+    /**
+     * @return the number of lock stripes
+     */
+    public static int getStripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * Locks a stripe and records whether the caller had to wait for it.
+     *
+     * @param index the stripe index
+     */
+    private static void acquire(int index) {
+        ReentrantLock lock = stripes[index];
+        if (!lock.tryLock()) {
+            long start = System.nanoTime();
+            lock.lock();
+            contended.incrementAndGet(index);
+            waitNanos.addAndGet(index, System.nanoTime() - start);
+        }
+        acquired.incrementAndGet(index);
+    }
+
+    /**
+     * Maps a movie ID to a stripe. The hash is spread so that IDs differing
+     * only in their high bits do not all land on the same stripe.
+     *
+     * @param movieId the ID of the movie
+     * @return the stripe index
+     */
+    private static int stripeIndex(String movieId) {
+        int h = movieId != null ? movieId.hashCode() : 0;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Creates the lock array, rounding the configured size up to a power of
+     * two.
+     *
+     * @param requested the configured number of stripes
+     * @return the lock array
+     */
+    private static ReentrantLock[] createStripes(int requested) {
+        int size = requested <= 1 ? 1 : Integer.highestOneBit(requested - 1) << 1;
+        ReentrantLock[] locks = new ReentrantLock[size];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    /**
+     * Contention metrics of one stripe.
+     */
+    public static class StripeStats {
+
+        private final int stripe; // Stripe index
+        private final long acquired; // Number of acquisitions
+        private final long contended; // Acquisitions that had to wait
+        private final long waitMillis; // Total time spent waiting
+
+        StripeStats(int stripe, long acquired, long contended, long waitMillis) {
+            this.stripe = stripe;
+            this.acquired = acquired;
+            this.contended = contended;
+            this.waitMillis = waitMillis;
+        }
+
+        public int getStripe() {
+            return stripe;
+        }
+
+        public long getAcquired() {
+            return acquired;
+        }
+
+        public long getContended() {
+            return contended;
+        }
+
+        public long getWaitMillis() {
+            return waitMillis;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package Utils;
+
+import DAO.BorrowingDAO;
+import DAO.JobStateDAO;
+import Modules.Borrowing;
+import config.AppConfig;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background job that marks open borrowings whose due date has passed.
+ *
+ * The scan is incremental: its watermark in JOB_STATE is the due date up to
+ * which everything has been checked, so each run only reads the range of the
+ * (DATE_RETURN, DUE_DATE) index between the watermark and today and never
+ * scans the borrowing history. Borrowings are marked in batches and the
+ * watermark is saved after every batch, so an interrupted run resumes where
+ * it stopped.
+ */
+public class OverdueScanner {
+
+    private static final String JOB_NAME = "overdue-scan"; // Key of the watermark in JOB_STATE
+    private static final AtomicBoolean running = new AtomicBoolean(); // Prevents overlapping runs
+
+    private OverdueScanner() {
+    }
+
+    /**
+     * Gives open borrowings without a due date one, based on their borrow
+     * date. If any were updated the watermark is cleared, because their due
+     * dates may lie before it. Called once at startup.
+     */
+    public static void backfillDueDates() {
+        int updated = BorrowingDAO.backfillDueDates(AppConfig.getLoanPeriodDays());
+        if (updated > 0) {
+            JobStateDAO.saveWatermark(JOB_NAME, null);
+            System.out.println("📅 Due dates set for " + updated + " open borrowings.");
+        }
+    }
+
+    /**
+     * Marks every open borrowing due before today as overdue, starting from
+     * the stored watermark. Called periodically from the background
+     * scheduler; a run that starts while another is active does nothing.
+     */
+    public static void scan() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            String watermark = JobStateDAO.getWatermark(JOB_NAME);
+            Date dueFrom = watermark != null ? Date.valueOf(watermark) : null;
+            int batchSize = AppConfig.getOverdueBatchSize();
+            int marked = 0;
+            List<Borrowing> batch;
+            do {
+                batch = BorrowingDAO.findUnmarkedOverdue(dueFrom, Date.valueOf(today), batchSize);
+                if (batch == null) {
+                    return; // Keep the last saved watermark and retry on the next run
+                }
+                if (batch.isEmpty()) {
+                    break;
+                }
+                List<String> ids = new ArrayList<>();
+                for (Borrowing borrowing : batch) {
+                    ids.add(borrowing.getBorrowingId());
+                }
+                int count = BorrowingDAO.markOverdue(ids);
+                if (count < 0) {
+                    return; // Keep the last saved watermark and retry on the next run
+                }
+                marked += count;
+                // Rows are ordered by due date, so everything due before the last one is done
+                dueFrom = new Date(batch.get(batch.size() - 1).getDueDate().getTime());
+                JobStateDAO.saveWatermark(JOB_NAME, dueFrom.toString());
+            } while (batch.size() == batchSize);
+            // Everything due before today is marked; the next run starts at today
+            JobStateDAO.saveWatermark(JOB_NAME, today.toString());
+            if (marked > 0) {
+                System.out.println("⏰ Overdue scan: " + marked + " borrowings marked overdue.");
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+}
@@ -2,9 +2,13 @@ package Utils;
 
 import Bean.UserBean;
 import jakarta.enterprise.context.SessionScoped;
+import jakarta.faces.component.UIViewRoot;
 import jakarta.faces.context.FacesContext;
+import jakarta.faces.event.PhaseId;
 import jakarta.inject.Named;
 import java.io.Serializable;
+import java.util.Map;
+import java.util.Set;
 import config.AppConfig;
 import Bean.MovieBean;
 import jakarta.inject.Inject;
@@ -12,11 +16,43 @@ import jakarta.inject.Inject;
 /**
  * Managed Bean responsible for handling page navigation within the system.
  * Maintains and updates the current page the user is viewing.
+ *
+ * index.xhtml includes only the file of the current page, so the component
+ * tree never holds the other pages. The include is resolved when the view
+ * is built; when the page changes during a request, the view is therefore
+ * replaced by a new one that is built with the new page.
+ *
+ * Read-only browsing pages are rendered as transient (stateless) views: no
+ * view state is saved in the session for them, and a postback rebuilds the
+ * tree from the page instead of restoring it. Their data lives in the beans,
+ * not in component state, so nothing is lost.
  */
 @Named("pageController")
 @SessionScoped
 public class PageController implements Serializable {
 
+    private static final Map<String, String> PAGE_VIEWS = Map.ofEntries(
+            Map.entry("home", "home.xhtml"),
+            Map.entry("search", "search.xhtml"),
+            Map.entry("login", "login.xhtml"),
+            Map.entry("register", "register.xhtml"),
+            Map.entry("contact", "contact.xhtml"),
+            Map.entry("admin", "adminDashboard.xhtml"),
+            Map.entry("moviesManagement", "moviesManagement.xhtml"),
+            Map.entry("categoriesManagement", "categoriesManagement.xhtml"),
+            Map.entry("editMovie", "editMovie.xhtml"),
+            Map.entry("editCategory", "editCategory.xhtml"),
+            Map.entry("usersManagement", "usersManagement.xhtml"),
+            Map.entry("userBorrowingHistory", "userBorrowingHistory.xhtml"),
+            Map.entry("movieDetails", "movieDetails.xhtml"),
+            Map.entry("borrowConfirmation", "borrowConfirmation.xhtml"),
+            Map.entry("addReview", "addReview.xhtml"),
+            Map.entry("viewReviews", "viewReviews.xhtml"),
+            Map.entry("profile", "profile.xhtml"),
+            Map.entry("reportLoss", "reportLoss.xhtml"),
+            Map.entry("adminLossRequests", "adminLossRequests.xhtml")); // Page name -> included file; only these pages exist
+    private static final Set<String> STATELESS_PAGES = Set.of("home", "search", "movieDetails", "viewReviews", "contact"); // Browsing pages rendered without view state
+
     @Inject
     private MovieBean movieBean;
     private String currentPage = AppConfig.getDefaultPage();// Holds the name of the current page the user is viewing
@@ -31,7 +67,27 @@ public class PageController implements Serializable {
     }
 
     public void setCurrentPage(String currentPage) {
-        this.currentPage = currentPage;
+        switchTo(currentPage);
+    }
+
+    /**
+     * Returns the file included by index.xhtml for the current page.
+     *
+     * @return the file name of the current page's view
+     */
+    public String getCurrentView() {
+        return PAGE_VIEWS.get(currentPage);
+    }
+
+    /**
+     * Marks the view about to be rendered as transient if the current page is
+     * a read-only browsing page, so its state is not saved in the session.
+     * Called on preRenderView by index.xhtml, after any page switch of the
+     * request.
+     */
+    public void applyViewStateMode() {
+        UIViewRoot view = FacesContext.getCurrentInstance().getViewRoot();
+        view.setTransient(STATELESS_PAGES.contains(currentPage));
     }
 
     /**
@@ -47,18 +103,18 @@ public class PageController implements Serializable {
 
         if ("admin".equals(page) && (userBean.getLoggedInUser() == null || !"ADMIN".equals(userBean.getLoggedInUser().getRole()))) {
             System.out.println("⛔ Access Denied: Only ADMIN users can access Admin Dashboard.");
-            this.currentPage = AppConfig.getDefaultPage();
+            switchTo(AppConfig.getDefaultPage());
             return;
         }
 
-        if (page != null && !page.isEmpty()) {
+        if (page != null && PAGE_VIEWS.containsKey(page)) {
             System.out.println("🔄 Switching to page: " + page);
             movieBean.init();
-            this.currentPage = page;
+            switchTo(page);
 
         } else {
-            System.out.println("❌ Error: Tried to set an empty page!");
-            this.currentPage = AppConfig.getDefaultPage();
+            System.out.println("❌ Error: Tried to set an unknown page: " + page);
+            switchTo(AppConfig.getDefaultPage());
         }
     }
 
@@ -66,7 +122,7 @@ public class PageController implements Serializable {
      * Navigates to the registration page.
      */
     public void goToRegister() {
-        this.currentPage = "register";
+        switchTo("register");
         System.out.println("📌 Navigating to: Register Page");
     }
 
@@ -74,7 +130,7 @@ public class PageController implements Serializable {
      * Navigates to the login page.
      */
     public void goToLogin() {
-        this.currentPage = "login";
+        switchTo("login");
         System.out.println("📌 Navigating to: Login Page");
     }
 
@@ -82,8 +138,34 @@ public class PageController implements Serializable {
      * Navigates to the home page.
      */
     public void goToHome() {
-        this.currentPage = "home";
+        switchTo("home");
         System.out.println("🏠 Navigating to: Home Page");
     }
 
+    /**
+     * Makes a page the current page. Unknown pages lead to the default page.
+     * If the page changes while a request is being processed, the current
+     * view is replaced by a new, unbuilt one, so the response builds the
+     * component tree of the new page only (and renders all of it, also for
+     * Ajax requests).
+     *
+     * @param page the page name
+     */
+    private void switchTo(String page) {
+        String next = page != null && PAGE_VIEWS.containsKey(page) ? page : AppConfig.getDefaultPage();
+        if (next.equals(currentPage)) {
+            return;
+        }
+        currentPage = next;
+        FacesContext context = FacesContext.getCurrentInstance();
+        if (context == null || context.getViewRoot() == null || context.getCurrentPhaseId() == PhaseId.RENDER_RESPONSE) {
+            return; // The tree is not built yet, or already being rendered
+        }
+        UIViewRoot view = context.getApplication().getViewHandler().createView(context, context.getViewRoot().getViewId());
+        context.setViewRoot(view);
+        if (context.getPartialViewContext().isAjaxRequest()) {
+            context.getPartialViewContext().setRenderAll(true);
+        }
+    }
+
 }
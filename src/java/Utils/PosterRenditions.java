@@ -0,0 +1,221 @@
+package Utils;
+
+import config.AppConfig;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Makes the scaled copies of stored posters (the widths configured in
+ * AppConfig) as compressed JPEGs next to the original in the PosterStore.
+ *
+ * Decoding a poster takes far more memory than its file, so renditions are
+ * made on a small pool of their own with a bounded queue rather than on the
+ * request thread or the shared background pool. A poster whose renditions
+ * are missing (queue full, or stored before renditions existed) is queued
+ * again when one of them is first requested; until then its original is
+ * served. The original is decoded with subsampling to about twice the
+ * largest width (and three times it in height, for portrait posters), then
+ * halved step by step, which keeps both memory and scaling artifacts low.
+ * Images with more pixels than the configured budget are never decoded.
+ */
+public class PosterRenditions {
+
+    private static final AtomicInteger threadCounter = new AtomicInteger(); // Used to name worker threads
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            AppConfig.getPosterRenditionThreads(), AppConfig.getPosterRenditionThreads(),
+            60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(AppConfig.getPosterRenditionQueueCapacity()),
+            runnable -> {
+                Thread thread = new Thread(runnable, "almoviland-renditions-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    private static final Set<String> queued = ConcurrentHashMap.newKeySet(); // Posters queued or being processed
+    private static final Set<String> unreadable = ConcurrentHashMap.newKeySet(); // Posters ImageIO cannot decode, never retried
+
+    static {
+        executor.allowCoreThreadTimeOut(true);
+        ImageIO.setUseCache(false); // Decode in memory instead of through temporary files
+    }
+
+    private PosterRenditions() {
+    }
+
+    /**
+     * Queues the renditions of a poster unless they all exist, it is already
+     * queued, or it cannot be decoded. Never blocks: when the queue is full
+     * the poster is skipped and picked up again on its next request.
+     *
+     * @param hash the hash of the poster
+     */
+    public static void submit(String hash) {
+        if (unreadable.contains(hash) || hasAll(hash) || !queued.add(hash)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(hash);
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("❌ Renditions of poster " + hash + " failed: " + e.getMessage());
+                } finally {
+                    queued.remove(hash);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.remove(hash);
+        }
+    }
+
+    /**
+     * Stops making renditions. Called when the application is undeployed.
+     */
+    public static void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Makes the missing renditions of a poster.
+     *
+     * @param hash the hash of the poster
+     * @throws IOException if the poster cannot be read or a rendition
+     * cannot be written
+     */
+    private static void generate(String hash) throws IOException {
+        Path original = PosterStore.resolve(hash);
+        if (original == null) {
+            return;
+        }
+        int[] widths = AppConfig.getPosterRenditionWidths();
+        BufferedImage image = read(original, widths[widths.length - 1] * 2, widths[widths.length - 1] * 3);
+        if (image == null) {
+            unreadable.add(hash);
+            System.out.println("⚠️ Poster " + hash + " cannot be decoded (unsupported format or too many pixels); serving the original.");
+            return;
+        }
+        for (int width : widths) {
+            Path target = PosterStore.renditionPathOf(hash, width);
+            if (!Files.exists(target)) {
+                PosterStore.write(target, encode(scale(image, width)));
+            }
+        }
+    }
+
+    /**
+     * Decodes an image, skipping pixels when it is much wider or taller than
+     * needed. The dimensions are read from the header first, so an image over
+     * the pixel budget is rejected before any pixel is decoded.
+     *
+     * @param file the image file
+     * @param maxWidth the width beyond which pixels are skipped
+     * @param maxHeight the height beyond which pixels are skipped
+     * @return the image, or null if no ImageIO reader supports its format or
+     * it has more pixels than the budget
+     * @throws IOException if the file cannot be read
+     */
+    private static BufferedImage read(Path file, int maxWidth, int maxHeight) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > AppConfig.getPosterMaxPixels()) {
+                    return null;
+                }
+                int step = Math.max(1, Math.max(width / maxWidth, height / maxHeight));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scales an image to a width, halving it in steps so bilinear
+     * interpolation never skips pixels. Images are never enlarged, and
+     * transparent areas become white, since JPEG has no alpha channel.
+     *
+     * @param source the decoded image
+     * @param width the target width
+     * @return the scaled RGB image
+     */
+    private static BufferedImage scale(BufferedImage source, int width) {
+        int targetWidth = Math.min(width, source.getWidth());
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        do {
+            currentWidth = Math.max(targetWidth, currentWidth / 2);
+            int currentHeight = Math.max(1, (int) Math.round((double) source.getHeight() * currentWidth / source.getWidth()));
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(current, 0, 0, currentWidth, currentHeight, Color.WHITE, null);
+            graphics.dispose();
+            current = next;
+        } while (currentWidth > targetWidth);
+        return current;
+    }
+
+    /**
+     * @param image the scaled image
+     * @return the image as a JPEG of the configured quality
+     * @throws IOException if encoding fails
+     */
+    private static byte[] encode(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(AppConfig.getPosterRenditionQuality());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param hash the hash of the poster
+     * @return true if every rendition of the poster exists
+     */
+    private static boolean hasAll(String hash) {
+        for (int width : AppConfig.getPosterRenditionWidths()) {
+            if (PosterStore.resolveRendition(hash, width) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
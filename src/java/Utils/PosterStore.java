@@ -0,0 +1,308 @@
+package Utils;
+
+import DAO.PosterDAO;
+import config.AppConfig;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed file store for movie and category posters.
+ *
+ * A poster is stored once under the SHA-256 of its bytes
+ * (ab/abcdef..., two-character fan-out directories) and the database keeps
+ * only that hash, so identical uploads share one file and the poster bytes
+ * never pass through Derby or the heap when they are served: the file is
+ * written to the response straight from its channel. Files are immutable
+ * (a new poster gets a new hash), which also lets browsers cache them
+ * forever. Files no longer referenced by any movie or category are removed
+ * by a periodic sweep.
+ *
+ * Next to each poster the store keeps the scaled JPEG copies made by
+ * PosterRenditions (ab/abcdef...-200), which pages offer through srcset so
+ * a card downloads a few kilobytes instead of the uploaded original.
+ */
+public class PosterStore {
+
+    public static final String CACHE_CONTROL = "public, max-age=31536000, immutable"; // Cache-Control of a poster served by hash
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}"); // Valid poster hash
+    private static final int BUFFER_SIZE = 8192; // Copy buffer of a streamed upload
+    private static final Pattern RENDITION = Pattern.compile("([0-9a-f]{64})-\\d+"); // Rendition file name: hash-width
+    private static final Path root = Paths.get(AppConfig.getPosterStoreDir()); // Directory of the store
+
+    private PosterStore() {
+    }
+
+    /**
+     * Stores a poster and queues its renditions. The stream is copied to a
+     * temporary file through a fixed buffer while it is hashed, so an upload
+     * never sits in memory whatever its size, and the copy stops as soon as
+     * it exceeds the limit. If a poster with the same content is already
+     * stored, the existing file is reused. The stream is not closed.
+     *
+     * @param input the image content
+     * @param maxBytes the largest accepted size in bytes
+     * @return the hash identifying the poster, or null if the stream is empty
+     * @throws IOException if the stream is larger than maxBytes, or it
+     * cannot be read or the file cannot be written
+     */
+    public static String store(InputStream input, long maxBytes) throws IOException {
+        MessageDigest digest = sha256();
+        Files.createDirectories(root);
+        Path temp = Files.createTempFile(root, "upload-", ".tmp");
+        try {
+            long size = 0;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            DigestInputStream hashing = new DigestInputStream(input, digest);
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                int read;
+                while ((read = hashing.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxBytes) {
+                        throw new IOException("Poster larger than " + maxBytes + " bytes");
+                    }
+                    out.write(buffer, 0, read);
+                }
+            }
+            if (size == 0) {
+                return null;
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = pathOf(hash);
+            if (Files.exists(target)) {
+                Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis())); // Protects it from a sweep in progress
+            } else {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // Stored concurrently by an identical upload
+                }
+            }
+            PosterRenditions.submit(hash);
+            return hash;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Writes a file of the store through a temporary file, so a file is
+     * never visible half-written.
+     *
+     * @param target the file to write
+     * @param content its content
+     * @throws IOException if the file cannot be written
+     */
+    static void write(Path target, byte[] content) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(root, "upload-", ".tmp");
+        try {
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Written concurrently with the same content
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Locates a stored poster.
+     *
+     * @param hash the hash of the poster, may be null
+     * @return the file, or null if the hash is malformed or not stored
+     */
+    public static Path resolve(String hash) {
+        if (hash == null || !HASH.matcher(hash).matches()) {
+            return null;
+        }
+        Path file = pathOf(hash);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    /**
+     * Locates a rendition of a stored poster.
+     *
+     * @param hash the hash of the poster, may be null
+     * @param width the rendition width
+     * @return the file, or null if the width is not a rendition width or the
+     * rendition has not been made yet
+     */
+    public static Path resolveRendition(String hash, int width) {
+        if (hash == null || !HASH.matcher(hash).matches() || !isRenditionWidth(width)) {
+            return null;
+        }
+        Path file = renditionPathOf(hash, width);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    /**
+     * @param width a width in pixels
+     * @return true if renditions of that width are made
+     */
+    public static boolean isRenditionWidth(int width) {
+        for (int renditionWidth : AppConfig.getPosterRenditionWidths()) {
+            if (renditionWidth == width) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the URL of a poster rendition, relative to the application.
+     * Until the rendition is made, the URL serves the original.
+     *
+     * @param hash the hash of the poster
+     * @param width the rendition width
+     * @return the URL served by PosterServlet
+     */
+    public static String getUrl(String hash, int width) {
+        return getUrl(hash) + "-" + width;
+    }
+
+    /**
+     * Builds the srcset attribute offering every rendition of a poster, so
+     * the browser downloads the smallest one that fills the image.
+     *
+     * @param contextPath the context path of the application
+     * @param hash the hash of the poster
+     * @return the srcset value, e.g. "/app/posters/ab...-100 100w, ..."
+     */
+    public static String getSrcset(String contextPath, String hash) {
+        StringBuilder srcset = new StringBuilder();
+        for (int width : AppConfig.getPosterRenditionWidths()) {
+            if (srcset.length() > 0) {
+                srcset.append(", ");
+            }
+            srcset.append(contextPath).append(getUrl(hash, width)).append(' ').append(width).append('w');
+        }
+        return srcset.toString();
+    }
+
+    /**
+     * Returns the URL of a poster, relative to the application.
+     *
+     * @param hash the hash of the poster
+     * @return the URL served by PosterServlet
+     */
+    public static String getUrl(String hash) {
+        return "/posters/" + hash;
+    }
+
+    /**
+     * Determines the image type of a stored poster from its first bytes.
+     *
+     * @param file the poster file
+     * @return the content type, image/png if it is not recognized
+     */
+    public static String contentType(Path file) {
+        byte[] head = new byte[12];
+        int read;
+        try (InputStream input = Files.newInputStream(file)) {
+            read = input.readNBytes(head, 0, head.length);
+        } catch (IOException e) {
+            return "image/png";
+        }
+        if (read >= 3 && (head[0] & 0xff) == 0xff && (head[1] & 0xff) == 0xd8 && (head[2] & 0xff) == 0xff) {
+            return "image/jpeg";
+        }
+        if (read >= 4 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8') {
+            return "image/gif";
+        }
+        if (read >= 12 && head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return "image/webp";
+        }
+        return "image/png";
+    }
+
+    /**
+     * Writes a stored poster to a stream with FileChannel.transferTo, so the
+     * bytes are not copied through the heap when the stream is backed by a
+     * channel.
+     *
+     * @param file the poster file
+     * @param out the stream to write to
+     * @throws IOException if reading or writing fails
+     */
+    public static void transferTo(Path file, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = 0;
+            long size = channel.size();
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+        }
+    }
+
+    /**
+     * Deletes the posters no movie or category references any more, with
+     * their renditions, and leftovers of interrupted uploads. Files changed within the configured
+     * grace period are kept, so a poster being uploaded or re-used while the
+     * sweep runs is never removed. Called periodically from the background
+     * scheduler.
+     */
+    public static void sweepOrphans() {
+        Set<String> referenced = PosterDAO.getReferencedHashes();
+        if (referenced == null || !Files.isDirectory(root)) {
+            return; // Never delete on a failed lookup
+        }
+        long cutoff = System.currentTimeMillis() - AppConfig.getPosterOrphanGraceMillis();
+        int deleted = 0;
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                Matcher rendition = RENDITION.matcher(name);
+                String owner = HASH.matcher(name).matches() ? name : rendition.matches() ? rendition.group(1) : null; // Poster the file belongs to
+                if (!Files.isRegularFile(file) || (owner != null && referenced.contains(owner)) || (owner == null && !name.endsWith(".tmp"))) {
+                    continue;
+                }
+                if (Files.getLastModifiedTime(file).toMillis() < cutoff && Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Poster sweep failed: " + e.getMessage());
+        }
+        if (deleted > 0) {
+            System.out.println("🧹 Poster sweep: " + deleted + " unreferenced files deleted.");
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e); // Required of every JRE
+        }
+    }
+
+    private static Path pathOf(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    static Path renditionPathOf(String hash, int width) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash + "-" + width);
+    }
+}
@@ -0,0 +1,197 @@
+package Utils;
+
+import config.AppConfig;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory, per-subject token-bucket rate limiter for user actions that hit
+ * the database (borrow, review).
+ *
+ * Each bucket is a single AtomicLong holding its "theoretical arrival time"
+ * (the generic cell rate algorithm, which behaves exactly like a token bucket
+ * refilled at the action's rate and holding up to its burst): a request
+ * pushes the time forward by one emission interval and is allowed if that
+ * stays within the burst window of now. The update is one compare-and-set,
+ * so checking a bucket never takes a lock.
+ *
+ * A bucket whose arrival time has passed is full again and therefore
+ * identical to a new one, so idle buckets are evicted periodically (and
+ * inline when the map reaches its configured maximum). If the map is still
+ * full, new subjects share one overflow bucket per action, which keeps memory
+ * bounded under a flood of distinct sessions.
+ */
+public class RateLimiter {
+
+    private static final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>(); // Arrival time per action and subject
+    private static final Map<Action, LongAdder> allowed = counters(); // Allowed requests per action
+    private static final Map<Action, LongAdder> rejected = counters(); // Rejected requests per action
+    private static final LongAdder evicted = new LongAdder(); // Idle buckets removed so far
+
+    /**
+     * Rate-limited actions with their configured rate and burst.
+     */
+    public enum Action {
+        BORROW(AppConfig.getRateLimitBorrowPerMinute(), AppConfig.getRateLimitBorrowBurst()),
+        REVIEW(AppConfig.getRateLimitReviewPerMinute(), AppConfig.getRateLimitReviewBurst());
+
+        private final long intervalNanos; // Time to earn back one token
+        private final long windowNanos; // How far ahead of now the arrival time may run (burst)
+
+        Action(int perMinute, int burst) {
+            this.intervalNanos = 60_000_000_000L / Math.max(1, perMinute);
+            this.windowNanos = intervalNanos * Math.max(1, burst);
+        }
+    }
+
+    private RateLimiter() {
+    }
+
+    /**
+     * Takes a token from a subject's bucket for an action.
+     *
+     * @param action the action being performed
+     * @param subject the user or session performing it (for example
+     * "user:ID" or "session:ID")
+     * @return 0 if the request is allowed, otherwise the number of
+     *         milliseconds until it would be
+     */
+    public static long tryAcquire(Action action, String subject) {
+        AtomicLong bucket = bucketFor(action, subject);
+        long now = System.nanoTime();
+        while (true) {
+            long tat = bucket.get();
+            long next = Math.max(tat - now, 0) + now + action.intervalNanos;
+            long excess = next - now - action.windowNanos;
+            if (excess > 0) {
+                rejected.get(action).increment();
+                return Math.max(1, excess / 1_000_000);
+            }
+            if (bucket.compareAndSet(tat, next)) {
+                allowed.get(action).increment();
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Rounds a retry delay up to whole seconds, for messages and the
+     * Retry-After header.
+     *
+     * @param retryMillis the delay returned by tryAcquire
+     * @return the delay in seconds, at least 1
+     */
+    public static long toSeconds(long retryMillis) {
+        return Math.max(1, (retryMillis + 999) / 1000);
+    }
+
+    /**
+     * Removes every bucket that has refilled completely. Called periodically
+     * from the background scheduler.
+     */
+    public static void evictIdle() {
+        long now = System.nanoTime();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        evicted.add(before - buckets.size());
+    }
+
+    /**
+     * Returns the counters of every action.
+     *
+     * @return list of action statistics in declaration order
+     */
+    public static List<ActionStats> getStats() {
+        List<ActionStats> stats = new ArrayList<>();
+        for (Action action : Action.values()) {
+            stats.add(new ActionStats(action.name(), allowed.get(action).sum(), rejected.get(action).sum()));
+        }
+        return stats;
+    }
+
+    /**
+     * @return the number of buckets currently held in memory
+     */
+    public static int getBucketCount() {
+        return buckets.size();
+    }
+
+    /**
+     * @return the number of idle buckets evicted since startup
+     */
+    public static long getEvictedCount() {
+        return evicted.sum();
+    }
+
+    /**
+     * Looks up a subject's bucket for an action, creating it if needed. When
+     * the map is full after evicting idle buckets, the action's shared
+     * overflow bucket is used instead.
+     *
+     * @param action the action being performed
+     * @param subject the user or session performing it
+     * @return the bucket
+     */
+    private static AtomicLong bucketFor(Action action, String subject) {
+        String key = action.name() + ":" + (subject != null ? subject : "anonymous");
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= AppConfig.getRateLimitMaxBuckets()) {
+            evictIdle();
+            if (buckets.size() >= AppConfig.getRateLimitMaxBuckets()) {
+                key = action.name() + ":*";
+            }
+        }
+        AtomicLong created = new AtomicLong(System.nanoTime());
+        AtomicLong existing = buckets.putIfAbsent(key, created);
+        return existing != null ? existing : created;
+    }
+
+    /**
+     * Creates one counter per action.
+     *
+     * @return the counters
+     */
+    private static Map<Action, LongAdder> counters() {
+        Map<Action, LongAdder> map = new EnumMap<>(Action.class);
+        for (Action action : Action.values()) {
+            map.put(action, new LongAdder());
+        }
+        return map;
+    }
+
+    /**
+     * Counters of one rate-limited action.
+     */
+    public static class ActionStats {
+
+        private final String action; // Action name
+        private final long allowed; // Requests let through
+        private final long rejected; // Requests throttled
+
+        ActionStats(String action, long allowed, long rejected) {
+            this.action = action;
+            this.allowed = allowed;
+            this.rejected = rejected;
+        }
+
+        public String getAction() {
+            return action;
+        }
+
+        public long getAllowed() {
+            return allowed;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package Utils;
+
+import DAO.BorrowingDAO;
+import config.AppConfig;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Item-to-item recommendation engine ("people who borrowed this also
+ * borrowed") built from borrowing co-occurrence.
+ *
+ * Movie IDs are mapped to dense ints so the co-occurrence matrix can be kept
+ * as one sparse IntIntHashMap row per movie. A full rebuild splits the users
+ * across a fork/join pool, each task counting pairs into its own partial
+ * matrix, holding only the rows its users touch, which are then merged.
+ * Similarity is cosine-normalized (co-borrows / sqrt(borrowers of A *
+ * borrowers of B)) and only the top neighbours per movie are published. New
+ * borrowings update the counts incrementally and mark the rows they touch;
+ * a periodic refresh re-ranks those rows outside the lock, so a borrow never
+ * waits for ranking.
+ */
+public class RecommendationEngine {
+
+    private static final Object lock = new Object(); // Guards the matrix state below
+    private static Map<String, Integer> movieIndex = new HashMap<>(); // Movie ID -> dense int
+    private static List<String> movieIds = new ArrayList<>(); // Dense int -> movie ID
+    private static Map<String, IntIntHashMap> userMovies = new HashMap<>(); // User ID -> set of borrowed movie ints
+    private static IntIntHashMap[] coCounts = new IntIntHashMap[0]; // Sparse co-occurrence rows
+    private static int[] borrowerCounts = new int[0]; // Number of distinct borrowers per movie
+    private static volatile ConcurrentHashMap<String, List<String>> neighbours = new ConcurrentHashMap<>(); // Published top-N neighbours per movie ID
+    private static IntIntHashMap dirty = new IntIntHashMap(); // Movies whose neighbours must be re-ranked, as keys
+    private static int generation = 0; // Incremented by every rebuild, which renumbers the movies
+    private static boolean rebuilding = false; // True while a full rebuild is running
+    private static final List<String[]> pendingBorrows = new ArrayList<>(); // Borrows that arrived during a rebuild
+
+    private RecommendationEngine() {
+    }
+
+    /**
+     * Returns the IDs of the movies most often borrowed together with the
+     * given movie, most similar first.
+     *
+     * @param movieId the ID of the movie
+     * @param limit the maximum number of IDs to return
+     * @return list of similar movie IDs (empty if none are known)
+     */
+    public static List<String> getSimilarMovieIds(String movieId, int limit) {
+        List<String> similar = neighbours.getOrDefault(movieId, Collections.emptyList());
+        return similar.subList(0, Math.min(Math.max(limit, 0), similar.size()));
+    }
+
+    /**
+     * Incrementally records a borrowing. If the user had not borrowed the
+     * movie before, its co-occurrence counts with the user's other movies are
+     * increased and the affected movies are marked for the next refresh.
+     *
+     * @param userId the ID of the borrowing user
+     * @param movieId the ID of the borrowed movie
+     */
+    public static void recordBorrow(String userId, String movieId) {
+        if (userId == null || movieId == null) {
+            return;
+        }
+        synchronized (lock) {
+            if (rebuilding) {
+                pendingBorrows.add(new String[]{userId, movieId});
+                return;
+            }
+            applyBorrow(userId, movieId);
+        }
+    }
+
+    /**
+     * Applies a single borrowing to the matrix. Must be called while holding
+     * the lock.
+     *
+     * @param userId the ID of the borrowing user
+     * @param movieId the ID of the borrowed movie
+     */
+    private static void applyBorrow(String userId, String movieId) {
+        int movie = internMovie(movieId);
+        IntIntHashMap basket = userMovies.computeIfAbsent(userId, k -> new IntIntHashMap());
+        if (basket.containsKey(movie)) {
+            return; // Repeated borrows of the same movie do not count twice
+        }
+        borrowerCounts[movie]++;
+        List<Integer> touched = new ArrayList<>();
+        touched.add(movie);
+        if (basket.size() < AppConfig.getRecommendationMaxBasket()) {
+            basket.forEach((other, ignored) -> {
+                row(movie).addTo(other, 1);
+                row(other).addTo(movie, 1);
+                touched.add(other);
+            });
+        }
+        basket.addTo(movie, 1);
+        for (int m : touched) {
+            if (!dirty.containsKey(m)) {
+                dirty.addTo(m, 1);
+            }
+        }
+    }
+
+    /**
+     * Re-ranks the neighbours of the movies touched by borrowings since the
+     * last refresh. Their rows, the borrower counts and the IDs are copied
+     * under the lock and ranked outside it; the lists are published only if
+     * no rebuild replaced the matrix meanwhile (the rebuild ranked every
+     * movie itself). Runs periodically in the background.
+     */
+    public static void refreshNeighbours() {
+        int refreshGeneration;
+        Map<Integer, IntIntHashMap> rows = new HashMap<>();
+        int[] counts;
+        List<String> ids;
+        synchronized (lock) {
+            if (dirty.size() == 0) {
+                return;
+            }
+            refreshGeneration = generation;
+            dirty.forEach((movie, ignored) -> {
+                IntIntHashMap copy = new IntIntHashMap(coCounts[movie] != null ? coCounts[movie].size() : 0);
+                if (coCounts[movie] != null) {
+                    copy.addAll(coCounts[movie]);
+                }
+                rows.put(movie, copy);
+            });
+            dirty = new IntIntHashMap();
+            counts = Arrays.copyOf(borrowerCounts, movieIds.size());
+            ids = new ArrayList<>(movieIds);
+        }
+        IntIntHashMap[] snapshot = new IntIntHashMap[ids.size()];
+        rows.forEach((movie, row) -> snapshot[movie] = row);
+        Map<String, List<String>> ranked = new HashMap<>();
+        for (int movie : rows.keySet()) {
+            ranked.put(ids.get(movie), topNeighbours(movie, snapshot, counts, ids));
+        }
+        synchronized (lock) {
+            if (generation == refreshGeneration) {
+                neighbours.putAll(ranked);
+            }
+        }
+    }
+
+    /**
+     * Returns the dense int for a movie ID, assigning a new one and growing
+     * the matrix arrays if needed. Must be called while holding the lock.
+     *
+     * @param movieId the movie ID
+     * @return the dense int of the movie
+     */
+    private static int internMovie(String movieId) {
+        Integer existing = movieIndex.get(movieId);
+        if (existing != null) {
+            return existing;
+        }
+        int index = movieIds.size();
+        movieIds.add(movieId);
+        movieIndex.put(movieId, index);
+        if (index >= coCounts.length) {
+            int capacity = Math.max(16, coCounts.length * 2);
+            IntIntHashMap[] grownRows = new IntIntHashMap[capacity];
+            System.arraycopy(coCounts, 0, grownRows, 0, coCounts.length);
+            coCounts = grownRows;
+            int[] grownCounts = new int[capacity];
+            System.arraycopy(borrowerCounts, 0, grownCounts, 0, borrowerCounts.length);
+            borrowerCounts = grownCounts;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the co-occurrence row of a movie, creating it if needed.
+     *
+     * @param movie the dense int of the movie
+     * @return the row
+     */
+    private static IntIntHashMap row(int movie) {
+        if (coCounts[movie] == null) {
+            coCounts[movie] = new IntIntHashMap();
+        }
+        return coCounts[movie];
+    }
+
+    /**
+     * Rebuilds the whole matrix from the BORROWINGS table. Pairs are streamed
+     * from the database grouped by user, counted in parallel on a fork/join
+     * pool sized to the number of cores, and the result is swapped in
+     * atomically. Borrowings recorded while the rebuild runs are replayed
+     * afterwards so none are lost. If the borrowings cannot be read in full,
+     * the current matrix is kept.
+     */
+    public static void rebuild() {
+        synchronized (lock) {
+            if (rebuilding) {
+                System.out.println("ℹ️ Recommendation rebuild already running.");
+                return;
+            }
+            rebuilding = true;
+        }
+        long start = System.currentTimeMillis();
+        Map<String, Integer> newIndex = new HashMap<>();
+        List<String> newIds = new ArrayList<>();
+        Map<String, IntIntHashMap> newUserMovies = new HashMap<>();
+        try {
+            boolean complete = BorrowingDAO.forEachUserMoviePair((userId, movieId) -> {
+                Integer movie = newIndex.get(movieId);
+                if (movie == null) {
+                    movie = newIds.size();
+                    newIds.add(movieId);
+                    newIndex.put(movieId, movie);
+                }
+                newUserMovies.computeIfAbsent(userId, k -> new IntIntHashMap()).addTo(movie, 1);
+            });
+            if (!complete) {
+                System.err.println("❌ Recommendation rebuild aborted; keeping the current recommendations.");
+                return;
+            }
+            int movieCount = newIds.size();
+            List<int[]> baskets = new ArrayList<>(newUserMovies.size());
+            int[] newBorrowerCounts = new int[Math.max(16, movieCount)];
+            for (IntIntHashMap basket : newUserMovies.values()) {
+                int[] items = new int[basket.size()];
+                int[] position = {0};
+                basket.forEach((movie, ignored) -> {
+                    items[position[0]++] = movie;
+                    newBorrowerCounts[movie]++;
+                });
+                if (items.length > 1 && items.length <= AppConfig.getRecommendationMaxBasket()) {
+                    baskets.add(items);
+                }
+            }
+
+            ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+            IntIntHashMap[] newCoCounts = new IntIntHashMap[newBorrowerCounts.length];
+            ConcurrentHashMap<String, List<String>> newNeighbours = new ConcurrentHashMap<>();
+            try {
+                pool.invoke(new CountTask(baskets, 0, baskets.size())).forEach((movie, row) -> newCoCounts[movie] = row);
+                pool.invoke(new RankTask(0, movieCount, newCoCounts, newBorrowerCounts, newIds, newNeighbours));
+            } finally {
+                pool.shutdown();
+            }
+
+            synchronized (lock) {
+                movieIndex = newIndex;
+                movieIds = newIds;
+                userMovies = newUserMovies;
+                coCounts = newCoCounts;
+                borrowerCounts = newBorrowerCounts;
+                neighbours = newNeighbours;
+                dirty = new IntIntHashMap();
+                generation++;
+                for (String[] borrow : pendingBorrows) {
+                    applyBorrow(borrow[0], borrow[1]);
+                }
+                pendingBorrows.clear();
+            }
+            System.out.println("✅ Recommendations rebuilt: " + movieCount + " movies, " + baskets.size()
+                    + " users in " + (System.currentTimeMillis() - start) + " ms.");
+        } finally {
+            synchronized (lock) {
+                for (String[] borrow : pendingBorrows) {
+                    applyBorrow(borrow[0], borrow[1]); // Only left if the rebuild did not swap in a new matrix
+                }
+                pendingBorrows.clear();
+                rebuilding = false;
+            }
+        }
+    }
+
+    /**
+     * Selects the most similar movies of one row by cosine similarity.
+     *
+     * @param movie the dense int of the movie
+     * @param rows the co-occurrence rows
+     * @param counts the number of borrowers per movie
+     * @param ids the movie IDs by dense int
+     * @return the IDs of the top neighbours, most similar first
+     */
+    private static List<String> topNeighbours(int movie, IntIntHashMap[] rows, int[] counts, List<String> ids) {
+        IntIntHashMap row = rows[movie];
+        if (row == null || row.size() == 0) {
+            return Collections.emptyList();
+        }
+        int limit = AppConfig.getRecommendationNeighbours();
+        PriorityQueue<double[]> heap = new PriorityQueue<>((a, b) -> Double.compare(a[1], b[1]));
+        row.forEach((other, together) -> {
+            heap.offer(new double[]{other, together / Math.sqrt((double) counts[movie] * counts[other])});
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        });
+        List<String> top = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            top.add(ids.get((int) heap.poll()[0]));
+        }
+        Collections.reverse(top);
+        return Collections.unmodifiableList(top);
+    }
+
+    /**
+     * Counts co-occurrences for a range of user baskets, splitting the range
+     * in half until it is small enough and merging the partial matrices. A
+     * partial matrix holds only the rows of the movies its users borrowed.
+     */
+    private static class CountTask extends RecursiveTask<Map<Integer, IntIntHashMap>> {
+
+        private static final long serialVersionUID = 1L;
+        private final List<int[]> baskets;
+        private final int from;
+        private final int to;
+
+        CountTask(List<int[]> baskets, int from, int to) {
+            this.baskets = baskets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<Integer, IntIntHashMap> compute() {
+            if (to - from <= AppConfig.getRecommendationSplitThreshold()) {
+                Map<Integer, IntIntHashMap> rows = new HashMap<>();
+                for (int i = from; i < to; i++) {
+                    int[] items = baskets.get(i);
+                    for (int a : items) {
+                        IntIntHashMap row = rows.computeIfAbsent(a, k -> new IntIntHashMap());
+                        for (int b : items) {
+                            if (a != b) {
+                                row.addTo(b, 1);
+                            }
+                        }
+                    }
+                }
+                return rows;
+            }
+            int middle = (from + to) >>> 1;
+            CountTask left = new CountTask(baskets, from, middle);
+            left.fork();
+            Map<Integer, IntIntHashMap> right = new CountTask(baskets, middle, to).compute();
+            Map<Integer, IntIntHashMap> merged = left.join();
+            right.forEach((movie, row) -> merged.merge(movie, row, (existing, added) -> {
+                existing.addAll(added);
+                return existing;
+            }));
+            return merged;
+        }
+    }
+
+    /**
+     * Computes the published neighbour lists for a range of movies in
+     * parallel.
+     */
+    private static class RankTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+        private final IntIntHashMap[] rows;
+        private final int[] counts;
+        private final List<String> ids;
+        private final Map<String, List<String>> result;
+
+        RankTask(int from, int to, IntIntHashMap[] rows, int[] counts, List<String> ids, Map<String, List<String>> result) {
+            this.from = from;
+            this.to = to;
+            this.rows = rows;
+            this.counts = counts;
+            this.ids = ids;
+            this.result = result;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= AppConfig.getRecommendationSplitThreshold()) {
+                for (int m = from; m < to; m++) {
+                    List<String> top = topNeighbours(m, rows, counts, ids);
+                    if (!top.isEmpty()) {
+                        result.put(ids.get(m), top);
+                    }
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RankTask(from, middle, rows, counts, ids, result),
+                    new RankTask(middle, to, rows, counts, ids, result));
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package Utils;
+
+import DAO.BorrowingDAO;
+import config.AppConfig;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Application-wide tracker of "trending now" scores for movies.
+ *
+ * Each borrow adds a weight that decays exponentially with the configured
+ * half-life. Scores are kept in forward-decay form: a borrow at time t adds
+ * e^(lambda * (t - landmark)) to the movie's raw score, so older borrows never
+ * have to be touched again and ranking is a plain comparison of raw scores.
+ * When the exponent grows too large, all raw scores are rescaled once and the
+ * landmark is moved forward, which keeps updates O(1) amortized. The ranked
+ * list is cached and rebuilt at most once per refresh interval.
+ */
+public class TrendingTracker {
+
+    private static final double LAMBDA = Math.log(2) / (AppConfig.getTrendingHalfLifeHours() * 3_600_000.0); // Decay rate per millisecond
+    private static final Map<String, double[]> rawScores = new ConcurrentHashMap<>(); // Raw forward-decayed score per movie ID (single-element array used as a mutable cell)
+    private static final ReentrantReadWriteLock rescaleLock = new ReentrantReadWriteLock(); // Updates share the read lock, rescaling takes the write lock
+    private static volatile long landmark = System.currentTimeMillis(); // Reference time of the raw scores
+    private static volatile List<String> rankedIds = Collections.emptyList(); // Cached ranking, best first
+    private static volatile long rankedAt = 0; // Time the cached ranking was built
+
+    private TrendingTracker() {
+    }
+
+    /**
+     * Records a single borrow of a movie at the given time.
+     *
+     * @param movieId the ID of the borrowed movie
+     * @param borrowDate the time of the borrow
+     */
+    public static void recordBorrow(String movieId, Date borrowDate) {
+        record(movieId, borrowDate != null ? borrowDate.getTime() : System.currentTimeMillis(), 1);
+    }
+
+    /**
+     * Adds a weighted borrow count for a movie at the given time. The rescale
+     * check is a single comparison and only rarely triggers a rescale.
+     *
+     * @param movieId the ID of the movie
+     * @param time the time of the borrows in milliseconds
+     * @param count the number of borrows to add
+     */
+    private static void record(String movieId, long time, int count) {
+        if (movieId == null || count <= 0) {
+            return;
+        }
+        if (LAMBDA * (time - landmark) > AppConfig.getTrendingMaxExponent()) {
+            rescale(time);
+        }
+        rescaleLock.readLock().lock();
+        try {
+            double weight = count * Math.exp(LAMBDA * (time - landmark));
+            double[] cell = rawScores.computeIfAbsent(movieId, k -> new double[1]);
+            synchronized (cell) {
+                cell[0] += weight;
+            }
+        } finally {
+            rescaleLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Moves the landmark to the given time and scales every raw score down by
+     * the same factor. Ranking is unaffected. Scores that decayed below the
+     * configured floor are dropped so the map does not grow without bound.
+     *
+     * @param newLandmark the new reference time in milliseconds
+     */
+    private static void rescale(long newLandmark) {
+        rescaleLock.writeLock().lock();
+        try {
+            if (LAMBDA * (newLandmark - landmark) <= AppConfig.getTrendingMaxExponent()) {
+                return; // Another thread already rescaled
+            }
+            double factor = Math.exp(-LAMBDA * (newLandmark - landmark));
+            rawScores.entrySet().removeIf(entry -> {
+                entry.getValue()[0] *= factor;
+                return entry.getValue()[0] < AppConfig.getTrendingMinScore();
+            });
+            landmark = newLandmark;
+            System.out.println("📈 Trending scores rescaled (" + rawScores.size() + " movies).");
+        } finally {
+            rescaleLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the current decayed score of a movie, equal to the number of
+     * borrows weighted by their age.
+     *
+     * @param movieId the ID of the movie
+     * @return the decayed score, or 0 if the movie has no recent borrows
+     */
+    public static double getScore(String movieId) {
+        double[] cell = rawScores.get(movieId);
+        if (cell == null) {
+            return 0.0;
+        }
+        return cell[0] * Math.exp(-LAMBDA * (System.currentTimeMillis() - landmark));
+    }
+
+    /**
+     * Returns the IDs of the highest scoring movies, best first. The ranking
+     * is served from a cache that is rebuilt at most once per refresh interval.
+     *
+     * @param limit the maximum number of IDs to return
+     * @return list of movie IDs ordered by trending score
+     */
+    public static List<String> getTopMovieIds(int limit) {
+        long now = System.currentTimeMillis();
+        if (now - rankedAt > AppConfig.getTrendingRefreshMillis()) {
+            rankedIds = buildRanking(AppConfig.getTrendingMaxRanked());
+            rankedAt = now;
+        }
+        List<String> ranked = rankedIds;
+        return ranked.subList(0, Math.min(Math.max(limit, 0), ranked.size()));
+    }
+
+    /**
+     * Selects the top entries with a bounded min-heap.
+     *
+     * @param size the maximum number of entries to keep
+     * @return list of movie IDs ordered by score, best first
+     */
+    private static List<String> buildRanking(int size) {
+        PriorityQueue<Map.Entry<String, Double>> heap = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<String, double[]> entry : rawScores.entrySet()) {
+            heap.offer(Map.entry(entry.getKey(), entry.getValue()[0]));
+            if (heap.size() > size) {
+                heap.poll();
+            }
+        }
+        List<String> ranked = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            ranked.add(heap.poll().getKey());
+        }
+        Collections.reverse(ranked);
+        return ranked;
+    }
+
+    /**
+     * Forces the cached ranking to be rebuilt on the next read.
+     */
+    public static void invalidateRanking() {
+        rankedAt = 0;
+    }
+
+    /**
+     * Seeds the scores from recent borrowings when the application starts.
+     * Only the warm-up window is read (older borrows have decayed to
+     * practically nothing), aggregated per movie and day by the database.
+     */
+    public static void warmUp() {
+        long since = System.currentTimeMillis() - AppConfig.getTrendingWarmUpDays() * 86_400_000L;
+        Map<String, Map<Date, Integer>> counts = BorrowingDAO.getDailyBorrowCountsSince(new java.sql.Date(since));
+        for (Map.Entry<String, Map<Date, Integer>> movie : counts.entrySet()) {
+            for (Map.Entry<Date, Integer> day : movie.getValue().entrySet()) {
+                record(movie.getKey(), day.getKey().getTime(), day.getValue());
+            }
+        }
+        invalidateRanking();
+        System.out.println("📈 Trending scores loaded for " + counts.size() + " movies.");
+    }
+}
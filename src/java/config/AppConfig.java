@@ -1,5 +1,6 @@
 package config;
 
+import java.io.File;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
@@ -52,7 +53,6 @@ public class AppConfig {
     private static final double POPULAR_RATING_THRESHOLD = 4.0;
     private static final String DEFAULT_IMAGE_PATH = "/resources/images/default.PNG";
     private static final String DEFAULT_MOVIE_TITLE = "Unknown Title";
-    private static final String BASE64_IMAGE_PREFIX = "data:image/png;base64,";
 
     // === Credit Card Validation ===
     public static final int CREDIT_CARD_LENGTH = 16;
@@ -69,6 +69,104 @@ public class AppConfig {
     private static final int INVALID_RATING = 0;
     private static final double DEFAULT_AVERAGE_RATING = 0.0;
 
+    // Trending Settings
+    private static final double TRENDING_HALF_LIFE_HOURS = 72.0;
+    private static final double TRENDING_MAX_EXPONENT = 50.0;
+    private static final double TRENDING_MIN_SCORE = 1e-3;
+    private static final long TRENDING_REFRESH_MILLIS = 30_000;
+    private static final int TRENDING_MAX_RANKED = 60;
+    private static final int TRENDING_WARM_UP_DAYS = 30;
+
+    // Recommendation Settings
+    private static final int RECOMMENDATION_NEIGHBOURS = 12;
+    private static final int RECOMMENDATION_DISPLAYED = 6;
+    private static final int RECOMMENDATION_MAX_BASKET = 500;
+    private static final int RECOMMENDATION_SPLIT_THRESHOLD = 16_384;
+    private static final int RECOMMENDATION_FETCH_SIZE = 10_000;
+    private static final long RECOMMENDATION_REFRESH_MILLIS = 10_000;
+
+    // Inventory Settings
+    private static final int INVENTORY_RECOUNT_CHUNK_SIZE = 1_000;
+    private static final int INVENTORY_RECOUNT_MAX_REPORTED = 200;
+    private static final int INVENTORY_SNAPSHOT_INTERVAL = 50;
+
+    // Reservation Settings
+    private static final long RESERVATION_HOLD_MILLIS = 48L * 60 * 60 * 1000;
+    private static final long RESERVATION_SWEEP_MILLIS = 60 * 1000;
+    private static final int RESERVATION_SWEEP_BATCH_SIZE = 500;
+    private static final int RESERVATION_ASSIGN_CANDIDATES = 20;
+
+    // Loan Period and Overdue Scan Settings
+    private static final int LOAN_PERIOD_DAYS = 14;
+    private static final long OVERDUE_SCAN_MILLIS = 5 * 60 * 1000;
+    private static final int OVERDUE_BATCH_SIZE = 500;
+    private static final int OVERDUE_DASHBOARD_LIMIT = 100;
+
+    // Bulk Operation Settings
+    private static final int BULK_CHUNK_SIZE = 500;
+
+    // Movie Lock Settings
+    private static final int MOVIE_LOCK_STRIPES = 64;
+
+    // REST API Settings
+    private static final int API_PAGE_DEFAULT_SIZE = 20;
+    private static final int API_PAGE_MAX_SIZE = 100;
+    private static final int API_EXPORT_FETCH_SIZE = 500;
+    private static final int API_MAX_CONCURRENT_REQUESTS = 32;
+    private static final long API_GATE_WAIT_MILLIS = 5 * 1000;
+    private static final int API_FALLBACK_POOL_SIZE = 64;
+    private static final int API_QUEUE_CAPACITY = 1_000;
+    private static final int CATALOG_CHANGE_LOG_CAPACITY = 10_000;
+
+    // Rate Limit Settings
+    private static final int RATE_LIMIT_BORROW_PER_MINUTE = 10;
+    private static final int RATE_LIMIT_BORROW_BURST = 5;
+    private static final int RATE_LIMIT_REVIEW_PER_MINUTE = 5;
+    private static final int RATE_LIMIT_REVIEW_BURST = 3;
+    private static final int RATE_LIMIT_MAX_BUCKETS = 50_000;
+    private static final long RATE_LIMIT_EVICT_MILLIS = 60 * 1000;
+
+    // Idempotency Settings
+    private static final int IDEMPOTENCY_CAPACITY = 10_000;
+    private static final long IDEMPOTENCY_TTL_MILLIS = 10 * 60 * 1000;
+    private static final long IDEMPOTENCY_WAIT_MILLIS = 10 * 1000;
+
+    // Home Feed Settings
+    private static final int HOME_FEED_SIZE = 18;
+    private static final int HOME_FEED_CACHE_SIZE = 1_000;
+    private static final long HOME_FEED_TTL_MILLIS = 10 * 60 * 1000;
+    private static final long HOME_FEED_CATALOG_REFRESH_MILLIS = 60 * 1000;
+
+    // Live Availability Settings
+    private static final int LIVE_MAX_SUBSCRIBERS = 1_000;
+    private static final int LIVE_CLIENT_BUFFER_SIZE = 32;
+    private static final long LIVE_FLUSH_MILLIS = 1000;
+    private static final long LIVE_HEARTBEAT_MILLIS = 20 * 1000;
+    private static final long LIVE_RECONNECT_MILLIS = 5 * 1000;
+
+    // Compression Settings
+    private static final int COMPRESSION_MIN_BYTES = 1_024;
+    private static final int COMPRESSION_LEVEL = 6;
+    private static final int COMPRESSION_POOL_SIZE = 16;
+
+    // Poster Store Settings
+    private static final String POSTER_STORE_DIR = "almoviland-posters";
+    private static final long POSTER_SWEEP_MILLIS = 6 * 60 * 60 * 1000;
+    private static final long POSTER_ORPHAN_GRACE_MILLIS = 60 * 60 * 1000;
+
+    // Poster Rendition Settings
+    private static final int POSTER_THUMBNAIL_WIDTH = 100; // Tables and small thumbnails
+    private static final int POSTER_CARD_WIDTH = 200; // Movie cards and detail dialogs
+    private static final int POSTER_RETINA_WIDTH = 400; // Cards and dialogs on high-density screens
+    private static final float POSTER_RENDITION_QUALITY = 0.8f;
+    private static final int POSTER_RENDITION_THREADS = 2;
+    private static final int POSTER_RENDITION_QUEUE_CAPACITY = 100;
+    private static final long POSTER_MAX_PIXELS = 40_000_000L; // Larger images are not decoded
+
+    // Background Task Settings
+    private static final int BACKGROUND_POOL_SIZE = 2;
+    private static final int BACKGROUND_QUEUE_CAPACITY = 100;
+
     /**
      * @return the default admin ID
      */
@@ -218,16 +316,6 @@ public class AppConfig {
         return DEFAULT_MOVIE_TITLE;
     }
 
-    /**
-     * Returns the prefix used for base64-encoded PNG images. This is typically
-     * used in <img> tags to embed images directly as data URIs.
-     *
-     * @return the base64 image prefix string
-     */
-    public static String getBase64ImagePrefix() {
-        return BASE64_IMAGE_PREFIX;
-    }
-
     /**
      * Returns the required length of a valid credit card number.
      *
@@ -324,4 +412,494 @@ public class AppConfig {
         return LOSS_CHARGE_AMOUNT;
     }
 
+    /**
+     * @return the half-life of a borrow's weight in the trending score, in
+     *         hours
+     */
+    public static double getTrendingHalfLifeHours() {
+        return TRENDING_HALF_LIFE_HOURS;
+    }
+
+    /**
+     * @return the largest decay exponent allowed before trending scores are
+     *         rescaled
+     */
+    public static double getTrendingMaxExponent() {
+        return TRENDING_MAX_EXPONENT;
+    }
+
+    /**
+     * @return the decayed trending score below which a movie is dropped
+     */
+    public static double getTrendingMinScore() {
+        return TRENDING_MIN_SCORE;
+    }
+
+    /**
+     * @return how long the cached trending ranking is reused, in milliseconds
+     */
+    public static long getTrendingRefreshMillis() {
+        return TRENDING_REFRESH_MILLIS;
+    }
+
+    /**
+     * @return the maximum number of movies kept in the trending ranking
+     */
+    public static int getTrendingMaxRanked() {
+        return TRENDING_MAX_RANKED;
+    }
+
+    /**
+     * @return the number of past days of borrowings read when trending scores
+     *         are loaded at startup
+     */
+    public static int getTrendingWarmUpDays() {
+        return TRENDING_WARM_UP_DAYS;
+    }
+
+    /**
+     * @return the number of similar movies kept per movie by the
+     *         recommendation engine
+     */
+    public static int getRecommendationNeighbours() {
+        return RECOMMENDATION_NEIGHBOURS;
+    }
+
+    /**
+     * @return the number of similar movies shown on the movie details page
+     */
+    public static int getRecommendationDisplayed() {
+        return RECOMMENDATION_DISPLAYED;
+    }
+
+    /**
+     * @return the largest number of distinct movies per user that still
+     *         counts towards co-occurrence (larger histories add only noise)
+     */
+    public static int getRecommendationMaxBasket() {
+        return RECOMMENDATION_MAX_BASKET;
+    }
+
+    /**
+     * @return the number of users or movies handled by one fork/join task
+     *         before it is split
+     */
+    public static int getRecommendationSplitThreshold() {
+        return RECOMMENDATION_SPLIT_THRESHOLD;
+    }
+
+    /**
+     * @return the JDBC fetch size used when streaming borrowings for a
+     *         recommendation rebuild
+     */
+    public static int getRecommendationFetchSize() {
+        return RECOMMENDATION_FETCH_SIZE;
+    }
+
+    /**
+     * @return the interval in milliseconds between re-rankings of the
+     *         neighbours touched by new borrowings
+     */
+    public static long getRecommendationRefreshMillis() {
+        return RECOMMENDATION_REFRESH_MILLIS;
+    }
+
+    /**
+     * @return the number of threads running background tasks
+     */
+    public static int getBackgroundPoolSize() {
+        return BACKGROUND_POOL_SIZE;
+    }
+
+    /**
+     * @return the maximum number of background tasks waiting to run
+     */
+    public static int getBackgroundQueueCapacity() {
+        return BACKGROUND_QUEUE_CAPACITY;
+    }
+
+    /**
+     * @return the maximum number of movies in a user's personalized feed
+     */
+    public static int getHomeFeedSize() {
+        return HOME_FEED_SIZE;
+    }
+
+    /**
+     * @return the maximum number of users whose feed is kept in memory
+     */
+    public static int getHomeFeedCacheSize() {
+        return HOME_FEED_CACHE_SIZE;
+    }
+
+    /**
+     * @return how long a computed feed is served before it is recomputed, in
+     *         milliseconds
+     */
+    public static long getHomeFeedTtlMillis() {
+        return HOME_FEED_TTL_MILLIS;
+    }
+
+    /**
+     * @return how long the catalog snapshot used for feed computation is
+     *         reused, in milliseconds
+     */
+    public static long getHomeFeedCatalogRefreshMillis() {
+        return HOME_FEED_CATALOG_REFRESH_MILLIS;
+    }
+
+    /**
+     * @return the number of movies recounted per transaction
+     */
+    public static int getInventoryRecountChunkSize() {
+        return INVENTORY_RECOUNT_CHUNK_SIZE;
+    }
+
+    /**
+     * @return the maximum number of discrepancies kept in the recount report
+     */
+    public static int getInventoryRecountMaxReported() {
+        return INVENTORY_RECOUNT_MAX_REPORTED;
+    }
+
+    /**
+     * @return how long a returned copy is held for the next user in the
+     *         waitlist, in milliseconds
+     */
+    public static long getReservationHoldMillis() {
+        return RESERVATION_HOLD_MILLIS;
+    }
+
+    /**
+     * @return the interval between sweeps for expired holds, in milliseconds
+     */
+    public static long getReservationSweepMillis() {
+        return RESERVATION_SWEEP_MILLIS;
+    }
+
+    /**
+     * @return the maximum number of expired holds read per sweep batch
+     */
+    public static int getReservationSweepBatchSize() {
+        return RESERVATION_SWEEP_BATCH_SIZE;
+    }
+
+    /**
+     * @return how many waiting reservations are tried when assigning a copy
+     */
+    public static int getReservationAssignCandidates() {
+        return RESERVATION_ASSIGN_CANDIDATES;
+    }
+
+    /**
+     * @return the maximum number of idempotency keys remembered at once
+     */
+    public static int getIdempotencyCapacity() {
+        return IDEMPOTENCY_CAPACITY;
+    }
+
+    /**
+     * @return how long an idempotency key is remembered, in milliseconds
+     */
+    public static long getIdempotencyTtlMillis() {
+        return IDEMPOTENCY_TTL_MILLIS;
+    }
+
+    /**
+     * @return how long a replayed request waits for the original request to
+     *         finish, in milliseconds
+     */
+    public static long getIdempotencyWaitMillis() {
+        return IDEMPOTENCY_WAIT_MILLIS;
+    }
+
+    /**
+     * @return the number of lock stripes serializing same-movie inventory
+     *         changes (rounded up to a power of two)
+     */
+    public static int getMovieLockStripes() {
+        return MOVIE_LOCK_STRIPES;
+    }
+
+    /**
+     * @return the maximum number of IDs bound into one IN query by bulk
+     *         operations
+     */
+    public static int getBulkChunkSize() {
+        return BULK_CHUNK_SIZE;
+    }
+
+    /**
+     * @return the number of days a borrowed movie may be kept
+     */
+    public static int getLoanPeriodDays() {
+        return LOAN_PERIOD_DAYS;
+    }
+
+    /**
+     * @return the interval between overdue scans, in milliseconds
+     */
+    public static long getOverdueScanMillis() {
+        return OVERDUE_SCAN_MILLIS;
+    }
+
+    /**
+     * @return the maximum number of borrowings marked overdue per batch
+     */
+    public static int getOverdueBatchSize() {
+        return OVERDUE_BATCH_SIZE;
+    }
+
+    /**
+     * @return the maximum number of overdue borrowings listed on the admin
+     *         dashboard
+     */
+    public static int getOverdueDashboardLimit() {
+        return OVERDUE_DASHBOARD_LIMIT;
+    }
+
+    /**
+     * @return the number of ledger events after which a movie's inventory
+     *         snapshot is taken
+     */
+    public static int getInventorySnapshotInterval() {
+        return INVENTORY_SNAPSHOT_INTERVAL;
+    }
+
+    /**
+     * @return the number of borrow requests a user may make per minute
+     */
+    public static int getRateLimitBorrowPerMinute() {
+        return RATE_LIMIT_BORROW_PER_MINUTE;
+    }
+
+    /**
+     * @return the number of borrow requests a user may make back to back
+     */
+    public static int getRateLimitBorrowBurst() {
+        return RATE_LIMIT_BORROW_BURST;
+    }
+
+    /**
+     * @return the number of review submissions a user may make per minute
+     */
+    public static int getRateLimitReviewPerMinute() {
+        return RATE_LIMIT_REVIEW_PER_MINUTE;
+    }
+
+    /**
+     * @return the number of review submissions a user may make back to back
+     */
+    public static int getRateLimitReviewBurst() {
+        return RATE_LIMIT_REVIEW_BURST;
+    }
+
+    /**
+     * @return the maximum number of rate-limit buckets kept in memory
+     */
+    public static int getRateLimitMaxBuckets() {
+        return RATE_LIMIT_MAX_BUCKETS;
+    }
+
+    /**
+     * @return the interval between evictions of idle rate-limit buckets, in
+     *         milliseconds
+     */
+    public static long getRateLimitEvictMillis() {
+        return RATE_LIMIT_EVICT_MILLIS;
+    }
+
+    /**
+     * @return the number of items in a REST API page when no limit is given
+     */
+    public static int getApiPageDefaultSize() {
+        return API_PAGE_DEFAULT_SIZE;
+    }
+
+    /**
+     * @return the maximum number of items a REST API page may hold
+     */
+    public static int getApiPageMaxSize() {
+        return API_PAGE_MAX_SIZE;
+    }
+
+    /**
+     * @return the number of rows fetched at a time by the streaming catalog
+     *         export
+     */
+    public static int getApiExportFetchSize() {
+        return API_EXPORT_FETCH_SIZE;
+    }
+
+    /**
+     * @return the maximum number of REST requests using the database at once
+     */
+    public static int getApiMaxConcurrentRequests() {
+        return API_MAX_CONCURRENT_REQUESTS;
+    }
+
+    /**
+     * @return how long a REST request waits for a database permit before it
+     *         is rejected, in milliseconds
+     */
+    public static long getApiGateWaitMillis() {
+        return API_GATE_WAIT_MILLIS;
+    }
+
+    /**
+     * @return the number of platform threads running REST requests when
+     *         virtual threads are not available
+     */
+    public static int getApiFallbackPoolSize() {
+        return API_FALLBACK_POOL_SIZE;
+    }
+
+    /**
+     * @return the maximum number of REST requests queued for the fallback
+     *         thread pool
+     */
+    public static int getApiQueueCapacity() {
+        return API_QUEUE_CAPACITY;
+    }
+
+    /**
+     * @return the number of recent catalog changes kept for delta sync;
+     *         clients further behind must resync
+     */
+    public static int getCatalogChangeLogCapacity() {
+        return CATALOG_CHANGE_LOG_CAPACITY;
+    }
+
+    /**
+     * @return the maximum number of open live availability streams
+     */
+    public static int getLiveMaxSubscribers() {
+        return LIVE_MAX_SUBSCRIBERS;
+    }
+
+    /**
+     * @return the number of events buffered for a slow subscriber before
+     *         the oldest ones are dropped
+     */
+    public static int getLiveClientBufferSize() {
+        return LIVE_CLIENT_BUFFER_SIZE;
+    }
+
+    /**
+     * @return the interval in milliseconds at which pending availability
+     *         changes are sent
+     */
+    public static long getLiveFlushMillis() {
+        return LIVE_FLUSH_MILLIS;
+    }
+
+    /**
+     * @return the interval in milliseconds of keep-alive comments on idle
+     *         streams
+     */
+    public static long getLiveHeartbeatMillis() {
+        return LIVE_HEARTBEAT_MILLIS;
+    }
+
+    /**
+     * @return the delay in milliseconds browsers wait before reconnecting a
+     *         dropped stream
+     */
+    public static long getLiveReconnectMillis() {
+        return LIVE_RECONNECT_MILLIS;
+    }
+
+    /**
+     * @return the size in bytes above which response bodies are
+     *         gzip-compressed
+     */
+    public static int getCompressionMinBytes() {
+        return COMPRESSION_MIN_BYTES;
+    }
+
+    /**
+     * @return the deflate level of responses compressed on the fly, from 1
+     *         (fastest) to 9 (smallest)
+     */
+    public static int getCompressionLevel() {
+        return COMPRESSION_LEVEL;
+    }
+
+    /**
+     * @return the maximum number of idle deflaters kept for reuse
+     */
+    public static int getCompressionPoolSize() {
+        return COMPRESSION_POOL_SIZE;
+    }
+
+    /**
+     * @return the directory of the poster store, next to the Derby database
+     *         (derby.system.home, or the working directory if it is not set)
+     */
+    public static String getPosterStoreDir() {
+        return System.getProperty("derby.system.home", System.getProperty("user.dir")) + File.separator + POSTER_STORE_DIR;
+    }
+
+    /**
+     * @return the interval in milliseconds of the sweep that deletes
+     *         unreferenced poster files
+     */
+    public static long getPosterSweepMillis() {
+        return POSTER_SWEEP_MILLIS;
+    }
+
+    /**
+     * @return how long in milliseconds a poster file must be unchanged
+     *         before the sweep may delete it, so uploads in progress are kept
+     */
+    public static long getPosterOrphanGraceMillis() {
+        return POSTER_ORPHAN_GRACE_MILLIS;
+    }
+
+    /**
+     * @return the widths in pixels of the scaled copies made of every
+     *         poster, smallest first
+     */
+    public static int[] getPosterRenditionWidths() {
+        return new int[]{POSTER_THUMBNAIL_WIDTH, POSTER_CARD_WIDTH, POSTER_RETINA_WIDTH};
+    }
+
+    /**
+     * @return the rendition width used as the plain src of poster images,
+     *         for browsers that ignore srcset
+     */
+    public static int getPosterCardWidth() {
+        return POSTER_CARD_WIDTH;
+    }
+
+    /**
+     * @return the JPEG quality of poster renditions, between 0 and 1
+     */
+    public static float getPosterRenditionQuality() {
+        return POSTER_RENDITION_QUALITY;
+    }
+
+    /**
+     * @return the number of threads that make poster renditions (each
+     *         holds a decoded image)
+     */
+    public static int getPosterRenditionThreads() {
+        return POSTER_RENDITION_THREADS;
+    }
+
+    /**
+     * @return the number of posters that may wait for their renditions;
+     *         the others are picked up when first requested
+     */
+    public static int getPosterRenditionQueueCapacity() {
+        return POSTER_RENDITION_QUEUE_CAPACITY;
+    }
+
+    /**
+     * @return the largest number of pixels of a poster that renditions are
+     *         made from; larger posters are served as uploaded
+     */
+    public static long getPosterMaxPixels() {
+        return POSTER_MAX_PIXELS;
+    }
 }
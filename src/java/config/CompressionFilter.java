@@ -0,0 +1,283 @@
+package config;
+
+import Utils.CompressingOutputStream;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compresses the responses of the Faces Servlet for clients that accept
+ * gzip.
+ *
+ * Pages are compressed on the fly once they exceed the configured size (see
+ * CompressingOutputStream). Stylesheets and scripts requested through the
+ * JSF resource handler are served from the .gz copies made by the build
+ * (resources/css/styles.css.gz next to styles.css), written straight from
+ * the file channel with the right Content-Encoding, so they are compressed
+ * once per build instead of once per request. A missing or outdated .gz
+ * falls back to the normal resource handler. JSON from the REST API is
+ * compressed by MovieService.GzipWriterInterceptor.
+ */
+@WebFilter(filterName = "CompressionFilter", urlPatterns = {"*.xhtml", "/faces/*"})
+public class CompressionFilter implements Filter {
+
+    private static final String RESOURCE_PREFIX = "/jakarta.faces.resource/"; // Path of JSF resource requests
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain) throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) req;
+        HttpServletResponse response = (HttpServletResponse) res;
+        response.addHeader("Vary", "Accept-Encoding");
+        if (!CompressingOutputStream.acceptsGzip(request.getHeader("Accept-Encoding"))) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (servePrecompressed(request, response)) {
+            return;
+        }
+        GzipResponse wrapper = new GzipResponse(response);
+        try {
+            chain.doFilter(request, wrapper);
+            wrapper.finish();
+        } finally {
+            wrapper.release();
+        }
+    }
+
+    /**
+     * Serves a JSF resource from its precompressed copy, if the build made
+     * one and it is not older than the resource.
+     *
+     * @param request the request
+     * @param response the response
+     * @return true if the response was handled
+     * @throws IOException if writing the response fails
+     */
+    private boolean servePrecompressed(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!request.getMethod().equals("GET") && !request.getMethod().equals("HEAD")) {
+            return false;
+        }
+        String path = request.getServletPath() + (request.getPathInfo() != null ? request.getPathInfo() : "");
+        int start = path.indexOf(RESOURCE_PREFIX);
+        if (start < 0) {
+            return false;
+        }
+        String name = path.substring(start + RESOURCE_PREFIX.length());
+        if (request.getServletPath().endsWith(".xhtml")) {
+            name = name.substring(0, name.length() - ".xhtml".length()); // Suffix mapping appends the page extension
+        }
+        String library = request.getParameter("ln");
+        String resourcePath = "/resources/" + (library != null ? library + "/" : "") + name;
+        if (resourcePath.contains("..")) {
+            return false;
+        }
+        ServletContext context = request.getServletContext();
+        String originalPath = context.getRealPath(resourcePath);
+        String compressedPath = context.getRealPath(resourcePath + ".gz");
+        if (originalPath == null || compressedPath == null) {
+            return false; // Not deployed as a directory
+        }
+        File original = new File(originalPath);
+        File compressed = new File(compressedPath);
+        if (!original.isFile() || !compressed.isFile() || compressed.lastModified() < original.lastModified()) {
+            return false;
+        }
+        long lastModified = original.lastModified() / 1000 * 1000; // HTTP dates have second precision
+        if (request.getDateHeader("If-Modified-Since") >= lastModified) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+        String contentType = context.getMimeType(name);
+        response.setContentType(contentType != null ? contentType : "application/octet-stream");
+        response.setHeader("Content-Encoding", "gzip");
+        response.setDateHeader("Last-Modified", lastModified);
+        response.setContentLengthLong(compressed.length());
+        if (request.getMethod().equals("HEAD")) {
+            return true;
+        }
+        try (FileChannel channel = FileChannel.open(compressed.toPath(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            long size = channel.size();
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Response whose body goes through a CompressingOutputStream. Content
+     * lengths set by the page are dropped, since they describe the
+     * uncompressed body.
+     */
+    private static class GzipResponse extends HttpServletResponseWrapper {
+
+        private final HttpServletResponse response; // The wrapped response
+        private CompressingOutputStream body; // Created on first use
+        private ServletOutputStream stream; // Returned by getOutputStream
+        private PrintWriter writer; // Returned by getWriter
+
+        GzipResponse(HttpServletResponse response) {
+            super(response);
+            this.response = response;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called");
+            }
+            if (stream == null) {
+                ServletOutputStream raw = response.getOutputStream();
+                CompressingOutputStream compressing = body();
+                stream = new ServletOutputStream() {
+                    @Override
+                    public boolean isReady() {
+                        return raw.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        raw.setWriteListener(listener);
+                    }
+
+                    @Override
+                    public void write(int b) throws IOException {
+                        compressing.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        compressing.write(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        compressing.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        compressing.close();
+                    }
+                };
+            }
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (stream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called");
+            }
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(body(), response.getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (!name.equalsIgnoreCase("Content-Length")) {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (!name.equalsIgnoreCase("Content-Length")) {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            } else if (body != null) {
+                body.flush();
+            }
+            if (body == null) {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (body != null && !body.resetPending()) {
+                throw new IllegalStateException("Response already committed");
+            }
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            resetBuffer();
+            super.reset();
+        }
+
+        /**
+         * Completes the body once the page has been rendered.
+         *
+         * @throws IOException if writing the response fails
+         */
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (body != null) {
+                body.finish();
+            }
+        }
+
+        /**
+         * Returns the deflater to its pool if the page failed half-way.
+         */
+        void release() {
+            if (body != null) {
+                body.release();
+            }
+        }
+
+        private CompressingOutputStream body() throws IOException {
+            if (body == null) {
+                body = new CompressingOutputStream(response.getOutputStream(), () -> {
+                    int status = response.getStatus();
+                    if (status == HttpServletResponse.SC_NO_CONTENT || status == HttpServletResponse.SC_NOT_MODIFIED
+                            || response.containsHeader("Content-Encoding") || !CompressingOutputStream.isCompressible(response.getContentType())) {
+                        return false;
+                    }
+                    response.setHeader("Content-Encoding", "gzip");
+                    return true;
+                });
+            }
+            return body;
+        }
+    }
+}
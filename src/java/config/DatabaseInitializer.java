@@ -6,7 +6,20 @@ import jakarta.servlet.annotation.WebListener;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import DAO.InventoryLedgerDAO;
+import DAO.PosterDAO;
+import DAO.ReservationDAO;
 import DAO.UserDAO;
+import Utils.ApiExecutor;
+import Utils.AvailabilityBroadcaster;
+import Utils.BackgroundTasks;
+import Utils.MovieLockRegistry;
+import Utils.OverdueScanner;
+import Utils.PosterRenditions;
+import Utils.PosterStore;
+import Utils.RateLimiter;
+import Utils.RecommendationEngine;
+import Utils.TrendingTracker;
 
 /**
  * WebListener that initializes the database schema when the application starts.
@@ -36,8 +49,9 @@ public class DatabaseInitializer implements ServletContextListener {
                     + "CATEGORY_ID VARCHAR(50) NOT NULL PRIMARY KEY, "
                     + "NAME_CATEGORY VARCHAR(100), "
                     + "DESCRIPTION VARCHAR(500), "
-                    + "POSTER_IMAGE BLOB"
+                    + "POSTER_HASH CHAR(64)"
                     + ")");
+            addColumn(stmt, "CATEGORIES", "POSTER_HASH", "CHAR(64)");
 
             // 3. MOVIES Table
             createTable(stmt, "MOVIES", "CREATE TABLE MOVIES ("
@@ -47,8 +61,14 @@ public class DatabaseInitializer implements ServletContextListener {
                     + "COPIES_AVAILABLE INT, "
                     + "QUANTITY INT, "
                     + "DATE_RELEASE DATE, "
-                    + "POSTER_IMAGE BLOB"
+                    + "POSTER_HASH CHAR(64), "
+                    + "VERSION INT DEFAULT 0 NOT NULL"
                     + ")");
+            addColumn(stmt, "MOVIES", "VERSION", "INT DEFAULT 0 NOT NULL");
+            addColumn(stmt, "MOVIES", "POSTER_HASH", "CHAR(64)");
+            // Keyset pagination of the REST catalog by title and by release date
+            createIndex(stmt, "IDX_MOVIES_TITLE", "CREATE INDEX IDX_MOVIES_TITLE ON MOVIES (TITLE, MOVIE_ID)");
+            createIndex(stmt, "IDX_MOVIES_RELEASE", "CREATE INDEX IDX_MOVIES_RELEASE ON MOVIES (DATE_RELEASE, MOVIE_ID)");
 
             // 4. MOVIE_CATEGORIES Table (Join Table)
             createTable(stmt, "MOVIE_CATEGORIES", "CREATE TABLE MOVIE_CATEGORIES ("
@@ -68,8 +88,12 @@ public class DatabaseInitializer implements ServletContextListener {
                     + "RATING INT, "
                     + "DATE_REVIEW TIMESTAMP, "
                     + "FOREIGN KEY (ID_USER) REFERENCES USERS(USER_ID), "
-                    + "FOREIGN KEY (ID_MOVIE) REFERENCES MOVIES(MOVIE_ID)"
+                    + "FOREIGN KEY (ID_MOVIE) REFERENCES MOVIES(MOVIE_ID), "
+                    + "CONSTRAINT UQ_REVIEWS_USER_MOVIE UNIQUE (ID_USER, ID_MOVIE)"
                     + ")");
+            addConstraint(stmt, "UQ_REVIEWS_USER_MOVIE", "ALTER TABLE REVIEWS ADD CONSTRAINT UQ_REVIEWS_USER_MOVIE UNIQUE (ID_USER, ID_MOVIE)");
+            // Reviews of a movie newest first, for paginated review listings
+            createIndex(stmt, "IDX_REVIEWS_MOVIE_DATE", "CREATE INDEX IDX_REVIEWS_MOVIE_DATE ON REVIEWS (ID_MOVIE, DATE_REVIEW, REVIEW_ID)");
 
             // 6. BORROWINGS Table
             createTable(stmt, "BORROWINGS", "CREATE TABLE BORROWINGS ("
@@ -79,15 +103,100 @@ public class DatabaseInitializer implements ServletContextListener {
                     + "DATE_BORROW DATE, "
                     + "DATE_RETURN DATE, "
                     + "STATUS VARCHAR(50), "
+                    + "DUE_DATE DATE, "
+                    + "DATE_OVERDUE TIMESTAMP, "
+                    + "FOREIGN KEY (ID_USER) REFERENCES USERS(USER_ID), "
+                    + "FOREIGN KEY (ID_MOVIE) REFERENCES MOVIES(MOVIE_ID)"
+                    + ")");
+            addColumn(stmt, "BORROWINGS", "DUE_DATE", "DATE");
+            addColumn(stmt, "BORROWINGS", "DATE_OVERDUE", "TIMESTAMP");
+            // Active borrowings by due date, so the overdue scan reads a range instead of the whole history
+            createIndex(stmt, "IDX_BORROWINGS_DUE", "CREATE INDEX IDX_BORROWINGS_DUE ON BORROWINGS (DATE_RETURN, DUE_DATE)");
+
+            // 7. RESERVATIONS Table (movie waitlist)
+            createTable(stmt, "RESERVATIONS", "CREATE TABLE RESERVATIONS ("
+                    + "ID_RESERVATION VARCHAR(50) NOT NULL PRIMARY KEY, "
+                    + "ID_USER VARCHAR(50) NOT NULL, "
+                    + "ID_MOVIE VARCHAR(50) NOT NULL, "
+                    + "DATE_RESERVED TIMESTAMP NOT NULL, "
+                    + "STATUS VARCHAR(20) NOT NULL, "
+                    + "HOLD_EXPIRES TIMESTAMP, "
                     + "FOREIGN KEY (ID_USER) REFERENCES USERS(USER_ID), "
                     + "FOREIGN KEY (ID_MOVIE) REFERENCES MOVIES(MOVIE_ID)"
                     + ")");
+            createIndex(stmt, "IDX_RESERVATIONS_QUEUE", "CREATE INDEX IDX_RESERVATIONS_QUEUE ON RESERVATIONS (ID_MOVIE, STATUS, DATE_RESERVED)");
+            createIndex(stmt, "IDX_RESERVATIONS_HOLDS", "CREATE INDEX IDX_RESERVATIONS_HOLDS ON RESERVATIONS (STATUS, HOLD_EXPIRES)");
+            createIndex(stmt, "IDX_RESERVATIONS_USER", "CREATE INDEX IDX_RESERVATIONS_USER ON RESERVATIONS (ID_USER, STATUS)");
+
+            // 8. INVENTORY_EVENTS Table (append-only inventory ledger)
+            createTable(stmt, "INVENTORY_EVENTS", "CREATE TABLE INVENTORY_EVENTS ("
+                    + "EVENT_ID BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY, "
+                    + "ID_MOVIE VARCHAR(50) NOT NULL, "
+                    + "EVENT_TYPE VARCHAR(20) NOT NULL, "
+                    + "QUANTITY_DELTA INT NOT NULL, "
+                    + "AVAILABLE_DELTA INT NOT NULL, "
+                    + "DATE_EVENT TIMESTAMP NOT NULL"
+                    + ")");
+            createIndex(stmt, "IDX_INVENTORY_EVENTS_MOVIE", "CREATE INDEX IDX_INVENTORY_EVENTS_MOVIE ON INVENTORY_EVENTS (ID_MOVIE, EVENT_ID)");
+
+            // 9. INVENTORY_SNAPSHOTS Table (counts per movie as of a ledger event)
+            createTable(stmt, "INVENTORY_SNAPSHOTS", "CREATE TABLE INVENTORY_SNAPSHOTS ("
+                    + "ID_MOVIE VARCHAR(50) NOT NULL, "
+                    + "EVENT_ID BIGINT NOT NULL, "
+                    + "QUANTITY INT NOT NULL, "
+                    + "COPIES_AVAILABLE INT NOT NULL, "
+                    + "DATE_SNAPSHOT TIMESTAMP NOT NULL, "
+                    + "PRIMARY KEY (ID_MOVIE, EVENT_ID)"
+                    + ")");
+
+            // 10. JOB_STATE Table (watermarks of incremental background jobs)
+            createTable(stmt, "JOB_STATE", "CREATE TABLE JOB_STATE ("
+                    + "JOB_NAME VARCHAR(50) NOT NULL PRIMARY KEY, "
+                    + "WATERMARK VARCHAR(100), "
+                    + "UPDATED_AT TIMESTAMP"
+                    + ")");
 
             System.out.println("✅ Database Schema Initialized.");
 
             // Initialize Admin User
             UserDAO.createAdminIfNotExists();
 
+            // Posters of databases from before the poster store move out of their BLOB columns
+            int movedPosters = PosterDAO.moveBlobsToStore();
+            if (movedPosters > 0) {
+                System.out.println("🖼️ " + movedPosters + " posters moved to the poster store.");
+            }
+
+            // Movies from before the inventory ledger start from their current counts
+            int opened = InventoryLedgerDAO.createOpeningSnapshots();
+            if (opened > 0) {
+                System.out.println("📒 Opening inventory snapshots created for " + opened + " movies.");
+            }
+
+            // Load trending scores from recent borrowings
+            TrendingTracker.warmUp();
+
+            // Build recommendations off the startup thread
+            BackgroundTasks.submit("recommendation-rebuild", RecommendationEngine::rebuild);
+            BackgroundTasks.scheduleAtFixedRate("recommendation-refresh", RecommendationEngine::refreshNeighbours, AppConfig.getRecommendationRefreshMillis());
+
+            // Expire waitlist holds periodically
+            BackgroundTasks.scheduleAtFixedRate("reservation-sweep", ReservationDAO::sweepExpiredHolds, AppConfig.getReservationSweepMillis());
+
+            // Give borrowings made before due dates existed a due date, then scan for overdue ones periodically
+            OverdueScanner.backfillDueDates();
+            BackgroundTasks.scheduleAtFixedRate("overdue-scan", OverdueScanner::scan, AppConfig.getOverdueScanMillis());
+
+            // Drop rate-limit buckets that have refilled, keeping the limiter's memory bounded
+            BackgroundTasks.scheduleAtFixedRate("rate-limit-evict", RateLimiter::evictIdle, AppConfig.getRateLimitEvictMillis());
+
+            // Push availability changes to live streams, and keep idle streams open
+            BackgroundTasks.scheduleAtFixedRate("live-availability-flush", AvailabilityBroadcaster::flush, AppConfig.getLiveFlushMillis());
+            BackgroundTasks.scheduleAtFixedRate("live-availability-heartbeat", AvailabilityBroadcaster::heartbeat, AppConfig.getLiveHeartbeatMillis());
+
+            // Delete poster files no movie or category uses any more
+            BackgroundTasks.scheduleAtFixedRate("poster-sweep", PosterStore::sweepOrphans, AppConfig.getPosterSweepMillis());
+
         } catch (SQLException e) {
             System.err.println("❌ Database Initialization Error: " + e.getMessage());
             e.printStackTrace();
@@ -107,8 +216,51 @@ public class DatabaseInitializer implements ServletContextListener {
         }
     }
 
+    private void createIndex(Statement stmt, String indexName, String ddl) {
+        try {
+            stmt.executeUpdate(ddl);
+            System.out.println("✅ Index " + indexName + " created.");
+        } catch (SQLException e) {
+            if (e.getSQLState().equals("X0Y32")) { // Derby code for "Index already exists"
+                System.out.println("ℹ️ Index " + indexName + " already exists.");
+            } else {
+                System.err.println("❌ Error creating index " + indexName + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void addConstraint(Statement stmt, String constraintName, String ddl) {
+        try {
+            stmt.executeUpdate(ddl);
+            System.out.println("✅ Constraint " + constraintName + " added.");
+        } catch (SQLException e) {
+            if (e.getSQLState().equals("X0Y32")) { // Derby code for "Constraint already exists"
+                System.out.println("ℹ️ Constraint " + constraintName + " already exists.");
+            } else { // For example 23505 when existing rows violate it
+                System.err.println("❌ Error adding constraint " + constraintName + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void addColumn(Statement stmt, String tableName, String columnName, String definition) {
+        try {
+            stmt.executeUpdate("ALTER TABLE " + tableName + " ADD COLUMN " + columnName + " " + definition);
+            System.out.println("✅ Column " + tableName + "." + columnName + " added.");
+        } catch (SQLException e) {
+            if (e.getSQLState().equals("X0Y32")) { // Derby code for "Column already exists"
+                System.out.println("ℹ️ Column " + tableName + "." + columnName + " already exists.");
+            } else {
+                System.err.println("❌ Error adding column " + tableName + "." + columnName + ": " + e.getMessage());
+            }
+        }
+    }
+
     @Override
     public void contextDestroyed(ServletContextEvent sce) {
-        // Cleanup if needed
+        BackgroundTasks.shutdown();
+        ApiExecutor.shutdown();
+        AvailabilityBroadcaster.shutdown();
+        PosterRenditions.shutdown();
+        MovieLockRegistry.logContention();
     }
 }
@@ -0,0 +1,70 @@
+package config;
+
+import Utils.PosterRenditions;
+import Utils.PosterStore;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Serves the posters of the PosterStore at /posters/{hash} and their
+ * renditions at /posters/{hash}-{width}.
+ *
+ * A hash always names the same bytes, so the response is marked immutable
+ * and cacheable for a year, and a revalidation is answered with 304 without
+ * touching the file. The body is written straight from the file channel. A
+ * rendition that has not been made yet is queued and answered with the
+ * original, marked for revalidation only, so the browser picks up the
+ * rendition once it exists.
+ */
+@WebServlet(name = "PosterServlet", urlPatterns = {"/posters/*"})
+public class PosterServlet extends HttpServlet {
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String name = request.getPathInfo() != null ? request.getPathInfo().substring(1) : "";
+        int dash = name.indexOf('-');
+        String hash = dash < 0 ? name : name.substring(0, dash);
+        Path file = PosterStore.resolve(hash);
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        boolean immutable = true;
+        if (dash >= 0) {
+            int width;
+            try {
+                width = Integer.parseInt(name.substring(dash + 1));
+            } catch (NumberFormatException e) {
+                width = -1;
+            }
+            if (!PosterStore.isRenditionWidth(width)) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            Path rendition = PosterStore.resolveRendition(hash, width);
+            if (rendition != null) {
+                file = rendition;
+            } else {
+                PosterRenditions.submit(hash);
+                name = hash; // Serve the original until the rendition exists
+                immutable = false;
+            }
+        }
+        String eTag = "\"" + name + "\"";
+        response.setHeader("ETag", eTag);
+        response.setHeader("Cache-Control", immutable ? PosterStore.CACHE_CONTROL : "no-cache");
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null && (ifNoneMatch.contains(eTag) || ifNoneMatch.trim().equals("*"))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType(PosterStore.contentType(file));
+        response.setContentLengthLong(Files.size(file));
+        PosterStore.transferTo(file, response.getOutputStream());
+    }
+}
@@ -112,3 +112,38 @@ setInterval(scanAndFadeMessages, 2000);
 document.addEventListener('DOMContentLoaded', function () {
     scanAndFadeMessages();
 });
+
+/**
+ * Keeps the available-copies counts on the page current without a reload.
+ * Opens the server-sent event stream of availability changes when the page
+ * shows any count (elements with class 'live-available' and a data-movie-id)
+ * and patches the matching counts in place. The browser reconnects by itself
+ * if the stream drops.
+ *
+ * 📍 Used in: movieCard.xhtml, movieDetails.xhtml (stream address in index.xhtml)
+ */
+document.addEventListener('DOMContentLoaded', function () {
+    const stream = document.getElementById('live-availability-stream');
+    if (!stream || !window.EventSource || !document.querySelector('.live-available')) {
+        return;
+    }
+
+    const source = new EventSource(stream.dataset.url);
+    source.addEventListener('availability', function (event) {
+        // Each change is [movieId, copiesAvailable, quantity]
+        JSON.parse(event.data).forEach(function (change) {
+            document.querySelectorAll('.live-available[data-movie-id="' + change[0] + '"]').forEach(function (count) {
+                if (count.textContent.trim() !== String(change[1])) {
+                    count.textContent = change[1];
+                    count.classList.remove('live-updated');
+                    void count.offsetWidth; // Restart the highlight animation
+                    count.classList.add('live-updated');
+                }
+            });
+        });
+    });
+
+    window.addEventListener('pagehide', function () {
+        source.close();
+    });
+});